@@ -0,0 +1,136 @@
+package com.gms_server.auth_app.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result (-rf json) against a stored baseline, or stores
+ * the result as the new baseline.
+ *
+ *   BaselineComparator <baseline.json> <result.json> [threshold %] [compare|record|skip]
+ *
+ * Benchmarks are matched by name, params and thread count. A change counts as
+ * a regression when it is worse than the threshold in the benchmark's own
+ * direction (throughput down, time up) AND larger than the two runs' combined
+ * error margins, so noisy benchmarks don't fail the build.
+ *
+ * compare exits with 1 on any regression (fails the Maven build), 0 otherwise;
+ * a missing baseline is reported and skipped. Record the baseline on the same
+ * machine / JDK the comparisons will run on.
+ */
+public class BaselineComparator {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <result.json> [threshold %] [compare|record|skip]");
+            System.exit(2);
+        }
+        Path baselineFile = Path.of(args[0]);
+        Path resultFile = Path.of(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        String mode = args.length > 3 ? args[3] : "compare";
+
+        if (!"skip".equals(mode) && !Files.exists(resultFile)) {
+            // e.g. ThreadScalingRunner writes one file per thread count instead
+            System.out.println("No result at " + resultFile + " - nothing to compare");
+            return;
+        }
+        switch (mode) {
+            case "skip" -> System.out.println("Baseline comparison skipped");
+            case "record" -> {
+                Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+                Files.copy(resultFile, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+                System.out.println("Baseline recorded: " + baselineFile);
+            }
+            case "compare" -> {
+                if (!Files.exists(baselineFile)) {
+                    System.out.println("No baseline at " + baselineFile + " - record one with -Djmh.compare=record");
+                    return;
+                }
+                int regressions = compare(read(baselineFile), read(resultFile), threshold);
+                if (regressions > 0) {
+                    System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+                    System.exit(1);
+                }
+            }
+            default -> {
+                System.err.println("Unknown mode: " + mode);
+                System.exit(2);
+            }
+        }
+    }
+
+    private static int compare(Map<String, Score> baseline, Map<String, Score> current, double threshold) {
+        int regressions = 0;
+        System.out.println();
+        System.out.printf("%-72s %14s %14s %9s  %s%n", "benchmark", "baseline", "current", "change", "unit");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score base = baseline.get(entry.getKey());
+            if (base == null || !base.unit().equals(now.unit())) {
+                System.out.printf("%-72s %14s %14.3f %9s  %s%n", entry.getKey(), "-", now.score(), "new", now.unit());
+                continue;
+            }
+            double change = (now.score() - base.score()) / base.score() * 100;
+            // Throughput: higher is better; every time-based mode: lower is better
+            double worse = now.higherIsBetter() ? -change : change;
+            boolean beyondNoise = Math.abs(now.score() - base.score()) > base.error() + now.error();
+            boolean regressed = worse > threshold && beyondNoise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-72s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), base.score(), now.score(),
+                    change, now.unit(), regressed ? "  REGRESSION" : "");
+        }
+        List<String> missing = new ArrayList<>(baseline.keySet());
+        missing.removeAll(current.keySet());
+        if (!missing.isEmpty()) {
+            System.out.println("Not run (in baseline only): " + missing);
+        }
+        return regressions;
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : objectMapper.readTree(file.toFile())) {
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key(run), new Score(
+                    metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error,
+                    metric.path("scoreUnit").asText(),
+                    "thrpt".equals(run.path("mode").asText())));
+        }
+        return scores;
+    }
+
+    /**
+     * Short benchmark name + sorted params + thread count
+     */
+    private static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText();
+        String[] parts = benchmark.split("\\.");
+        StringBuilder key = new StringBuilder(parts.length >= 2
+                ? parts[parts.length - 2] + "." + parts[parts.length - 1]
+                : benchmark);
+        Map<String, String> params = new TreeMap<>();
+        run.path("params").properties().forEach(param -> params.put(param.getKey(), param.getValue().asText()));
+        params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+        return key.append(" t=").append(run.path("threads").asInt(1)).toString();
+    }
+
+    private record Score(double score, double error, String unit, boolean higherIsBetter) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.gms_server.auth_app.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import com.gms_server.auth_app.configs.WebSecurityConfig;
+import com.gms_server.auth_app.utils.AuthMetrics;
+import com.gms_server.auth_app.utils.RedisService;
+import com.gms_server.auth_app.utils.ServerTiming;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servlet filters in front of every /api/v1/auth and /api/v1/verify request,
+ * with Redis replaced by an in-memory counter - measures the filter's own
+ * overhead (header parsing, key building, response headers, metrics), not the
+ * network round trip.
+ *
+ * Filter logging is raised to ERROR so the rejected path measures the filter,
+ * not the console appender.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FilterBenchmark {
+
+    private static final FilterChain NOOP_CHAIN = (request, response) -> { };
+
+    private WebSecurityConfig.SecurityHeadersFilter securityHeadersFilter;
+    private WebSecurityConfig.RedisRateLimitingFilter allowingFilter;
+    private WebSecurityConfig.RedisRateLimitingFilter rejectingFilter;
+    private MockHttpServletRequest verifyRequest;
+    private MockHttpServletRequest publicRequest;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(WebSecurityConfig.RedisRateLimitingFilter.class))
+                .setLevel(Level.ERROR);
+
+        AuthMetrics metrics = new AuthMetrics(new SimpleMeterRegistry(), new ServerTiming(false, 0), 50);
+        securityHeadersFilter = new WebSecurityConfig.SecurityHeadersFilter();
+        allowingFilter = new WebSecurityConfig.RedisRateLimitingFilter(
+                new InMemoryRedisService(), metrics, true, Integer.MAX_VALUE);
+        rejectingFilter = new WebSecurityConfig.RedisRateLimitingFilter(
+                new InMemoryRedisService(), metrics, true, 0);
+
+        verifyRequest = new MockHttpServletRequest("GET", "/api/v1/verify/vendor");
+        verifyRequest.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.12");
+        verifyRequest.setSecure(true);
+        publicRequest = new MockHttpServletRequest("GET", "/api/v1/sessions/health");
+    }
+
+    @Benchmark
+    public MockHttpServletResponse securityHeaders() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        securityHeadersFilter.doFilter(verifyRequest, response, NOOP_CHAIN);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse rateLimitAllowed() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        allowingFilter.doFilter(verifyRequest, response, NOOP_CHAIN);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse rateLimitRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rejectingFilter.doFilter(verifyRequest, response, NOOP_CHAIN);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse rateLimitSkippedPath() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        allowingFilter.doFilter(publicRequest, response, NOOP_CHAIN);
+        return response;
+    }
+
+    /**
+     * INCR / EXPIRE / TTL in memory; every other operation is unused by the filter
+     */
+    static final class InMemoryRedisService extends RedisService {
+
+        private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+        InMemoryRedisService() {
+            super(null, null);
+        }
+
+        @Override
+        public Long increment(String key) {
+            return counters.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        }
+
+        @Override
+        public Boolean expire(String key, long timeout, TimeUnit unit) {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        public Long getTTL(String key) {
+            return 60L;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.gms_server.auth_app.benchmarks;
+
+import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.configs.PersonaProperties;
+import com.gms_server.auth_app.services.CachedUserInfo;
+import com.gms_server.auth_app.services.PersonaRegistry;
+import com.gms_server.auth_app.services.PersonaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persona lookup and role checks on the verify path, against the four
+ * configured personas (no Redis overlay):
+ * - getPersonaConfig: exact name vs mixed case (case-insensitive fallback)
+ * - hasPersonaRole: bit test on compiled roles (verify) vs compiling raw claims (login)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PersonaBenchmark {
+
+    private static final String[] PERSONAS = {"vendor", "consumer", "affiliate", "gms"};
+
+    private PersonaService personaService;
+    private PersonaConfig vendor;
+    private Map<String, Object> claims;
+    private CachedUserInfo principal;
+
+    @Setup
+    public void setUp() {
+        PersonaProperties properties = new PersonaProperties();
+        for (int i = 0; i < PERSONAS.length; i++) {
+            PersonaProperties.Definition definition = new PersonaProperties.Definition();
+            definition.setIssuer("https://" + PERSONAS[i] + ".auth.example.com");
+            definition.setOrganizationId("org-" + i);
+            definition.setClientId("client-" + i);
+            definition.setRedirectUri("https://app.example.com/" + PERSONAS[i] + "/callback");
+            definition.setProjectId("30000000000000000" + i);
+            definition.setSessionIdName(PERSONAS[i].toUpperCase() + "_SESSION_ID");
+            properties.getPersonas().put(PERSONAS[i], definition);
+        }
+        // Redis overlay is disabled by default, so the registry never touches RedisService
+        PersonaRegistry registry = new PersonaRegistry(properties, null);
+        registry.load();
+        personaService = new PersonaService(registry);
+        vendor = personaService.getPersonaConfig("vendor");
+
+        Map<String, Object> projectRoles = new LinkedHashMap<>();
+        projectRoles.put("vendor", Map.of("org-0", "vendor.auth.example.com"));
+        claims = new LinkedHashMap<>();
+        claims.put("sub", "281936384729102938");
+        claims.put("email", "jane.doe@example.com");
+        claims.put("email_verified", true);
+        claims.put("name", "Jane Doe");
+        claims.put(vendor.getProjectRolesClaim(), projectRoles);
+        principal = registry.compile(claims);
+    }
+
+    @Benchmark
+    public PersonaConfig getPersonaConfig() {
+        return personaService.getPersonaConfig("vendor");
+    }
+
+    @Benchmark
+    public PersonaConfig getPersonaConfigMixedCase() {
+        return personaService.getPersonaConfig("Vendor");
+    }
+
+    @Benchmark
+    public boolean isValidPersonaUnknown() {
+        return personaService.isValidPersona("unknown");
+    }
+
+    @Benchmark
+    public boolean hasPersonaRoleCompiled() {
+        return personaService.hasPersonaRole(principal, vendor);
+    }
+
+    @Benchmark
+    public boolean hasPersonaRoleClaims() {
+        return personaService.hasPersonaRole(claims, vendor);
+    }
+}
@@ -0,0 +1,87 @@
+package com.gms_server.auth_app.benchmarks;
+
+import com.gms_server.auth_app.configs.RedisConfig;
+import com.gms_server.auth_app.services.CachedUserInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value (de)serialization through the RedisTemplate built by RedisConfig
+ * (GenericJackson2JsonRedisSerializer with type info), for the values read
+ * on every verify: the session record and the cached UserInfo.
+ *
+ * The connection factory is never started - no Redis server is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RedisSerializationBenchmark {
+
+    private RedisSerializer<Object> serializer;
+    private Map<String, Object> session;
+    private Map<String, Object> userInfo;
+    private byte[] sessionBytes;
+    private byte[] userInfoBytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        RedisTemplate<String, Object> template = new RedisConfig().redisTemplate(new LettuceConnectionFactory());
+        serializer = (RedisSerializer<Object>) template.getValueSerializer();
+
+        session = new LinkedHashMap<>();
+        session.put("user_id", "281936384729102938");
+        session.put("access_token", "a".repeat(900));
+        session.put("refresh_token", "r".repeat(120));
+        session.put("id_token", "i".repeat(1100));
+        session.put("expires_in", 43199);
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", "281936384729102938");
+        claims.put("email", "jane.doe@example.com");
+        claims.put("email_verified", true);
+        claims.put("name", "Jane Doe");
+        claims.put("locale", "en");
+        claims.put("urn:zitadel:iam:org:project:300000000000000000:roles",
+                Map.of("vendor", Map.of("org-0", "vendor.auth.example.com")));
+        // Same shape CachingService stores under token:principal:*
+        userInfo = CachedUserInfo.fromCacheValue(
+                Map.of("userInfo", claims, "roles", List.of(1L), "registry", 7263541827364512L)).toCacheValue();
+
+        sessionBytes = serializer.serialize(session);
+        userInfoBytes = serializer.serialize(userInfo);
+    }
+
+    @Benchmark
+    public byte[] serializeSession() {
+        return serializer.serialize(session);
+    }
+
+    @Benchmark
+    public Object deserializeSession() {
+        return serializer.deserialize(sessionBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeUserInfo() {
+        return serializer.serialize(userInfo);
+    }
+
+    @Benchmark
+    public Object deserializeUserInfo() {
+        return serializer.deserialize(userInfoBytes);
+    }
+}
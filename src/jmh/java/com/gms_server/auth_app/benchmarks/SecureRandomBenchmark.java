@@ -0,0 +1,87 @@
+package com.gms_server.auth_app.benchmarks;
+
+import com.gms_server.auth_app.utils.PkceService;
+import com.gms_server.auth_app.utils.SecretKeyProvider;
+import com.gms_server.auth_app.utils.SecureRandomGenerator;
+import com.gms_server.auth_app.utils.SessionIdSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PKCE / session ID generation: shared SecureRandom + UUID (legacy)
+ * vs per-thread buffered DRBG (SecureRandomGenerator).
+ *
+ * Run across thread counts with ThreadScalingRunner to see contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SecureRandomBenchmark {
+
+    private static final SecureRandom sharedRandom = new SecureRandom();
+    private static final Base64.Encoder base64UrlEncoder = Base64.getUrlEncoder().withoutPadding();
+
+    private final SessionIdSigner unsignedIds = new SessionIdSigner(new SecretKeyProvider(""));
+    private final SessionIdSigner signedIds = new SessionIdSigner(
+            new SecretKeyProvider(Base64.getEncoder().encodeToString(new byte[32])));
+
+    // ---------------- Legacy ----------------
+
+    @Benchmark
+    public String legacyCodeVerifier() {
+        byte[] code = new byte[64];
+        sharedRandom.nextBytes(code);
+        return base64UrlEncoder.encodeToString(code);
+    }
+
+    @Benchmark
+    public String legacyCodeChallenge() throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return base64UrlEncoder.encodeToString(
+                digest.digest("dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Benchmark
+    public String legacySessionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    // ---------------- Per-thread DRBG ----------------
+
+    @Benchmark
+    public String codeVerifier() {
+        return PkceService.generateCodeVerifier();
+    }
+
+    @Benchmark
+    public String codeChallenge() {
+        return PkceService.generateCodeChallenge("dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk");
+    }
+
+    @Benchmark
+    public String sessionId() {
+        return unsignedIds.issue();
+    }
+
+    @Benchmark
+    public String signedSessionId() {
+        return signedIds.issue();
+    }
+
+    @Benchmark
+    public String state() {
+        return SecureRandomGenerator.randomToken(24);
+    }
+}
@@ -0,0 +1,62 @@
+package com.gms_server.auth_app.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the selected benchmarks at 1, 2, 4, ... up to all available cores
+ * and prints throughput per thread count, so contention shows up as
+ * flattening (or falling) numbers.
+ *
+ * Accepts the same arguments as org.openjdk.jmh.Main. Each thread count
+ * writes its own result file: jmh-result-t{N}.json
+ */
+public class ThreadScalingRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        String resultFile = commandLine.getResult().orElse("jmh-result.json");
+
+        List<Integer> threadCounts = new ArrayList<>();
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        // benchmark -> (threads -> ops/ms)
+        Map<String, Map<Integer, Double>> table = new TreeMap<>();
+
+        for (int threads : threadCounts) {
+            Collection<RunResult> results = new Runner(new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .result(resultFile.replace(".json", "-t" + threads + ".json"))
+                    .build()).run();
+
+            for (RunResult result : results) {
+                String benchmark = result.getParams().getBenchmark();
+                table.computeIfAbsent(benchmark.substring(benchmark.lastIndexOf('.') + 1), k -> new TreeMap<>())
+                        .put(threads, result.getPrimaryResult().getScore());
+            }
+        }
+
+        StringBuilder header = new StringBuilder(String.format("%-28s", "benchmark"));
+        threadCounts.forEach(threads -> header.append(String.format("%14s", "t=" + threads)));
+        System.out.println();
+        System.out.println(header);
+        table.forEach((benchmark, scores) -> {
+            StringBuilder row = new StringBuilder(String.format("%-28s", benchmark));
+            threadCounts.forEach(threads -> row.append(String.format("%14.1f", scores.getOrDefault(threads, 0.0))));
+            System.out.println(row);
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.gms_server.auth_app.benchmarks;
+
+import com.gms_server.auth_app.utils.SecretKeyProvider;
+import com.gms_server.auth_app.utils.SecureRandomGenerator;
+import com.gms_server.auth_app.utils.SessionIdSigner;
+import com.gms_server.auth_app.utils.ValidationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Input validators run on every auth request (persona, session ID, state, code),
+ * with realistic inputs: signed session IDs (SessionIdSigner, MAC check) and
+ * envelope states, plus the legacy UUID session IDs still accepted as unsigned.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+
+    private static final long SESSION_TTL_SECONDS = 7 * 24 * 3600;
+
+    private final ValidationUtils validationUtils = new ValidationUtils();
+    private final SessionIdSigner sessionIdSigner = new SessionIdSigner(
+            new SecretKeyProvider(Base64.getEncoder().encodeToString(new byte[32])));
+
+    private final String persona = "vendor";
+    private final String sessionId = sessionIdSigner.issue();
+    private final String legacySessionId = UUID.randomUUID().toString();
+    private final String state = SecureRandomGenerator.randomToken(24);
+    private final String envelopeState = SecureRandomGenerator.randomToken(180);
+    private final String authCode = SecureRandomGenerator.randomToken(48);
+    private final String email = "jane.doe+orders@example.com";
+    private final String untrusted = "<script>alert('x')</script> O'Brien";
+
+    @Benchmark
+    public boolean persona() {
+        return validationUtils.isValidPersona(persona);
+    }
+
+    @Benchmark
+    public SessionIdSigner.Result sessionId() {
+        return sessionIdSigner.verify(sessionId, SESSION_TTL_SECONDS);
+    }
+
+    @Benchmark
+    public SessionIdSigner.Result legacySessionId() {
+        return sessionIdSigner.verify(legacySessionId, SESSION_TTL_SECONDS);
+    }
+
+    @Benchmark
+    public boolean state() {
+        return validationUtils.isValidState(state);
+    }
+
+    @Benchmark
+    public boolean envelopeState() {
+        return validationUtils.isValidState(envelopeState);
+    }
+
+    @Benchmark
+    public boolean authCode() {
+        return validationUtils.isValidAuthCode(authCode);
+    }
+
+    @Benchmark
+    public boolean email() {
+        return validationUtils.isValidEmail(email);
+    }
+
+    @Benchmark
+    public String sanitize() {
+        return validationUtils.sanitize(untrusted);
+    }
+}
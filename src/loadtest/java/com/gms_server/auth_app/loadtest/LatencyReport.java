@@ -0,0 +1,77 @@
+package com.gms_server.auth_app.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One HdrHistogram (ns, 3 significant digits) per operation plus response
+ * status counts. Printed as a percentile table in ms; each histogram is also
+ * written as <operation>.hgrm (HdrHistogram percentile distribution, ms) for
+ * plotting / comparison between runs.
+ */
+public class LatencyReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, LongAdder>> outcomes = new ConcurrentHashMap<>();
+
+    public void record(String operation, long latencyNanos, String outcome) {
+        histograms.computeIfAbsent(operation, k -> new ConcurrentHistogram(3)).recordValue(Math.max(0, latencyNanos));
+        outcomes.computeIfAbsent(operation, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, k -> new LongAdder()).increment();
+    }
+
+    public void record(String operation, long latencyNanos, int status) {
+        record(operation, latencyNanos, String.valueOf(status));
+    }
+
+    public void print(PrintStream out) {
+        out.println();
+        out.printf("%-24s %9s %9s %9s %9s %9s %9s %9s  %s%n",
+                "operation", "count", "mean", "p50", "p90", "p99", "p99.9", "max", "outcomes");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            out.printf("%-24s %9d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    entry.getKey(),
+                    histogram.getTotalCount(),
+                    histogram.getMean() / NANOS_PER_MILLI,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    outcomes(entry.getKey()));
+        }
+        out.println("(latencies in ms)");
+    }
+
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(directory.resolve(entry.getKey() + ".hgrm")), true, "UTF-8")) {
+                entry.getValue().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private Map<String, Long> outcomes(String operation) {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.getOrDefault(operation, Map.of()).forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,235 @@
+package com.gms_server.auth_app.loadtest;
+
+import com.gms_server.auth_app.AuthAppApplication;
+import com.gms_server.auth_app.services.DecisionCache;
+import com.gms_server.auth_app.utils.SecureRandomGenerator;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.RedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+/**
+ * ============================================
+ * LOAD TEST HARNESS
+ * ============================================
+ *
+ * Boots everything in one JVM, no containers or cloud accounts needed:
+ *   embedded Redis (bundled redis-server binary, random port) or an external one (redis.url=...)
+ *   StubOidcProvider standing in for Zitadel (all four personas, one client/project each)
+ *   the auth server itself (SpringApplication, random port, rate limiting off)
+ * then runs the selected scenarios and prints / writes the HdrHistogram report.
+ *
+ * Arguments are key=value:
+ *   scenarios=login,verify,refresh,idempotency
+ *   users=500             logins in the login storm (= sessions for verify / refresh)
+ *   personas=vendor,consumer
+ *   concurrency=64        workers per scenario
+ *   duration=30           verify flood length, seconds
+ *   rate=0                ops/s, open loop with coordinated-omission correction; 0 = closed loop
+ *   keys=500 retries=5    idempotency keys, concurrent attempts per key
+ *   latency=token=40:15,userinfo=25:10,...   stub endpoint latency, base:jitter ms
+ *   pregranted=0.9        share of users already holding the persona role
+ *   access-ttl=3600       stub access token lifetime, seconds
+ *   redis.url=            external Redis instead of the embedded one
+ *   output=target/loadtest
+ *   app.<property>=value  passed to the auth server, e.g. app.verify.decision-cache.enabled=false
+ *
+ * The auth server shares the JVM (and CPU) with the drivers and the stub, so
+ * absolute numbers are for comparing runs on the same machine, not capacity.
+ */
+public class LoadTestHarness {
+
+    private static final List<String> ALL_PERSONAS = List.of("vendor", "consumer", "affiliate", "gms");
+
+    private static final String DEFAULT_LATENCY =
+            "discovery=1,keys=1,authorize=5:2,token=40:15,userinfo=25:10,introspect=15:5,revoke=10:5,grants=60:20";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        List<String> scenarios = Arrays.asList(options.getOrDefault("scenarios", "login,verify,refresh,idempotency")
+                .split(","));
+        List<String> personas = Arrays.asList(options.getOrDefault("personas", "vendor,consumer").split(","));
+        int users = Integer.parseInt(options.getOrDefault("users", "500"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        Path output = Path.of(options.getOrDefault("output", "target/loadtest"));
+
+        RedisServer embeddedRedis = null;
+        String redisUrl = options.get("redis.url");
+        if (redisUrl == null) {
+            int redisPort = freePort();
+            embeddedRedis = new RedisServer(redisPort);
+            embeddedRedis.start();
+            redisUrl = "redis://127.0.0.1:" + redisPort;
+            System.out.println("🗄️ Embedded Redis on port " + redisPort);
+        }
+
+        Map<String, StubOidcProvider.Latency> latencies = new HashMap<>();
+        for (String entry : options.getOrDefault("latency", DEFAULT_LATENCY).split(",")) {
+            String[] parts = entry.split("=", 2);
+            latencies.put(parts[0].trim(), StubOidcProvider.Latency.parse(parts[1]));
+        }
+        StubOidcProvider stub = new StubOidcProvider(0, Integer.parseInt(options.getOrDefault("stub.threads", "256")),
+                latencies, Double.parseDouble(options.getOrDefault("pregranted", "0.9")),
+                Long.parseLong(options.getOrDefault("access-ttl", "3600")));
+        stub.start();
+        System.out.println("🪪 Stub OIDC provider at " + stub.getIssuer());
+
+        int appPort = freePort();
+        String baseUrl = "http://127.0.0.1:" + appPort;
+        Map<String, String> sessionCookieNames = new LinkedHashMap<>();
+        ConfigurableApplicationContext context = null;
+        try {
+            context = SpringApplication.run(AuthAppApplication.class,
+                    appArguments(options, stub, appPort, redisUrl, sessionCookieNames));
+            System.out.println("🚀 Auth server at " + baseUrl);
+
+            LatencyReport report = new LatencyReport();
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(Executors.newFixedThreadPool(concurrency))
+                    .build();
+            Scenarios driver = new Scenarios(http, baseUrl, sessionCookieNames, report, concurrency);
+
+            List<Scenarios.Session> sessions = new ArrayList<>();
+            if (scenarios.contains("login") || scenarios.contains("verify") || scenarios.contains("refresh")) {
+                sessions = driver.loginStorm(users, personas, scenarios.contains("login") ? rate : 0);
+                System.out.println("  " + sessions.size() + "/" + users + " sessions established");
+            }
+            if (scenarios.contains("verify")) {
+                driver.verifyFlood(sessions, Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30"))),
+                        rate);
+            }
+            if (scenarios.contains("refresh")) {
+                ConfigurableApplicationContext app = context;
+                driver.refreshStorm(sessions, () -> expireEverything(stub, app));
+            }
+            if (scenarios.contains("idempotency")) {
+                driver.idempotentRetries(Integer.parseInt(options.getOrDefault("keys", "500")),
+                        Integer.parseInt(options.getOrDefault("retries", "5")), rate);
+            }
+
+            report.print(System.out);
+            System.out.println("Stub calls: " + stub.getCallCounts());
+            report.write(output);
+            System.out.println("Histograms written to " + output.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            stub.stop();
+            if (embeddedRedis != null) {
+                embeddedRedis.stop();
+            }
+        }
+        // Stray non-daemon threads (Lettuce, Reactor) must not keep the Maven exec alive
+        System.exit(0);
+    }
+
+    /**
+     * Invalidate every access token at the stub and drop everything the auth
+     * server cached from them: UserInfo / introspection in Redis and the local
+     * verify decisions
+     */
+    @SuppressWarnings("unchecked")
+    private static void expireEverything(StubOidcProvider stub, ConfigurableApplicationContext context) {
+        stub.expireAccessTokens();
+        RedisTemplate<String, Object> redisTemplate = context.getBean("redisTemplate", RedisTemplate.class);
+        for (String pattern : List.of("token:principal:*", "token:introspect:*")) {
+            Set<String> keys = redisTemplate.keys(pattern);
+            if (keys != null && !keys.isEmpty()) {
+                redisTemplate.delete(keys);
+            }
+        }
+        DecisionCache decisionCache = context.getBean(DecisionCache.class);
+        stub.getUsers().forEach(decisionCache::invalidateUser);
+    }
+
+    private static String[] appArguments(Map<String, String> options, StubOidcProvider stub, int appPort,
+                                         String redisUrl, Map<String, String> sessionCookieNames) {
+        String issuer = stub.getIssuer();
+        String baseUrl = "http://127.0.0.1:" + appPort;
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", String.valueOf(appPort));
+        properties.put("spring.data.redis.url", redisUrl);
+        properties.put("zitadel.instance-url", issuer);
+        properties.put("zitadel.access-token", "loadtest");
+        properties.put("zitadel.global-management-token", "loadtest");
+        properties.put("zitadel.base-url", issuer);
+        properties.put("auth.secret", Base64.getEncoder().encodeToString(randomBytes()));
+        properties.put("rate.limit.enabled", "false");
+        properties.put("logging.level.com.gms_server", "WARN");
+
+        for (int i = 0; i < ALL_PERSONAS.size(); i++) {
+            String persona = ALL_PERSONAS.get(i);
+            String clientId = "loadtest-" + persona;
+            String projectId = "90000000000000000" + i;
+            String organizationId = "loadtest-org-" + i;
+            String sessionCookie = persona.toUpperCase() + "_SESSION_ID";
+            stub.registerClient(clientId, persona, projectId, organizationId);
+            sessionCookieNames.put(persona, sessionCookie);
+
+            String prefix = "zitadel.personas." + persona + ".";
+            properties.put(prefix + "issuer", issuer);
+            properties.put(prefix + "organization-id", organizationId);
+            properties.put(prefix + "client-id", clientId);
+            properties.put(prefix + "client-secret", "loadtest-secret");
+            properties.put(prefix + "redirect-uri", baseUrl + "/api/v1/auth/callback");
+            properties.put(prefix + "logout-redirect-uri", baseUrl + "/");
+            properties.put(prefix + "project-id", projectId);
+            properties.put(prefix + "management-token", "loadtest");
+            properties.put(prefix + "session-id-name", sessionCookie);
+            properties.put(prefix + "after-login-redirect-uri", baseUrl + "/" + persona);
+        }
+        options.forEach((key, value) -> {
+            if (key.startsWith("app.")) {
+                properties.put(key.substring("app.".length()), value);
+            }
+        });
+        return properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static byte[] randomBytes() {
+        byte[] bytes = new byte[32];
+        SecureRandomGenerator.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.gms_server.auth_app.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ============================================
+ * LOAD SCENARIOS
+ * ============================================
+ *
+ * Drives the running auth server over HTTP (redirects followed by hand,
+ * cookies carried by hand):
+ *
+ * 1. loginStorm        start → stub authorize → callback per user; yields the sessions
+ * 2. verifyFlood       GET /api/v1/verify/{persona} round-robin over the sessions
+ * 3. refreshStorm      every access token expired at once, then one verify per session
+ *                      (userinfo 401 → refresh_token grant → retry)
+ * 4. idempotentRetries each key checked `retries` times concurrently, the winner stores
+ *                      its response, the rest see 409 then the replayed response
+ *
+ * Closed loop by default (each worker sends as fast as responses come back).
+ * With a rate > 0 the scenario is open loop: operation i is due at
+ * t0 + i / rate and its latency counts from that due time, not from when a
+ * worker got around to sending it, so a stalled server shows up as latency
+ * instead of silently lowering the offered load (coordinated omission).
+ */
+public class Scenarios {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Map<String, String> sessionCookieNames;
+    private final LatencyReport report;
+    private final int concurrency;
+
+    public Scenarios(HttpClient http, String baseUrl, Map<String, String> sessionCookieNames,
+                     LatencyReport report, int concurrency) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.sessionCookieNames = sessionCookieNames;
+        this.report = report;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Logged-in user: persona + "NAME=value" session cookie
+     */
+    public record Session(String persona, String userId, String cookie) {
+    }
+
+    // ---------------- Scenarios ----------------
+
+    public List<Session> loginStorm(int users, List<String> personas, double rate) {
+        ConcurrentLinkedQueue<Session> sessions = new ConcurrentLinkedQueue<>();
+        run("login", users, null, rate, (index, dueNanos) -> {
+            String persona = personas.get((int) (index % personas.size()));
+            String userId = "loadtest-user-" + index;
+
+            HttpResponse<Void> start = send(get(baseUrl + "/api/v1/auth/start/" + persona).build());
+            report.record("login.start", System.nanoTime() - dueNanos, start.statusCode());
+            Optional<String> authorizeUrl = start.headers().firstValue("Location");
+            if (start.statusCode() != 302 || authorizeUrl.isEmpty()) {
+                report.record("login.total", System.nanoTime() - dueNanos, "failed_start");
+                return;
+            }
+
+            long idpStart = System.nanoTime();
+            HttpResponse<Void> authorize = send(get(authorizeUrl.get()
+                    + "&login_hint=" + URLEncoder.encode(userId, StandardCharsets.UTF_8)).build());
+            report.record("login.idp", System.nanoTime() - idpStart, authorize.statusCode());
+            Optional<String> callbackUrl = authorize.headers().firstValue("Location");
+            if (authorize.statusCode() != 302 || callbackUrl.isEmpty()) {
+                report.record("login.total", System.nanoTime() - dueNanos, "failed_idp");
+                return;
+            }
+
+            long callbackStart = System.nanoTime();
+            HttpResponse<Void> callback = send(get(callbackUrl.get()).build());
+            report.record("login.callback", System.nanoTime() - callbackStart, callback.statusCode());
+            String cookieName = sessionCookieNames.get(persona);
+            Optional<String> cookie = callback.headers().allValues("Set-Cookie").stream()
+                    .map(header -> header.split(";", 2)[0])
+                    .filter(value -> value.startsWith(cookieName + "=") && value.length() > cookieName.length() + 1)
+                    .findFirst();
+            if (cookie.isEmpty()) {
+                report.record("login.total", System.nanoTime() - dueNanos, "failed_callback");
+                return;
+            }
+            sessions.add(new Session(persona, userId, cookie.get()));
+            report.record("login.total", System.nanoTime() - dueNanos, "ok");
+        });
+        return new ArrayList<>(sessions);
+    }
+
+    public void verifyFlood(List<Session> sessions, Duration duration, double rate) {
+        if (sessions.isEmpty()) {
+            System.out.println("verify flood skipped: no sessions");
+            return;
+        }
+        run("verify", 0, duration, rate, (index, dueNanos) ->
+                verify("verify", sessions.get((int) (index % sessions.size())), dueNanos));
+    }
+
+    /**
+     * expireTokens must make every cached principal stale (stub tokens, userinfo
+     * cache, decision cache) so each verify below goes to the refresh path
+     */
+    public void refreshStorm(List<Session> sessions, Runnable expireTokens) {
+        if (sessions.isEmpty()) {
+            System.out.println("refresh storm skipped: no sessions");
+            return;
+        }
+        expireTokens.run();
+        run("refresh", sessions.size(), null, 0, (index, dueNanos) ->
+                verify("refresh.verify", sessions.get((int) index), dueNanos));
+        // Same sessions again: should be back on the cached path
+        run("refresh.after", sessions.size(), null, 0, (index, dueNanos) ->
+                verify("refresh.verify.after", sessions.get((int) index), dueNanos));
+    }
+
+    public void idempotentRetries(int keys, int retries, double rate) {
+        String runId = UUID.randomUUID().toString();
+        List<String> keyIds = new ArrayList<>(keys);
+        for (int i = 0; i < keys; i++) {
+            keyIds.add(runId + "-" + i);
+        }
+        // Consecutive operations share a key, so its retries are in flight together
+        run("idempotency", (long) keys * retries, null, rate, (index, dueNanos) -> {
+            String key = keyIds.get((int) (index / retries));
+            HttpResponse<String> check = http.send(get(baseUrl + "/api/v1/idempotency/check")
+                    .header("X-Idempotency-Key", key).build(), HttpResponse.BodyHandlers.ofString());
+            boolean allowed = check.statusCode() == 200 && check.body().contains("\"allowed\"");
+            report.record("idempotency.check", System.nanoTime() - dueNanos,
+                    allowed ? "allowed" : check.statusCode() == 200 ? "replayed" : String.valueOf(check.statusCode()));
+            if (!allowed) {
+                return;
+            }
+            long storeStart = System.nanoTime();
+            HttpResponse<Void> store = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/idempotency/response"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("X-Idempotency-Key", key)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"orderId\":\"" + key + "\",\"status\":\"created\"}"))
+                    .build());
+            report.record("idempotency.store", System.nanoTime() - storeStart, store.statusCode());
+        });
+    }
+
+    // ---------------- Driver ----------------
+
+    private void verify(String operation, Session session, long dueNanos) throws Exception {
+        HttpResponse<Void> response = send(get(baseUrl + "/api/v1/verify/" + session.persona())
+                .header("Cookie", session.cookie()).build());
+        report.record(operation, System.nanoTime() - dueNanos, response.statusCode());
+    }
+
+    /**
+     * Runs `operations` operations (0 = until `duration` is over) on `concurrency`
+     * workers; rate > 0 paces them open loop (see class doc)
+     */
+    private void run(String scenario, long operations, Duration duration, double rate, Operation operation) {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        AtomicLong next = new AtomicLong();
+        AtomicInteger errors = new AtomicInteger();
+        long intervalNanos = rate > 0 ? (long) (1_000_000_000L / rate) : 0;
+        long startNanos = System.nanoTime();
+        long deadline = duration != null ? startNanos + duration.toNanos() : Long.MAX_VALUE;
+
+        System.out.printf("▶ %s: %s, %d workers%s%n", scenario,
+                operations > 0 ? operations + " operations" : duration.toSeconds() + "s",
+                concurrency, rate > 0 ? String.format(", %.0f ops/s open loop", rate) : "");
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            futures.add(workers.submit(() -> {
+                while (true) {
+                    long index = next.getAndIncrement();
+                    if (operations > 0 && index >= operations) {
+                        return;
+                    }
+                    long dueNanos = intervalNanos > 0 ? startNanos + index * intervalNanos : System.nanoTime();
+                    if (dueNanos > deadline || System.nanoTime() > deadline) {
+                        return;
+                    }
+                    long wait = dueNanos - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    try {
+                        operation.run(index, dueNanos);
+                    } catch (Exception e) {
+                        if (e instanceof InterruptedException) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        report.record(scenario + ".error", System.nanoTime() - dueNanos, e.getClass().getSimpleName());
+                        if (errors.incrementAndGet() <= 5) {
+                            System.out.println("  " + scenario + " error: " + e);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                throw new IllegalStateException(scenario + " worker failed", e);
+            }
+        }
+        workers.shutdown();
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        long completed = operations > 0 ? operations : next.get() - concurrency;
+        System.out.printf("  %s finished in %.1fs (~%.0f ops/s)%n", scenario, seconds, completed / seconds);
+    }
+
+    private HttpRequest.Builder get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT).GET();
+    }
+
+    private HttpResponse<Void> send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run(long index, long dueNanos) throws Exception;
+    }
+}
@@ -0,0 +1,414 @@
+package com.gms_server.auth_app.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gms_server.auth_app.utils.PkceService;
+import com.gms_server.auth_app.utils.SecureRandomGenerator;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ============================================
+ * STUB OIDC PROVIDER (Zitadel stand-in)
+ * ============================================
+ *
+ * In-process JDK HTTP server implementing the Zitadel endpoints the auth
+ * server calls, with per-endpoint latency (base ms + uniform jitter ms):
+ *
+ *   GET  /.well-known/openid-configuration   discovery (connection warm-up)
+ *   GET  /oauth/v2/keys                      JWKS (ES256 public key)
+ *   GET  /oauth/v2/authorize                 302 to redirect_uri with a code (user = login_hint)
+ *   POST /oauth/v2/token                     authorization_code (S256 PKCE checked) / refresh_token (rotated)
+ *   GET  /oidc/v1/userinfo                   claims + project role claim, 401 for unknown/expired tokens
+ *   POST /oauth/v2/introspect                RFC 7662
+ *   POST /oauth/v2/revoke                    RFC 7009
+ *   POST /management/v1/users/{id}/grants    role grant
+ *
+ * Access tokens are ES256 JWTs with exp, so the auth server's expiry logic
+ * sees real values. A share of new users (pregranted-ratio) already holds the
+ * persona role; the others go through the grant + refresh path on login.
+ * State is in memory only.
+ */
+public class StubOidcProvider {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private final Map<String, Latency> latencies;
+    private final double pregrantedRatio;
+    private final long accessTokenTtlSeconds;
+
+    private final Map<String, AuthCode> codes = new ConcurrentHashMap<>();
+    private final Map<String, Grant> accessTokens = new ConcurrentHashMap<>();
+    private final Map<String, Grant> refreshTokens = new ConcurrentHashMap<>();
+    // "userId projectId" → granted role keys
+    private final Map<String, Set<String>> roles = new ConcurrentHashMap<>();
+    private final Set<String> users = ConcurrentHashMap.newKeySet();
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+
+    private final ECKey signingKey;
+    private final JWSSigner signer;
+    private final ExecutorService executor;
+    private final HttpServer server;
+    private final String issuer;
+
+    public StubOidcProvider(int port, int threads, Map<String, Latency> latencies, double pregrantedRatio,
+                            long accessTokenTtlSeconds) throws IOException {
+        this.latencies = latencies;
+        this.pregrantedRatio = pregrantedRatio;
+        this.accessTokenTtlSeconds = accessTokenTtlSeconds;
+        try {
+            this.signingKey = new ECKeyGenerator(Curve.P_256).keyID("stub-" + PkceService.generateState()).generate();
+            this.signer = new ECDSASigner(signingKey);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to create stub signing key", e);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "stub-oidc-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 4096);
+        this.issuer = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext("/.well-known/openid-configuration", exchange -> handle(exchange, "discovery", this::discovery));
+        server.createContext("/oauth/v2/keys", exchange -> handle(exchange, "keys", this::keys));
+        server.createContext("/oauth/v2/authorize", exchange -> handle(exchange, "authorize", this::authorize));
+        server.createContext("/oauth/v2/token", exchange -> handle(exchange, "token", this::token));
+        server.createContext("/oidc/v1/userinfo", exchange -> handle(exchange, "userinfo", this::userInfo));
+        server.createContext("/oauth/v2/introspect", exchange -> handle(exchange, "introspect", this::introspect));
+        server.createContext("/oauth/v2/revoke", exchange -> handle(exchange, "revoke", this::revoke));
+        server.createContext("/management/v1/users/", exchange -> handle(exchange, "grants", this::grant));
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public void registerClient(String clientId, String persona, String projectId, String organizationId) {
+        clients.put(clientId, new Client(persona, projectId, organizationId));
+    }
+
+    public Set<String> getUsers() {
+        return users;
+    }
+
+    /**
+     * Invalidate every issued access token: the next userinfo call answers 401,
+     * so the auth server has to refresh (refresh tokens stay valid)
+     */
+    public void expireAccessTokens() {
+        accessTokens.clear();
+    }
+
+    public Map<String, Long> getCallCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        calls.forEach((endpoint, count) -> counts.put(endpoint, count.sum()));
+        return counts;
+    }
+
+    // ---------------- Endpoints ----------------
+
+    private Response discovery(HttpExchange exchange) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("issuer", issuer);
+        body.put("authorization_endpoint", issuer + "/oauth/v2/authorize");
+        body.put("token_endpoint", issuer + "/oauth/v2/token");
+        body.put("userinfo_endpoint", issuer + "/oidc/v1/userinfo");
+        body.put("introspection_endpoint", issuer + "/oauth/v2/introspect");
+        body.put("revocation_endpoint", issuer + "/oauth/v2/revoke");
+        body.put("jwks_uri", issuer + "/oauth/v2/keys");
+        return Response.json(200, body);
+    }
+
+    private Response keys(HttpExchange exchange) {
+        return Response.json(200, new JWKSet(signingKey.toPublicJWK()).toJSONObject());
+    }
+
+    private Response authorize(HttpExchange exchange) {
+        Map<String, String> query = parseForm(exchange.getRequestURI().getRawQuery());
+        Client client = clients.get(query.get("client_id"));
+        String redirectUri = query.get("redirect_uri");
+        if (client == null || redirectUri == null || query.get("code_challenge") == null) {
+            return Response.json(400, Map.of("error", "invalid_request"));
+        }
+        String userId = query.getOrDefault("login_hint", "user-" + PkceService.generateState());
+        if (users.add(userId) && ThreadLocalRandom.current().nextDouble() < pregrantedRatio) {
+            roles.computeIfAbsent(userId + " " + client.projectId(), k -> ConcurrentHashMap.newKeySet())
+                    .add(client.persona());
+        }
+        String code = SecureRandomGenerator.randomToken(32);
+        codes.put(code, new AuthCode(query.get("client_id"), userId, query.get("code_challenge"), redirectUri));
+        String location = redirectUri + (redirectUri.contains("?") ? "&" : "?")
+                + "code=" + code + "&state=" + URLEncoder.encode(query.getOrDefault("state", ""), StandardCharsets.UTF_8);
+        return Response.redirect(location);
+    }
+
+    private Response token(HttpExchange exchange) throws IOException {
+        Map<String, String> form = parseForm(readBody(exchange));
+        String grantType = form.get("grant_type");
+        if ("authorization_code".equals(grantType)) {
+            AuthCode code = codes.remove(form.getOrDefault("code", ""));
+            String verifier = form.get("code_verifier");
+            if (code == null || verifier == null
+                    || !code.codeChallenge().equals(PkceService.generateCodeChallenge(verifier))
+                    || !code.redirectUri().equals(form.get("redirect_uri"))) {
+                return Response.json(400, Map.of("error", "invalid_grant"));
+            }
+            return Response.json(200, issueTokens(code.clientId(), code.userId()));
+        }
+        if ("refresh_token".equals(grantType)) {
+            // Rotation: the presented refresh token is consumed
+            Grant grant = refreshTokens.remove(form.getOrDefault("refresh_token", ""));
+            if (grant == null) {
+                return Response.json(400, Map.of("error", "invalid_grant"));
+            }
+            return Response.json(200, issueTokens(grant.clientId(), grant.userId()));
+        }
+        return Response.json(400, Map.of("error", "unsupported_grant_type"));
+    }
+
+    private Response userInfo(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        Grant grant = authorization != null && authorization.startsWith("Bearer ")
+                ? activeAccessToken(authorization.substring(7))
+                : null;
+        if (grant == null) {
+            return Response.json(401, Map.of("error", "invalid_token"));
+        }
+        return Response.json(200, claims(grant));
+    }
+
+    private Response introspect(HttpExchange exchange) throws IOException {
+        Grant grant = activeAccessToken(parseForm(readBody(exchange)).getOrDefault("token", ""));
+        if (grant == null) {
+            return Response.json(200, Map.of("active", false));
+        }
+        Map<String, Object> body = claims(grant);
+        body.put("active", true);
+        body.put("exp", grant.expiresAt());
+        body.put("client_id", grant.clientId());
+        return Response.json(200, body);
+    }
+
+    private Response revoke(HttpExchange exchange) throws IOException {
+        String token = parseForm(readBody(exchange)).getOrDefault("token", "");
+        refreshTokens.remove(token);
+        accessTokens.remove(token);
+        return Response.json(200, Map.of());
+    }
+
+    /**
+     * POST /management/v1/users/{userId}/grants {"projectId": ..., "roleKeys": [...]}
+     */
+    @SuppressWarnings("unchecked")
+    private Response grant(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (!"POST".equals(exchange.getRequestMethod()) || !path.endsWith("/grants")) {
+            return Response.json(404, Map.of("error", "not_found"));
+        }
+        String userId = path.substring("/management/v1/users/".length(), path.length() - "/grants".length());
+        Map<String, Object> body = objectMapper.readValue(readBody(exchange), Map.class);
+        Set<String> granted = roles.computeIfAbsent(userId + " " + body.get("projectId"),
+                k -> ConcurrentHashMap.newKeySet());
+        if (!granted.addAll((List<String>) body.getOrDefault("roleKeys", List.of()))) {
+            return Response.json(409, Map.of("message", "grant already exists"));
+        }
+        return Response.json(200, Map.of("userGrantId", PkceService.generateState()));
+    }
+
+    // ---------------- Tokens ----------------
+
+    private Map<String, Object> issueTokens(String clientId, String userId) {
+        long now = Instant.now().getEpochSecond();
+        Grant grant = new Grant(clientId, userId, now + accessTokenTtlSeconds);
+        String accessToken = sign(grant, "access");
+        String refreshToken = SecureRandomGenerator.randomToken(48);
+        accessTokens.put(accessToken, grant);
+        refreshTokens.put(refreshToken, grant);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("access_token", accessToken);
+        body.put("token_type", "Bearer");
+        body.put("expires_in", accessTokenTtlSeconds);
+        body.put("refresh_token", refreshToken);
+        body.put("id_token", sign(grant, "id"));
+        return body;
+    }
+
+    private String sign(Grant grant, String use) {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject(grant.userId())
+                .audience(grant.clientId())
+                .issueTime(new Date())
+                .expirationTime(new Date(TimeUnit.SECONDS.toMillis(grant.expiresAt())))
+                .jwtID(PkceService.generateState())
+                .claim("token_use", use)
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256).keyID(signingKey.getKeyID()).build(),
+                claims);
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to sign stub token", e);
+        }
+        return jwt.serialize();
+    }
+
+    private Grant activeAccessToken(String token) {
+        Grant grant = accessTokens.get(token);
+        return grant != null && grant.expiresAt() > Instant.now().getEpochSecond() ? grant : null;
+    }
+
+    private Map<String, Object> claims(Grant grant) {
+        Client client = clients.get(grant.clientId());
+        Map<String, Object> granted = new LinkedHashMap<>();
+        for (String role : roles.getOrDefault(grant.userId() + " " + client.projectId(), Set.of())) {
+            granted.put(role, Map.of(client.organizationId(), "stub.local"));
+        }
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", grant.userId());
+        claims.put("email", grant.userId() + "@loadtest.local");
+        claims.put("email_verified", true);
+        claims.put("name", "Load Test " + grant.userId());
+        claims.put("preferred_username", grant.userId());
+        claims.put("urn:zitadel:iam:org:project:" + client.projectId() + ":roles", granted);
+        return claims;
+    }
+
+    // ---------------- HTTP plumbing ----------------
+
+    private void handle(HttpExchange exchange, String endpoint, Handler handler) throws IOException {
+        try (exchange) {
+            calls.computeIfAbsent(endpoint, k -> new LongAdder()).increment();
+            latencies.getOrDefault(endpoint, Latency.NONE).sleep();
+            Response response;
+            try {
+                response = handler.handle(exchange);
+            } catch (Exception e) {
+                response = Response.json(500, Map.of("error", "server_error", "error_description", String.valueOf(e)));
+            }
+            if (response.location() != null) {
+                exchange.getResponseHeaders().set("Location", response.location());
+                exchange.sendResponseHeaders(response.status(), -1);
+                return;
+            }
+            byte[] body = objectMapper.writeValueAsBytes(response.body());
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    static Map<String, String> parseForm(String encoded) {
+        Map<String, String> values = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return values;
+        }
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                values.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Simulated server time per endpoint: base + uniform(0, jitter) milliseconds
+     */
+    public record Latency(long baseMs, long jitterMs) {
+
+        static final Latency NONE = new Latency(0, 0);
+
+        /**
+         * "40" or "40:15" (base:jitter)
+         */
+        public static Latency parse(String value) {
+            String[] parts = value.trim().split(":");
+            return new Latency(Long.parseLong(parts[0]), parts.length > 1 ? Long.parseLong(parts[1]) : 0);
+        }
+
+        void sleep() {
+            long millis = baseMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+            if (millis > 0) {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(HttpExchange exchange) throws Exception;
+    }
+
+    private record Response(int status, Object body, String location) {
+
+        static Response json(int status, Object body) {
+            return new Response(status, body, null);
+        }
+
+        static Response redirect(String location) {
+            return new Response(302, null, location);
+        }
+    }
+
+    private record Client(String persona, String projectId, String organizationId) {
+    }
+
+    private record AuthCode(String clientId, String userId, String codeChallenge, String redirectUri) {
+    }
+
+    private record Grant(String clientId, String userId, long expiresAt) {
+    }
+}
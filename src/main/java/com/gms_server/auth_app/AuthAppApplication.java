@@ -1,12 +1,14 @@
 package com.gms_server.auth_app;
 
-import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.configs.PersonaProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties(PersonaConfig.class)
+@EnableConfigurationProperties(PersonaProperties.class)
+@EnableScheduling
 public class AuthAppApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,112 @@
+package com.gms_server.auth_app.configs;
+
+import com.gms_server.auth_app.services.ExtAuthzService;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.protobuf.services.ProtoReflectionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ============================================
+ * gRPC SERVER FOR ENVOY EXT_AUTHZ
+ * ============================================
+ *
+ * Serves ExtAuthzService on its own port (authz.grpc.port), next to the HTTP API.
+ * Envoy keeps a few long-lived HTTP/2 connections and multiplexes every check
+ * over them - no per-subrequest HTTP/1.1 connection or JSON parsing.
+ *
+ * Checks may block (Redis, Zitadel on a cache miss), so they run on a bounded
+ * pool (authz.grpc.threads) instead of the Netty event loop.
+ * Server reflection is registered so grpcurl works without .proto files.
+ */
+@Component
+@ConditionalOnProperty(name = "authz.grpc.enabled", havingValue = "true")
+public class ExtAuthzGrpcServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtAuthzGrpcServer.class);
+
+    private final ExtAuthzService extAuthzService;
+    private final int port;
+    private final int threads;
+    private final int maxConcurrentCallsPerConnection;
+    private final long shutdownGraceSeconds;
+
+    private ExecutorService executor;
+    private volatile Server server;
+
+    public ExtAuthzGrpcServer(ExtAuthzService extAuthzService,
+                              @Value("${authz.grpc.port:9191}") int port,
+                              @Value("${authz.grpc.threads:64}") int threads,
+                              @Value("${authz.grpc.max-concurrent-calls-per-connection:1000}") int maxConcurrentCallsPerConnection,
+                              @Value("${authz.grpc.shutdown-grace-seconds:10}") long shutdownGraceSeconds) {
+        this.extAuthzService = extAuthzService;
+        this.port = port;
+        this.threads = threads;
+        this.maxConcurrentCallsPerConnection = maxConcurrentCallsPerConnection;
+        this.shutdownGraceSeconds = shutdownGraceSeconds;
+    }
+
+    @Override
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ext-authz-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .executor(executor)
+                    .addService(extAuthzService)
+                    .addService(ProtoReflectionService.newInstance())
+                    .maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection)
+                    // Envoy keeps connections open and pings them; don't treat that as abuse
+                    .permitKeepAliveTime(10, TimeUnit.SECONDS)
+                    .permitKeepAliveWithoutCalls(true)
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Failed to start ext_authz gRPC server on port " + port, e);
+        }
+        logger.info("🛰️ [CONFIG] Envoy ext_authz gRPC server listening on port {} ({} worker threads)", port, threads);
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        // Finish in-flight checks, then reject new ones
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS)) {
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        server = null;
+        logger.info("🛑 [CONFIG] Envoy ext_authz gRPC server stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
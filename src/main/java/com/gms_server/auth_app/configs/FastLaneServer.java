@@ -0,0 +1,194 @@
+package com.gms_server.auth_app.configs;
+
+import com.gms_server.auth_app.services.AuthorizationService;
+import com.gms_server.auth_app.services.IdempotencyService;
+import com.gms_server.auth_app.services.VerifyDecision;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ============================================
+ * FAST-LANE LISTENER FOR NGINX auth_request
+ * ============================================
+ *
+ * Optional second listener (JDK HTTP server) on an internal port, serving only:
+ *   GET /api/v1/verify/{persona}      - same pipeline + decision cache as the MVC endpoint
+ *   GET /api/v1/idempotency/check     - same semantics as IdempotencyController
+ *
+ * auth_request only looks at the status and the headers it copies, so this lane
+ * skips the servlet filters (CORS, security headers, rate limiter), handler
+ * mapping and Jackson: it reads the Cookie / X-Idempotency-Key header and
+ * answers with the pre-rendered X-User-* headers and no body.
+ *
+ * Nothing here is rate limited or CORS-checked: bind it to loopback or a
+ * private interface reachable by nginx only (fastlane.bind-address).
+ */
+@Component
+@ConditionalOnProperty(name = "fastlane.enabled", havingValue = "true")
+public class FastLaneServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastLaneServer.class);
+
+    private static final String VERIFY_PREFIX = "/api/v1/verify/";
+    private static final String IDEMPOTENCY_CHECK = "/api/v1/idempotency/check";
+    private static final int NO_BODY = -1;
+
+    private final AuthorizationService authorizationService;
+    private final IdempotencyService idempotencyService;
+    private final String bindAddress;
+    private final int port;
+    private final int threads;
+    private final int backlog;
+
+    private ExecutorService executor;
+    private volatile HttpServer server;
+
+    public FastLaneServer(AuthorizationService authorizationService,
+                          IdempotencyService idempotencyService,
+                          @Value("${fastlane.bind-address:127.0.0.1}") String bindAddress,
+                          @Value("${fastlane.port:7001}") int port,
+                          @Value("${fastlane.threads:64}") int threads,
+                          @Value("${fastlane.backlog:1024}") int backlog) {
+        this.authorizationService = authorizationService;
+        this.idempotencyService = idempotencyService;
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.threads = threads;
+        this.backlog = backlog;
+    }
+
+    @Override
+    public void start() {
+        // Small header-only responses: don't wait for Nagle
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "fast-lane-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            HttpServer created = HttpServer.create(new InetSocketAddress(bindAddress, port), backlog);
+            created.createContext(VERIFY_PREFIX, this::handleVerify);
+            created.createContext(IDEMPOTENCY_CHECK, this::handleIdempotencyCheck);
+            created.setExecutor(executor);
+            created.start();
+            server = created;
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Failed to start fast-lane listener on " + bindAddress + ":" + port, e);
+        }
+        logger.info("⚡ [CONFIG] Fast-lane auth_request listener on {}:{} ({} worker threads)", bindAddress, port, threads);
+    }
+
+    @Override
+    public void stop() {
+        HttpServer running = server;
+        if (running == null) {
+            return;
+        }
+        running.stop(1);
+        executor.shutdownNow();
+        server = null;
+        logger.info("🛑 [CONFIG] Fast-lane listener stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    private void handleVerify(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!isGet(exchange)) {
+                exchange.sendResponseHeaders(405, NO_BODY);
+                return;
+            }
+            String persona = exchange.getRequestURI().getPath().substring(VERIFY_PREFIX.length());
+            if (persona.isEmpty() || persona.indexOf('/') >= 0) {
+                exchange.sendResponseHeaders(404, NO_BODY);
+                return;
+            }
+            String cookieHeader = joinedCookieHeader(exchange.getRequestHeaders());
+            Headers headers = exchange.getResponseHeaders();
+            int status;
+            try {
+                VerifyDecision decision = authorizationService.verifyPersonaAuthorization(persona,
+                        config -> AuthorizationService.cookieValue(cookieHeader, config.getSessionIdName()),
+                        headers::add);
+                headers.set("X-User-Id", decision.getUserId());
+                headers.set("X-User-Email", decision.getEmail());
+                headers.set("X-User-Info", decision.getUserInfoJson());
+                status = 200;
+            } catch (AuthorizationService.AuthorizationException e) {
+                logger.debug("❌ [FAST-LANE] Denied for persona {}: {}", persona, e.getMessage());
+                status = e.getStatusCode();
+            } catch (Exception e) {
+                logger.error("❌ [FAST-LANE] Unexpected error during authorization for persona: {}", persona, e);
+                status = 500;
+            }
+            exchange.sendResponseHeaders(status, NO_BODY);
+        }
+    }
+
+    /**
+     * 200 = first request (allowed) or already completed, 409 = still processing
+     */
+    private void handleIdempotencyCheck(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!isGet(exchange) || !IDEMPOTENCY_CHECK.equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(isGet(exchange) ? 404 : 405, NO_BODY);
+                return;
+            }
+            String idempotencyKey = exchange.getRequestHeaders().getFirst("X-Idempotency-Key");
+            if (idempotencyKey == null || idempotencyKey.trim().isEmpty()) {
+                exchange.sendResponseHeaders(400, NO_BODY);
+                return;
+            }
+            int status;
+            try {
+                Map<String, Object> cached = idempotencyService.getCachedResponse(idempotencyKey);
+                if (cached != null) {
+                    status = "PROCESSING".equals(cached.get("status")) ? 409 : 200;
+                } else {
+                    status = Boolean.TRUE.equals(idempotencyService.initiateIdempotencyKey(idempotencyKey)) ? 200 : 409;
+                }
+            } catch (Exception e) {
+                logger.error("❌ [FAST-LANE] Idempotency check failed | Key: {} | Error: {}", idempotencyKey, e.getMessage());
+                status = 500;
+            }
+            exchange.sendResponseHeaders(status, NO_BODY);
+        }
+    }
+
+    private static boolean isGet(HttpExchange exchange) {
+        return "GET".equals(exchange.getRequestMethod());
+    }
+
+    /**
+     * Cookie headers may be split across several lines (HTTP/2 proxies)
+     */
+    private static String joinedCookieHeader(Headers headers) {
+        List<String> values = headers.get("Cookie");
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.size() == 1 ? values.get(0) : String.join("; ", values);
+    }
+}
@@ -1,53 +1,113 @@
 package com.gms_server.auth_app.configs;
 
-import lombok.Data;
 import lombok.Getter;
-import lombok.Setter;
-import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * Immutable, pre-resolved configuration of one persona.
+ *
+ * Built once by PersonaRegistry (from properties or the Redis overlay) and
+ * shared by all requests - nothing is computed per lookup.
+ */
 @Getter
-@Setter
-@ConfigurationProperties(prefix = "persona")
-public class PersonaConfig {
-    private String issuer;
-    private String organizationId;
-    private String clientId;
-    private String clientSecret;
-    private String redirectUri;
-    private String logoutRedirectUri;
-    private String projectId;
-    private String managementToken;
-    private String sessionIdName;
-
-    // Default constructor for Spring
-    public PersonaConfig() {
+public final class PersonaConfig {
+
+    public static final String TOKEN_VALIDATION_USERINFO = "userinfo";
+    public static final String TOKEN_VALIDATION_INTROSPECTION = "introspection";
+
+    private final String name;
+
+    /**
+     * Position in the persona registry = bit in the compiled role mask
+     */
+    private final int index;
+    private final String issuer;
+    private final String organizationId;
+    private final String clientId;
+    private final String clientSecret;
+    private final String redirectUri;
+    private final String logoutRedirectUri;
+    private final String projectId;
+    private final String managementToken;
+    private final String sessionIdName;
+    private final String afterLoginRedirectUri;
+
+    /**
+     * How access tokens are validated on verify:
+     * "userinfo" (default) or "introspection" (opaque tokens; active flag + roles in one call)
+     */
+    private final String tokenValidation;
+
+    /**
+     * Authorize URL up to the per-request parameters; append code_challenge value, then "&state=" + state
+     */
+    private final String authorizeUrlPrefix;
+
+    /**
+     * Claim holding the project-specific roles: urn:zitadel:iam:org:project:{projectId}:roles
+     */
+    private final String projectRolesClaim;
+
+    /**
+     * UserInfo claims forwarded in X-User-Info (comma-separated property); empty = all claims
+     */
+    private final List<String> userContextClaims;
+
+    public PersonaConfig(String name, int index, PersonaProperties.Definition definition) {
+        this.name = name;
+        this.index = index;
+        this.issuer = definition.getIssuer();
+        this.organizationId = definition.getOrganizationId();
+        this.clientId = definition.getClientId();
+        this.clientSecret = definition.getClientSecret();
+        this.redirectUri = definition.getRedirectUri();
+        this.logoutRedirectUri = definition.getLogoutRedirectUri();
+        this.projectId = definition.getProjectId();
+        this.managementToken = definition.getManagementToken();
+        this.sessionIdName = definition.getSessionIdName();
+        this.afterLoginRedirectUri = definition.getAfterLoginRedirectUri();
+
+        String validation = definition.getTokenValidation();
+        this.tokenValidation = validation == null || validation.isBlank()
+                ? TOKEN_VALIDATION_USERINFO
+                : validation.trim().toLowerCase();
+
+        String scope = "openid profile email offline_access urn:zitadel:iam:org:id:" + organizationId;
+        this.authorizeUrlPrefix = UriComponentsBuilder.fromUriString(issuer + "/oauth/v2/authorize")
+                .queryParam("client_id", clientId)
+                .queryParam("response_type", "code")
+                .queryParam("scope", scope)
+                .queryParam("redirect_uri", redirectUri)
+                .queryParam("code_challenge_method", "S256")
+                .encode()
+                .build()
+                .toUriString() + "&code_challenge=";
+        this.projectRolesClaim = "urn:zitadel:iam:org:project:" + projectId + ":roles";
+
+        String claims = definition.getUserContextClaims();
+        this.userContextClaims = claims == null || claims.isBlank()
+                ? List.of()
+                : Arrays.stream(claims.split(",")).map(String::trim).filter(c -> !c.isEmpty()).distinct().toList();
     }
 
-    // Constructor for manual instantiation
-    public PersonaConfig(String issuer, String organizationId, String clientId, String clientSecret,
-                         String redirectUri, String logoutRedirectUri, String projectId,
-                         String managementToken, String sessionIdName) {
-        this.issuer = issuer;
-        this.organizationId = organizationId;
-        this.clientId = clientId;
-        this.clientSecret = clientSecret;
-        this.redirectUri = redirectUri;
-        this.logoutRedirectUri = logoutRedirectUri;
-        this.projectId = projectId;
-        this.managementToken = managementToken;
-        this.sessionIdName = sessionIdName;
+    public boolean usesIntrospection() {
+        return TOKEN_VALIDATION_INTROSPECTION.equals(tokenValidation);
     }
 
     @Override
     public String toString() {
         return "PersonaConfig{" +
-                "issuer='" + issuer + '\'' +
+                "name='" + name + '\'' +
+                ", issuer='" + issuer + '\'' +
                 ", organizationId='" + organizationId + '\'' +
                 ", clientId='" + clientId + '\'' +
                 ", redirectUri='" + redirectUri + '\'' +
                 ", projectId='" + projectId + '\'' +
                 ", sessionIdName='" + sessionIdName + '\'' +
+                ", tokenValidation='" + tokenValidation + '\'' +
                 '}';
     }
 }
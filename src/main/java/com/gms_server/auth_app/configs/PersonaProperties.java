@@ -0,0 +1,47 @@
+package com.gms_server.auth_app.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ============================================
+ * PERSONA DEFINITIONS (zitadel.personas.<name>.*)
+ * ============================================
+ *
+ * Every persona / tenant is one block of properties - adding a persona
+ * needs no code change:
+ *
+ *   zitadel.personas.vendor.issuer=...
+ *   zitadel.personas.vendor.client-id=...
+ *
+ * Raw, mutable binding target only. PersonaRegistry resolves these into
+ * immutable PersonaConfig instances at startup.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "zitadel")
+public class PersonaProperties {
+
+    private Map<String, Definition> personas = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Definition {
+        private String issuer;
+        private String organizationId;
+        private String clientId;
+        private String clientSecret;
+        private String redirectUri;
+        private String logoutRedirectUri;
+        private String projectId;
+        private String managementToken;
+        private String sessionIdName;
+        private String afterLoginRedirectUri;
+        private String tokenValidation;
+        private String userContextClaims;
+    }
+}
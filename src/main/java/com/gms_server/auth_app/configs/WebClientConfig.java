@@ -26,6 +26,9 @@ import java.util.concurrent.TimeUnit;
  * 2. Timeouts (prevent hanging requests)
  * 3. Buffer size limits (prevent memory issues)
  * 4. Connection lifecycle management
+ *
+ * Zitadel calls don't use this pool: ZitadelClientRegistry clones this
+ * builder (codecs, buffer limits) and gives every issuer its own HTTP/2 pool.
  */
 @Configuration
 public class WebClientConfig {
@@ -1,5 +1,6 @@
 package com.gms_server.auth_app.configs;
 
+import com.gms_server.auth_app.utils.AuthMetrics;
 import com.gms_server.auth_app.utils.RedisService;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
@@ -117,9 +118,10 @@ public class WebSecurityConfig implements WebMvcConfigurer {
     @Bean
     public RedisRateLimitingFilter redisRateLimitingFilter(
             RedisService redisService,
+            AuthMetrics metrics,
             @Value("${rate.limit.enabled:true}") boolean enabled,
             @Value("${rate.limit.requests.per.minute:10}") int requestsPerMinute) {
-        return new RedisRateLimitingFilter(redisService, enabled, requestsPerMinute);
+        return new RedisRateLimitingFilter(redisService, metrics, enabled, requestsPerMinute);
     }
 
     /**
@@ -204,11 +206,14 @@ public class WebSecurityConfig implements WebMvcConfigurer {
         private static final String RATE_LIMIT_PREFIX = "ratelimit:";
 
         private final RedisService redisService;
+        private final AuthMetrics metrics;
         private final boolean enabled;
         private final int requestsPerMinute;
 
-        public RedisRateLimitingFilter(RedisService redisService, boolean enabled, int requestsPerMinute) {
+        public RedisRateLimitingFilter(RedisService redisService, AuthMetrics metrics, boolean enabled,
+                                       int requestsPerMinute) {
             this.redisService = redisService;
+            this.metrics = metrics;
             this.enabled = enabled;
             this.requestsPerMinute = requestsPerMinute;
             logger.info("🛡️ [CONFIG] Redis-based Rate Limiting: {} (max {} req/min) - DISTRIBUTED ACROSS ALL CONTAINERS", 
@@ -227,14 +232,17 @@ public class WebSecurityConfig implements WebMvcConfigurer {
             }
 
             // Only rate limit authentication and verification endpoints
+            // (back-channel logouts come from the IdP, which may send many at once)
             String path = request.getRequestURI();
-            if (!path.startsWith("/api/v1/auth/") && !path.startsWith("/api/v1/verify/")) {
+            if ((!path.startsWith("/api/v1/auth/") && !path.startsWith("/api/v1/verify/"))
+                    || path.startsWith("/api/v1/auth/backchannel-logout/")) {
                 filterChain.doFilter(request, response);
                 return;
             }
 
             String clientId = getClientIdentifier(request);
             String redisKey = RATE_LIMIT_PREFIX + clientId;
+            String route = path.startsWith("/api/v1/verify/") ? "verify" : "auth";
 
             try {
                 // ═══════════════════════════════════════════════════════════════
@@ -247,6 +255,7 @@ public class WebSecurityConfig implements WebMvcConfigurer {
                 if (currentCount == null) {
                     // This should never happen with INCR, but handle gracefully
                     logger.error("❌ [RATE-LIMIT] Failed to increment counter for client: {}", clientId);
+                    metrics.rateLimit(route, "error");
                     filterChain.doFilter(request, response);
                     return;
                 }
@@ -265,6 +274,7 @@ public class WebSecurityConfig implements WebMvcConfigurer {
                     
                     logger.warn("🚫 [RATE-LIMIT] EXCEEDED for client: {} ({}/{}) on path: {} | Retry in {}s", 
                             clientId, currentCount, requestsPerMinute, path, retryAfter);
+                    metrics.rateLimit(route, "rejected");
                     
                     // Return 429 Too Many Requests
                     response.setStatus(429);
@@ -291,6 +301,7 @@ public class WebSecurityConfig implements WebMvcConfigurer {
                 
                 logger.debug("✅ [RATE-LIMIT] Allowed for client: {} ({}/{}) | Remaining: {} | Reset in: {}s", 
                         clientId, currentCount, requestsPerMinute, remaining, ttl);
+                metrics.rateLimit(route, "allowed");
                 
                 response.setHeader("X-RateLimit-Limit", String.valueOf(requestsPerMinute));
                 response.setHeader("X-RateLimit-Remaining", String.valueOf(remaining));
@@ -300,6 +311,7 @@ public class WebSecurityConfig implements WebMvcConfigurer {
 
             } catch (Exception e) {
                 logger.error("❌ [RATE-LIMIT] Error for client: {}, allowing request (fail-open)", clientId, e);
+                metrics.rateLimit(route, "error");
                 // On error, allow the request (fail-open approach for availability)
                 filterChain.doFilter(request, response);
             }
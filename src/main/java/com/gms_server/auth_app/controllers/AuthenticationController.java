@@ -1,12 +1,15 @@
 package com.gms_server.auth_app.controllers;
 
 import com.gms_server.auth_app.services.AuthenticationService;
+import com.gms_server.auth_app.services.BackchannelLogoutService;
 import com.gms_server.auth_app.services.PersonaService;
 import com.gms_server.auth_app.utils.ValidationUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,6 +24,7 @@ import java.util.Map;
  * 1. Start authentication (/start/{persona})
  * 2. Handle callback (/callback)
  * 3. Logout (/logout/{persona})
+ * 4. Back-channel logout from the IdP (/backchannel-logout/{persona})
  */
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -30,14 +34,17 @@ public class AuthenticationController {
     private final AuthenticationService authenticationService;
     private final PersonaService personaService;
     private final ValidationUtils validationUtils;
+    private final BackchannelLogoutService backchannelLogoutService;
 
     public AuthenticationController(
             AuthenticationService authenticationService, 
             PersonaService personaService,
-            ValidationUtils validationUtils) {
+            ValidationUtils validationUtils,
+            BackchannelLogoutService backchannelLogoutService) {
         this.authenticationService = authenticationService;
         this.personaService = personaService;
         this.validationUtils = validationUtils;
+        this.backchannelLogoutService = backchannelLogoutService;
     }
 
     /**
@@ -164,4 +171,38 @@ public class AuthenticationController {
         
         return ResponseEntity.ok(result);
     }
+
+    /**
+     * OIDC back-channel logout: called by Zitadel (not the browser) with a signed logout token
+     *
+     * @param persona The persona whose client the logout token is addressed to
+     * @param logoutToken The logout token (form parameter logout_token)
+     * @return 200 when the user's sessions were ended, 400 for an invalid logout token
+     */
+    @PostMapping(value = "/backchannel-logout/{persona}", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Map<String, Object>> backchannelLogout(
+            @PathVariable String persona,
+            @RequestParam(name = "logout_token", required = false) String logoutToken) {
+
+        logger.info("🚪 [CONTROLLER] Back-channel logout for persona: {}", persona);
+
+        if (!personaService.isValidPersona(persona)) {
+            logger.error("❌ [CONTROLLER] Unsupported persona: {}", persona);
+            return ResponseEntity.badRequest().cacheControl(CacheControl.noStore())
+                    .body(Map.of("error", "Unsupported persona"));
+        }
+        if (logoutToken == null || logoutToken.isBlank()) {
+            return ResponseEntity.badRequest().cacheControl(CacheControl.noStore())
+                    .body(Map.of("error", "logout_token is required"));
+        }
+
+        try {
+            int ended = backchannelLogoutService.logout(personaService.getPersonaConfig(persona), logoutToken);
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                    .body(Map.of("sessionsEnded", ended));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().cacheControl(CacheControl.noStore())
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
 }
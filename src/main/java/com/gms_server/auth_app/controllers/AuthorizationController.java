@@ -1,15 +1,20 @@
 package com.gms_server.auth_app.controllers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gms_server.auth_app.services.AuthorizationService;
+import com.gms_server.auth_app.services.VerifyDecision;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,36 +24,46 @@ public class AuthorizationController {
     private static final Logger logger = LoggerFactory.getLogger(AuthorizationController.class);
 
     private final AuthorizationService authorizationService;
-    private final ObjectMapper objectMapper;
+    private final int batchMaxChecks;
 
-    public AuthorizationController(AuthorizationService authorizationService, ObjectMapper objectMapper) {
+    /**
+     * false = header-only responses (204 / bare error status): nginx auth_request ignores the body
+     */
+    private final boolean responseBody;
+
+    public AuthorizationController(AuthorizationService authorizationService,
+                                   @Value("${verify.batch.max-checks:25}") int batchMaxChecks,
+                                   @Value("${verify.response.body:true}") boolean responseBody) {
         this.authorizationService = authorizationService;
-        this.objectMapper = objectMapper;
+        this.batchMaxChecks = batchMaxChecks;
+        this.responseBody = responseBody;
     }
 
     @GetMapping("/{persona}")
     public ResponseEntity<Map<String, Object>> verifyPersona(
             @PathVariable String persona,
-            HttpServletRequest request) {
+            HttpServletRequest request,
+            HttpServletResponse response) {
 
         logger.info("🔐 [CONTROLLER] Received verification request for persona: {}", persona);
 
         try {
-            Map<String, Object> userInfo = authorizationService.verifyPersonaAuthorization(persona, request);
-
-            // Extract user information
-            String userId = userInfo.get("sub") != null ? userInfo.get("sub").toString() : "";
-            String userEmail = userInfo.get("email") != null ? userInfo.get("email").toString() : "";
-            String userInfoJson = objectMapper.writeValueAsString(userInfo);
+            // Header values come pre-rendered (and possibly cached) with the decision
+            VerifyDecision decision = authorizationService.verifyPersonaAuthorization(persona, request, response);
+            String userId = decision.getUserId();
+            String userEmail = decision.getEmail();
 
             // Create response headers for nginx auth_request
             HttpHeaders headers = new HttpHeaders();
             headers.set("X-User-Id", userId);
             headers.set("X-User-Email", userEmail);
-            headers.set("X-User-Info", userInfoJson);
+            headers.set("X-User-Info", decision.getUserInfoJson());
 
             logger.info("✅ [CONTROLLER] Authorization successful for persona: {}, userId: {}", persona, userId);
 
+            if (!responseBody) {
+                return ResponseEntity.noContent().headers(headers).build();
+            }
             return ResponseEntity.ok()
                     .headers(headers)
                     .body(Map.of(
@@ -60,6 +75,9 @@ public class AuthorizationController {
 
         } catch (AuthorizationService.AuthorizationException e) {
             logger.error("❌ [CONTROLLER] Authorization failed for persona {}: {}", persona, e.getMessage());
+            if (!responseBody) {
+                return ResponseEntity.status(e.getStatusCode()).build();
+            }
             return ResponseEntity.status(e.getStatusCode())
                     .body(Map.of(
                             "error", e.getMessage(),
@@ -69,6 +87,9 @@ public class AuthorizationController {
 
         } catch (Exception e) {
             logger.error("❌ [CONTROLLER] Unexpected error during authorization for persona: {}", persona, e);
+            if (!responseBody) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of(
                             "error", "Authorization failed",
@@ -76,5 +97,58 @@ public class AuthorizationController {
                     ));
         }
     }
-}
 
+    /**
+     * Batch verification for gateways checking several personas or sessions per request.
+     *
+     * Body: {"checks": [{"persona": "vendor", "session": "<session cookie value>"}, ...]}
+     * ("session" omitted = the persona's session cookie of this request)
+     *
+     * Always 200 with one result per check, in order; each result carries its own status.
+     * Counts as a single request for rate limiting.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> verifyBatch(
+            @RequestBody BatchVerifyRequest body,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+
+        List<AuthorizationService.BatchCheck> checks = body != null ? body.checks() : null;
+        if (checks == null || checks.isEmpty() || checks.size() > batchMaxChecks) {
+            logger.warn("⚠️ [CONTROLLER] Rejected batch verification with {} checks",
+                    checks != null ? checks.size() : 0);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Between 1 and " + batchMaxChecks + " checks required"));
+        }
+
+        logger.info("🔐 [CONTROLLER] Received batch verification request with {} checks", checks.size());
+
+        try {
+            List<VerifyDecision> decisions = authorizationService.verifyBatch(checks, request, response);
+            List<Map<String, Object>> results = new ArrayList<>(decisions.size());
+            for (int i = 0; i < decisions.size(); i++) {
+                VerifyDecision decision = decisions.get(i);
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("persona", checks.get(i).persona());
+                result.put("allowed", decision.isAllowed());
+                result.put("status", decision.getStatusCode());
+                if (decision.isAllowed()) {
+                    result.put("userId", decision.getUserId());
+                    result.put("email", decision.getEmail());
+                } else {
+                    result.put("error", decision.getMessage());
+                }
+                results.add(result);
+            }
+            return ResponseEntity.ok().body(Map.of("results", results));
+
+        } catch (Exception e) {
+            logger.error("❌ [CONTROLLER] Unexpected error during batch authorization", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Authorization failed"));
+        }
+    }
+
+    public record BatchVerifyRequest(List<AuthorizationService.BatchCheck> checks) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.gms_server.auth_app.controllers;
+
+import com.gms_server.auth_app.services.DecisionCache;
+import com.gms_server.auth_app.services.PersonaService;
+import com.gms_server.auth_app.services.SessionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ============================================
+ * SESSION ADMINISTRATION
+ * ============================================
+ *
+ * Bulk revocation of a user's sessions (account compromise, role removal).
+ * Uses the per-user session index - no keyspace scan.
+ *
+ * Protected by the X-Admin-Token header (session.admin.token);
+ * the endpoint answers 404 while no token is configured.
+ */
+@RestController
+@RequestMapping("/api/v1/sessions")
+public class SessionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionController.class);
+
+    private final SessionService sessionService;
+    private final PersonaService personaService;
+    private final DecisionCache decisionCache;
+    private final byte[] adminToken;
+
+    public SessionController(SessionService sessionService,
+                             PersonaService personaService,
+                             DecisionCache decisionCache,
+                             @Value("${session.admin.token:}") String adminToken) {
+        this.sessionService = sessionService;
+        this.personaService = personaService;
+        this.decisionCache = decisionCache;
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Revoke all sessions of a user, for one persona or (without ?persona=) all of them
+     */
+    @DeleteMapping("/users/{userId}")
+    public ResponseEntity<Map<String, Object>> revokeUserSessions(
+            @PathVariable String userId,
+            @RequestParam(required = false) String persona,
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+
+        if (adminToken.length == 0) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (token == null || !MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("🚫 [SESSIONS] Bulk revocation rejected: invalid admin token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Unauthorized"));
+        }
+
+        List<String> personas;
+        if (persona != null && !persona.isBlank()) {
+            if (!personaService.isValidPersona(persona)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Unsupported persona: " + persona));
+            }
+            personas = List.of(personaService.getPersonaConfig(persona).getName());
+        } else {
+            personas = personaService.getSupportedPersonas();
+        }
+
+        try {
+            int revoked = sessionService.revokeUserSessions(userId, personas, true);
+            decisionCache.invalidateUser(userId);
+            logger.info("🚫 [SESSIONS] Revoked {} sessions for user: {}", revoked, userId);
+            return ResponseEntity.ok(Map.of(
+                    "userId", userId,
+                    "personas", personas,
+                    "revoked", revoked
+            ));
+        } catch (Exception e) {
+            logger.error("❌ [SESSIONS] Bulk revocation failed for user: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Session revocation failed"));
+        }
+    }
+}
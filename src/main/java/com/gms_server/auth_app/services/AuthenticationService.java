@@ -1,9 +1,15 @@
 package com.gms_server.auth_app.services;
 
 import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.utils.AuthMetrics;
 import com.gms_server.auth_app.utils.PkceService;
 import com.gms_server.auth_app.utils.RedisService;
+import com.gms_server.auth_app.utils.ServerTiming;
+import com.gms_server.auth_app.utils.StateEnvelopeService;
+import com.gms_server.auth_app.utils.ValidationUtils;
 import com.gms_server.auth_app.utils.ZitadelApiService;
+import com.nimbusds.jwt.JWTParser;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,9 +19,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.text.ParseException;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -26,6 +32,15 @@ public class AuthenticationService {
     private final RedisService redisService;
     private final PersonaService personaService;
     private final ZitadelApiService zitadelApiService;
+    private final StateEnvelopeService stateEnvelopeService;
+    private final DecisionCache decisionCache;
+    private final SessionService sessionService;
+    private final AuthMetrics metrics;
+    private final ServerTiming serverTiming;
+
+    // PKCE state storage: "redis" (state record per login start) or "stateless" (sealed envelope)
+    @Value("${auth.state.mode:redis}")
+    private String stateMode;
 
     // Cookie security configuration - set to false for localhost development
     @Value("${cookie.secure:true}")
@@ -38,12 +53,44 @@ public class AuthenticationService {
     @Value("${session.ttl.days:7}")
     private int sessionTtlDays;
 
-    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final String STATE_KEY_PREFIX = "pkce:state:";
+    private static final String STATE_NONCE_KEY_PREFIX = "pkce:used:";
+    private static final long STATE_TTL_MINUTES = 10;
+    // Redis-backed states are random tokens or UUIDs; sealed envelopes are always longer
+    private static final int MAX_REDIS_STATE_LENGTH = 64;
 
-    public AuthenticationService(PersonaService personaService, RedisService redisService, ZitadelApiService zitadelApiService) {
+    public AuthenticationService(PersonaService personaService, RedisService redisService,
+                                 ZitadelApiService zitadelApiService, StateEnvelopeService stateEnvelopeService,
+                                 DecisionCache decisionCache, SessionService sessionService, AuthMetrics metrics,
+                                 ServerTiming serverTiming) {
         this.personaService = personaService;
         this.redisService = redisService;
         this.zitadelApiService = zitadelApiService;
+        this.stateEnvelopeService = stateEnvelopeService;
+        this.decisionCache = decisionCache;
+        this.sessionService = sessionService;
+        this.metrics = metrics;
+        this.serverTiming = serverTiming;
+    }
+
+    /**
+     * Validate PKCE state mode on startup
+     * Stateless mode needs a shared secret, otherwise containers cannot open each other's state
+     */
+    @PostConstruct
+    public void validateStateMode() {
+        if (!"redis".equalsIgnoreCase(stateMode) && !"stateless".equalsIgnoreCase(stateMode)) {
+            throw new IllegalStateException("🚨 [CONFIG] auth.state.mode must be 'redis' or 'stateless', got: " + stateMode);
+        }
+        if (isStatelessState()) {
+            // Fail fast on missing secret instead of failing every login
+            stateEnvelopeService.seal("startup-check", "check");
+        }
+        logger.info("⚙️ [CONFIG] PKCE state mode: {}", stateMode.toLowerCase());
+    }
+
+    private boolean isStatelessState() {
+        return "stateless".equalsIgnoreCase(stateMode);
     }
 
 //    public ResponseEntity<Void> startAuthentication(String persona){
@@ -83,12 +130,22 @@ public class AuthenticationService {
     public ResponseEntity<Void> startAuthentication(String persona) {
         logger.info("🚀 [AUTH] Starting authentication flow for persona: {}", persona);
         
-        persona = persona.toLowerCase().trim();
-        PersonaConfig config = personaService.getPersonaConfig(persona);
+        PersonaConfig config = personaService.getPersonaConfig(persona.trim());
+        persona = config.getName();
 
         final String codeVerifier = PkceService.generateCodeVerifier();
         final String codeChallenge = PkceService.generateCodeChallenge(codeVerifier);
-        final String state = PkceService.generateState();
+        final String state;
+
+        if (isStatelessState()) {
+            // Verifier and persona travel inside the encrypted state - nothing written to Redis
+            state = stateEnvelopeService.seal(codeVerifier, persona);
+            logger.info("🔏 [AUTH] Sealed authentication state into envelope (TTL: {}s)", stateEnvelopeService.getTtlSeconds());
+        } else {
+            state = PkceService.generateState();
+            redisService.setValueWithExpiry(STATE_KEY_PREFIX + state, codeVerifier + ":" + persona, STATE_TTL_MINUTES, TimeUnit.MINUTES);
+            logger.info("💾 [AUTH] Stored authentication state in Redis (TTL: {} minutes)", STATE_TTL_MINUTES);
+        }
 
         // SECURITY FIX: Don't log sensitive PKCE values in production
         if (logger.isDebugEnabled()) {
@@ -96,27 +153,10 @@ public class AuthenticationService {
             logger.debug("🎲 [AUTH] Generated state (length: {})", state.length());
         }
 
-        redisService.setValueWithExpiry(state, codeVerifier + ":" + persona, 10, java.util.concurrent.TimeUnit.MINUTES);
-        logger.info("💾 [AUTH] Stored authentication state in Redis (TTL: 10 minutes)");
-
         logger.debug("⚙️ [AUTH] Loaded configuration for persona: {}", persona);
 
-        // Build the scope with organization ID
-        String scope = "openid profile email offline_access " +
-                "urn:zitadel:iam:org:id:" + config.getOrganizationId();
-
-        logger.info("📋 [AUTH] Using scope with organization: {}", config.getOrganizationId());
-
-        URI authUri = UriComponentsBuilder.fromUriString(config.getIssuer() + "/oauth/v2/authorize")
-                .queryParam("client_id", config.getClientId())
-                .queryParam("response_type", "code")
-                .queryParam("scope", scope)
-                .queryParam("redirect_uri", config.getRedirectUri())
-                .queryParam("code_challenge", codeChallenge)
-                .queryParam("code_challenge_method", "S256")
-                .queryParam("state", state)
-                .build()
-                .toUri();
+        // Static part of the authorize URL (client, scope incl. organization, redirect) is precomputed per persona
+        URI authUri = URI.create(config.getAuthorizeUrlPrefix() + codeChallenge + "&state=" + state);
 
         logger.info("🔗 [AUTH] Redirecting to authorization endpoint: {}", config.getIssuer());
 
@@ -127,9 +167,12 @@ public class AuthenticationService {
     }
 
 
-    public void handleCallback(String code, String state, String error, HttpServletResponse response) {
+    public void handleCallback(String code, String state, String error, HttpServletResponse servletResponse) {
         logger.info("🔄 [CALLBACK] Received OAuth callback");
-        
+        // Every exit is a redirect or an error page: the Server-Timing header is added as it is sent
+        ServerTiming.Timings timings = serverTiming.begin("callback");
+        HttpServletResponse response = serverTiming.respond(timings, servletResponse);
+
         try {
             if (error != null) {
                 logger.error("❌ [CALLBACK] OAuth error: {}", error);
@@ -144,27 +187,20 @@ public class AuthenticationService {
             }
 
             logger.debug("🔍 [CALLBACK] Validating state parameter");
-            String storedValue = redisService.getValue(state, String.class);
+            // Persona is only known once the state is opened
+            StateEnvelopeService.Payload statePayload = metrics.stage("state", AuthMetrics.UNKNOWN_PERSONA,
+                    () -> consumeState(state));
 
-            if (storedValue == null) {
-                logger.error("❌ [CALLBACK] Invalid or expired state parameter");
+            if (statePayload == null) {
+                logger.error("❌ [CALLBACK] Invalid, expired or already used state parameter");
                 response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid or expired state");
                 return;
             }
-            
-            logger.info("✅ [CALLBACK] State validated successfully");
-            redisService.delete(state);
-            logger.debug("🗑️ [CALLBACK] Deleted used state from Redis");
 
-            String[] parts = storedValue.split(":");
-            if (parts.length != 2) {
-                logger.error("❌ [CALLBACK] Invalid state format in Redis");
-                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid state format");
-                return;
-            }
+            logger.info("✅ [CALLBACK] State validated successfully");
 
-            String codeVerifier = parts[0];
-            String persona = parts[1];
+            String codeVerifier = statePayload.codeVerifier();
+            String persona = statePayload.persona();
             
             // SECURITY FIX: Don't log sensitive code verifier
             logger.info("👤 [CALLBACK] Processing callback for persona: {}", persona);
@@ -174,7 +210,8 @@ public class AuthenticationService {
 
             logger.info("🔄 [CALLBACK] Exchanging authorization code for tokens");
             @SuppressWarnings("unchecked")
-            Map<String, Object> tokens = zitadelApiService.exchangeCodeForTokens(code, codeVerifier, config).block();
+            Map<String, Object> tokens = metrics.stage("code_exchange", persona,
+                    () -> zitadelApiService.exchangeCodeForTokens(code, codeVerifier, config).block());
             if (tokens == null || !tokens.containsKey("access_token")) {
                 logger.error("❌ [CALLBACK] Failed to exchange authorization code for tokens");
                 response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Failed to get access token");
@@ -182,11 +219,14 @@ public class AuthenticationService {
             }
             logger.info("✅ [CALLBACK] Successfully exchanged authorization code for tokens");
             String accessToken = (String) tokens.get("access_token");
+            // IdP session of this login, so a back-channel logout ends only its sessions
+            String idpSessionId = idpSessionId(tokens);
 
             // Get userInfo using accessToken
             logger.info("👤 [CALLBACK] Retrieving user information");
             @SuppressWarnings("unchecked")
-            Map<String, Object> userInfo = (Map<String, Object>) zitadelApiService.getUserInfo(accessToken, config.getIssuer()).block();
+            Map<String, Object> userInfo = (Map<String, Object>) metrics.stage("userinfo", persona,
+                    () -> zitadelApiService.getUserInfo(accessToken, config.getIssuer()).block());
 
             if (userInfo == null) {
                 logger.error("❌ [CALLBACK] Failed to retrieve user information");
@@ -197,18 +237,22 @@ public class AuthenticationService {
             String userId = userInfo.get("sub").toString();
             logger.info("✅ [CALLBACK] User authenticated - ID: {}", userId);
 
-            if (!personaService.hasPersonaRole(userInfo, config.getProjectId(), persona)) {
+            if (!personaService.hasPersonaRole(userInfo, config)) {
                 logger.info("🔧 [CALLBACK] User missing {} role, assigning for user: {}", persona, userId);
                 logger.debug("📋 [CALLBACK] Using project ID: {}", config.getProjectId());
 
-                Boolean roleAssigned = zitadelApiService.assignRoleIfNeeded(userId, config.getIssuer(), config.getProjectId(), config.getManagementToken(), persona).block();
+                Boolean roleAssigned = metrics.stage("role_assignment", persona,
+                        () -> zitadelApiService.assignRoleIfNeeded(userId, config.getIssuer(), config.getProjectId(), config.getManagementToken(), persona).block());
                 logger.info("✅ [CALLBACK] Role assignment completed: {}", roleAssigned);
+                // Roles changed: drop cached denials of the user's other sessions
+                decisionCache.invalidateUser(userId);
 
                 // Generate new tokens using refreshToken
                 String refreshToken = (String) tokens.get("refresh_token");
                 logger.info("🔄 [CALLBACK] Refreshing tokens after role assignment");
                 @SuppressWarnings("unchecked")
-                Map<String, Object> newTokens = (Map<String, Object>) zitadelApiService.refreshTokens(refreshToken, config).block();
+                Map<String, Object> newTokens = (Map<String, Object>) metrics.stage("token_refresh", persona,
+                        () -> zitadelApiService.refreshTokens(refreshToken, config).block());
                 if (newTokens != null) {
                     tokens = newTokens;
                     logger.info("✅ [CALLBACK] Tokens refreshed successfully after role assignment");
@@ -219,24 +263,15 @@ public class AuthenticationService {
                 logger.info("✅ [CALLBACK] User already has {} role", persona);
             }
 
-            // Create session and store tokens
-            String sessionId = PkceService.generateSessionId();
-            logger.info("🆔 [CALLBACK] Created session ID: {}", sessionId);
-            String redisKey = "session:" + sessionId;
-            
-            int sessionTtlSeconds = sessionTtlDays * SECONDS_PER_DAY;
-            redisService.setValueWithExpiry(redisKey, tokens, sessionTtlDays, TimeUnit.DAYS);
-            logger.info("💾 [CALLBACK] Session stored in Redis (TTL: {} days)", sessionTtlDays);
+            // Create session and store tokens (Redis record or sealed cookie, per session.mode)
+            Map<String, Object> sessionTokens = tokens;
+            String sessionValue = metrics.stage("session_create", persona,
+                    () -> sessionService.create(config, userId, idpSessionId, sessionTokens));
+            long sessionTtlSeconds = sessionService.getTtlSeconds();
+            logger.info("💾 [CALLBACK] Session created (TTL: {} days)", sessionTtlDays);
 
             // Create SECURE cookie using ResponseCookie
-            ResponseCookie cookie = ResponseCookie
-                    .from(config.getSessionIdName(), sessionId)
-                    .httpOnly(true)          // Prevents JavaScript access (XSS protection)
-                    .secure(cookieSecure)    // HTTPS only (set false for localhost)
-                    .path("/")               // Cookie available on all paths
-                    .maxAge(sessionTtlSeconds)  // Matches Redis TTL
-                    .sameSite(cookieSameSite)     // Prevents CSRF attacks (Strict/Lax/None)
-                    .build();
+            ResponseCookie cookie = sessionService.buildCookie(config, sessionValue);
 
             // Add secure cookie to response
             response.addHeader("Set-Cookie", cookie.toString());
@@ -255,9 +290,73 @@ public class AuthenticationService {
             } catch (Exception ex) {
                 logger.error("❌ [CALLBACK] Failed to send error response", ex);
             }
+        } finally {
+            serverTiming.end(timings);
         }
     }
 
+    /**
+     * sid claim of the id_token in a token response, or null.
+     * The id_token came straight from the token endpoint over TLS, so its claims
+     * are read without re-checking the signature (OIDC Core 3.1.3.7).
+     */
+    private static String idpSessionId(Map<String, Object> tokens) {
+        if (!(tokens.get("id_token") instanceof String idToken)) {
+            return null;
+        }
+        try {
+            return JWTParser.parse(idToken).getJWTClaimsSet().getStringClaim("sid");
+        } catch (ParseException e) {
+            logger.warn("⚠️ [CALLBACK] Unreadable id_token, session not linked to its IdP session: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Resolve and consume the PKCE state exactly once.
+     *
+     * Short random states are Redis-backed and consumed with a single GETDEL.
+     * Envelope states are opened in memory; replay protection is a SET NX
+     * on the envelope nonce, expiring together with the envelope.
+     * The format decides the path, so in-flight logins survive a mode switch.
+     *
+     * @return the state payload, or null if invalid, expired or replayed
+     */
+    private StateEnvelopeService.Payload consumeState(String state) {
+        if (state.length() <= MAX_REDIS_STATE_LENGTH) {
+            String storedValue = redisService.getAndDelete(STATE_KEY_PREFIX + state, String.class);
+            if (storedValue == null && ValidationUtils.isUuidFormat(state)) {
+                // Logins started before the pkce:state: namespace (UUID states under a bare key).
+                // Only needed for one state TTL after that deploy; UUID-only so no other key can be consumed.
+                storedValue = redisService.getAndDelete(state, String.class);
+            }
+            if (storedValue == null) {
+                return null;
+            }
+            logger.debug("🗑️ [CALLBACK] Consumed state from Redis");
+
+            String[] parts = storedValue.split(":");
+            if (parts.length != 2) {
+                logger.error("❌ [CALLBACK] Invalid state format in Redis");
+                return null;
+            }
+            return new StateEnvelopeService.Payload(parts[0], parts[1], null, 0);
+        }
+
+        StateEnvelopeService.Payload payload = stateEnvelopeService.open(state);
+        if (payload == null) {
+            return null;
+        }
+
+        Boolean firstUse = redisService.setIfAbsent(STATE_NONCE_KEY_PREFIX + payload.nonce(), "1",
+                Math.max(1, payload.remainingSeconds()), TimeUnit.SECONDS);
+        if (!Boolean.TRUE.equals(firstUse)) {
+            logger.warn("⚠️ [CALLBACK] State envelope replay rejected");
+            return null;
+        }
+        return payload;
+    }
+
     /**
      * Logout functionality - clears session from Redis and cookie
      */
@@ -274,25 +373,29 @@ public class AuthenticationService {
             
             PersonaConfig config = personaService.getPersonaConfig(persona);
             String cookieName = config.getSessionIdName();
-            String sessionId = null;
+            String cookieValue = null;
             
-            // Get session ID from cookie
+            // Get session cookie
             jakarta.servlet.http.Cookie[] cookies = request.getCookies();
             if (cookies != null) {
                 for (jakarta.servlet.http.Cookie cookie : cookies) {
                     if (cookieName.equals(cookie.getName())) {
-                        sessionId = cookie.getValue();
+                        cookieValue = cookie.getValue();
                         logger.debug("🍪 [LOGOUT] Found session cookie: {}", cookieName);
                         break;
                     }
                 }
             }
             
-            // Delete session from Redis
-            if (sessionId != null && !sessionId.trim().isEmpty()) {
-                String redisKey = "session:" + sessionId;
-                Boolean deleted = redisService.delete(redisKey);
-                logger.info("💾 [LOGOUT] Session deleted from Redis: {}, success: {}", sessionId, deleted);
+            // End session (Redis delete, or revocation in cookie mode)
+            if (cookieValue != null && !cookieValue.trim().isEmpty()) {
+                String sessionId = sessionService.revoke(config, cookieValue);
+                if (sessionId != null) {
+                    decisionCache.invalidateSession(sessionId);
+                    logger.info("💾 [LOGOUT] Session ended: {}", sessionId);
+                } else {
+                    logger.warn("⚠️ [LOGOUT] Session cookie invalid or already ended");
+                }
             } else {
                 logger.warn("⚠️ [LOGOUT] No session ID found in cookies");
             }
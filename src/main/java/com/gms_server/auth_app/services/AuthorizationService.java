@@ -1,46 +1,143 @@
 package com.gms_server.auth_app.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.gms_server.auth_app.configs.PersonaConfig;
-import com.gms_server.auth_app.utils.RedisService;
+import com.gms_server.auth_app.utils.AuthMetrics;
+import com.gms_server.auth_app.utils.ServerTiming;
+import com.gms_server.auth_app.utils.TokenClaims;
 import com.gms_server.auth_app.utils.ZitadelApiService;
+import com.gms_server.auth_app.utils.ZitadelUnavailableException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 @Service
 public class AuthorizationService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthorizationService.class);
 
-    private final RedisService redisService;
     private final ZitadelApiService zitadelApiService;
     private final PersonaService personaService;
     private final CachingService cachingService;
+    private final IntrospectionService introspectionService;
+    private final DecisionCache decisionCache;
+    private final EdgeCacheHints edgeCacheHints;
+    private final SessionService sessionService;
+    private final ObjectMapper objectMapper;
+    private final AuthMetrics metrics;
+    private final ServerTiming serverTiming;
 
-    @Value("${session.ttl.days:7}")
-    private int sessionTtlDays;
+    /**
+     * "persona token" → rendered X-User-Info; the same token is rendered once, not per decision
+     */
+    private final Cache<String, String> renderedUserContext;
 
-    public AuthorizationService(RedisService redisService,
-                                ZitadelApiService zitadelApiService,
+    public AuthorizationService(ZitadelApiService zitadelApiService,
                                 PersonaService personaService,
-                                CachingService cachingService) {
-        this.redisService = redisService;
+                                CachingService cachingService,
+                                IntrospectionService introspectionService,
+                                DecisionCache decisionCache,
+                                EdgeCacheHints edgeCacheHints,
+                                SessionService sessionService,
+                                ObjectMapper objectMapper,
+                                AuthMetrics metrics,
+                                ServerTiming serverTiming,
+                                @Value("${verify.user-context.cache-ttl-seconds:300}") long userContextTtlSeconds,
+                                @Value("${verify.user-context.max-entries:100000}") long userContextMaxEntries) {
         this.zitadelApiService = zitadelApiService;
         this.personaService = personaService;
         this.cachingService = cachingService;
+        this.introspectionService = introspectionService;
+        this.decisionCache = decisionCache;
+        this.edgeCacheHints = edgeCacheHints;
+        this.sessionService = sessionService;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.serverTiming = serverTiming;
+        this.renderedUserContext = Caffeine.newBuilder()
+                .maximumSize(userContextMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(userContextTtlSeconds))
+                .build();
     }
 
     /**
      * Verifies the persona authorization for the given request.
-     * Returns user info if authorized, throws exception otherwise.
+     * Returns the decision (with rendered headers) if authorized, throws exception otherwise.
+     *
+     * A cached decision for session + persona answers without touching Redis or Zitadel.
+     */
+    public VerifyDecision verifyPersonaAuthorization(String persona, HttpServletRequest request,
+                                                     HttpServletResponse response) {
+        return verifyPersonaAuthorization(persona, config -> getSessionIdFromCookie(request, config),
+                headerSink(response));
+    }
+
+    /**
+     * Transport-neutral variant (e.g. Envoy ext_authz over gRPC).
+     *
+     * @param sessionCookie Session cookie value of the request for the persona's config (null if absent)
+     * @param responseHeaders Receives response headers (name, value): Set-Cookie of refreshed cookie
+     *                        sessions, edge-cache lifetime and keys, Server-Timing (when enabled)
+     */
+    public VerifyDecision verifyPersonaAuthorization(String persona, Function<PersonaConfig, String> sessionCookie,
+                                                     BiConsumer<String, String> responseHeaders) {
+        long start = System.nanoTime();
+        ServerTiming.Timings timings = serverTiming.begin("verify");
+        String personaTag = persona;
+        int status = 500;
+        try {
+            Authorized authorized;
+            try {
+                authorized = authorize(persona, sessionCookie, responseHeaders);
+            } catch (AuthorizationException e) {
+                status = e.getStatusCode();
+                // Don't tag the metric with an unknown persona from the request
+                if (!personaService.isValidPersona(persona)) {
+                    personaTag = AuthMetrics.UNKNOWN_PERSONA;
+                }
+                metrics.recordVerify(personaTag, status, false, start);
+                edgeCacheHints.doNotCache(responseHeaders);
+                throw e;
+            }
+            VerifyDecision decision = authorized.decision();
+            status = decision.isAllowed() ? 200 : decision.getStatusCode();
+            metrics.recordVerify(persona, status, authorized.fromDecisionCache(), start);
+            if (!decision.isAllowed()) {
+                edgeCacheHints.doNotCache(responseHeaders);
+                throw new AuthorizationException(decision.getMessage(), decision.getStatusCode());
+            }
+            edgeCacheHints.apply(authorized.sessionId(), decision, responseHeaders);
+            return decision;
+        } finally {
+            serverTiming.finish(timings, personaTag, status, responseHeaders);
+        }
+    }
+
+    /**
+     * Returns the decision for the request; cached denials are returned, pipeline denials thrown
      */
-    public Map<String, Object> verifyPersonaAuthorization(String persona, HttpServletRequest request) {
+    private Authorized authorize(String persona, Function<PersonaConfig, String> sessionCookie,
+                                 BiConsumer<String, String> responseHeaders) {
         logger.info("🔐 [VERIFY] Starting authorization for persona: {}", persona);
 
         // Validate persona
@@ -50,27 +147,182 @@ public class AuthorizationService {
         }
 
         PersonaConfig config = personaService.getPersonaConfig(persona);
-        
+
         // FIXED: Extract session ID from cookie (no hardcoded fallback!)
-        //String sessionId = getSessionIdFromCookie(request, config);
-        String sessionId = getSessionIdFromCookie(request, config);
+        String cookieValue = sessionCookie.apply(config);
 
-        if (sessionId == null || sessionId.trim().isEmpty()) {
+        if (cookieValue == null || cookieValue.trim().isEmpty()) {
             logger.error("❌ [VERIFY] Session cookie not found for persona: {}", persona);
             throw new AuthorizationException("Session not found", 401);
         }
 
+        if (!sessionService.isReady()) {
+            logger.error("🔴 [VERIFY] Session revocations not loaded yet, refusing session for persona: {}", persona);
+            throw new AuthorizationException("Session service temporarily unavailable", 503);
+        }
+
+        // Cookie mode: decrypt + expiry + revocation check, all in memory
+        SessionService.SessionRef session = sessionService.resolve(config, cookieValue);
+        if (session == null) {
+            logger.error("❌ [VERIFY] Invalid or revoked session cookie for persona: {}", persona);
+            throw new AuthorizationException("Session expired or invalid", 401);
+        }
+        String sessionId = session.id();
+
+        long generation = decisionCache.generation();
+        VerifyDecision cached = decisionCache.get(sessionId, config.getName());
+        if (cached != null) {
+            logger.debug("⚡ [VERIFY] Decision cache hit for persona: {}", persona);
+            if (cached.isAllowed()) {
+                // Allowed = the session existed when the decision was made; counts as a use
+                sessionService.touch(session);
+            }
+            return new Authorized(sessionId, cached, true);
+        }
+
+        return new Authorized(sessionId, decide(config, session, responseHeaders, null, generation), false);
+    }
+
+    /**
+     * Verifies several (session, persona) pairs in one call.
+     * Returns one decision per check, in order; failures are returned as denials, never thrown.
+     *
+     * Checks without a session use the persona's cookie from the request. Duplicate pairs are
+     * answered once, session records are read with one MGET and each access token is
+     * validated once, however many personas share it.
+     *
+     * A refreshed session cookie (cookie mode) is only sent back for sessions that are this
+     * request's own cookies; explicit sessions may belong to other clients.
+     */
+    public List<VerifyDecision> verifyBatch(List<BatchCheck> checks, HttpServletRequest request,
+                                            HttpServletResponse response) {
+        logger.info("🔐 [VERIFY] Starting batch authorization for {} checks", checks.size());
+
+        VerifyDecision[] decisions = new VerifyDecision[checks.size()];
+        // "sessionId persona" → index of the first check asking for it
+        Map<String, Integer> firstByPair = new HashMap<>();
+        Map<Integer, Integer> duplicates = new HashMap<>();
+        Map<Integer, PersonaConfig> pendingConfigs = new LinkedHashMap<>();
+        Map<Integer, SessionService.SessionRef> pendingSessions = new LinkedHashMap<>();
+        // Checks whose session is the caller's own cookie (may receive Set-Cookie)
+        Set<Integer> ownSessions = new HashSet<>();
+
+        // 1. In-memory work: persona, session signature/decryption, decision cache
+        for (int i = 0; i < checks.size(); i++) {
+            BatchCheck check = checks.get(i);
+            String persona = check.persona();
+            if (persona == null || !personaService.isValidPersona(persona)) {
+                decisions[i] = VerifyDecision.deny(400, "Invalid persona", null);
+                continue;
+            }
+            PersonaConfig config = personaService.getPersonaConfig(persona);
+            String requestCookie = getSessionIdFromCookie(request, config);
+            String cookieValue = check.session() != null ? check.session() : requestCookie;
+            if (cookieValue == null || cookieValue.trim().isEmpty()) {
+                decisions[i] = VerifyDecision.deny(401, "Session not found", null);
+                continue;
+            }
+            if (!sessionService.isReady()) {
+                decisions[i] = VerifyDecision.deny(503, "Session service temporarily unavailable", null);
+                continue;
+            }
+            SessionService.SessionRef session = sessionService.resolve(config, cookieValue);
+            if (session == null) {
+                decisions[i] = VerifyDecision.deny(401, "Session expired or invalid", null);
+                continue;
+            }
+            Integer first = firstByPair.putIfAbsent(session.id() + " " + config.getName(), i);
+            if (first != null) {
+                duplicates.put(i, first);
+                continue;
+            }
+            VerifyDecision cached = decisionCache.get(session.id(), config.getName());
+            if (cached != null) {
+                if (cached.isAllowed()) {
+                    sessionService.touch(session);
+                }
+                decisions[i] = cached;
+                continue;
+            }
+            pendingConfigs.put(i, config);
+            pendingSessions.put(i, session);
+            if (cookieValue.equals(requestCookie)) {
+                ownSessions.add(i);
+            }
+        }
+
+        // 2. Remaining pairs: all session records at once, then the shared verify pipeline
+        if (!pendingSessions.isEmpty()) {
+            BatchContext batch = new BatchContext();
+            long generation = decisionCache.generation();
+            BiConsumer<String, String> responseHeaders = headerSink(response);
+            try {
+                batch.sessions.putAll(metrics.stage("session_fetch_batch", AuthMetrics.MIXED_PERSONAS,
+                        () -> sessionService.loadTokensAll(pendingSessions.values())));
+            } catch (Exception e) {
+                logger.error("❌ [VERIFY] Failed to load sessions for batch: {}", e.getMessage());
+                pendingSessions.keySet().forEach(i -> decisions[i] = VerifyDecision.deny(500, "Authorization failed", null));
+                pendingSessions.clear();
+            }
+            pendingSessions.forEach((i, session) -> {
+                try {
+                    decisions[i] = decide(pendingConfigs.get(i), session,
+                            ownSessions.contains(i) ? responseHeaders : null, batch, generation);
+                } catch (AuthorizationException e) {
+                    decisions[i] = VerifyDecision.deny(e.getStatusCode(), e.getMessage(), e.getUserId());
+                }
+            });
+        }
+
+        duplicates.forEach((i, first) -> decisions[i] = decisions[first]);
+        return List.of(decisions);
+    }
+
+    /**
+     * Runs the verify pipeline for one pair and caches the outcome.
+     * Returns the allow decision, throws AuthorizationException on denial.
+     */
+    private VerifyDecision decide(PersonaConfig config, SessionService.SessionRef session,
+                                  BiConsumer<String, String> responseHeaders, BatchContext batch, long generation) {
+        String sessionId = session.id();
+        try {
+            VerifiedSession verified = verifySession(config, session, responseHeaders, batch);
+            VerifyDecision decision = render(config, verified);
+            decisionCache.put(sessionId, config.getName(), decision, generation);
+            return decision;
+        } catch (AuthorizationException e) {
+            // Definite denials are cached too; transient failures (5xx) are not
+            if (e.getStatusCode() < 500) {
+                decisionCache.put(sessionId, config.getName(),
+                        VerifyDecision.deny(e.getStatusCode(), e.getMessage(), e.getUserId()), generation);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves session → tokens → user info and checks the persona role,
+     * refreshing tokens when needed. Returns the valid access token and its user info if authorized.
+     * In cookie session mode refreshed tokens are sent back as a new session cookie.
+     * With a batch context, tokens come from the batch's prefetched records.
+     */
+    private VerifiedSession verifySession(PersonaConfig config, SessionService.SessionRef sessionRef,
+                                          BiConsumer<String, String> responseHeaders, BatchContext batch) {
+        String persona = config.getName();
+        String sessionId = sessionRef.id();
         logger.info("🔍 [VERIFY] Checking session for persona: {}, sessionId: {}", persona, sessionId);
 
         try {
-            String redisKey = "session:" + sessionId;
-            Map<String, Object> session = redisService.getValue(redisKey, Map.class);
+            Map<String, Object> session = batch != null
+                    ? batch.sessions.get(sessionId)
+                    : metrics.stage("session_fetch", persona, () -> sessionService.loadTokens(sessionRef));
 
             if (session == null) {
                 logger.error("❌ [VERIFY] Session not found in Redis: {}", sessionId);
                 throw new AuthorizationException("Session expired or invalid", 401);
             }
 
+            String userId = (String) session.get(SessionService.USER_ID_FIELD);
             String accessToken = (String) session.get("access_token");
             String refreshToken = (String) session.get("refresh_token");
 
@@ -79,14 +331,16 @@ public class AuthorizationService {
                 throw new AuthorizationException("Invalid session tokens", 401);
             }
 
-            logger.debug("🔑 [VERIFY] Retrieved tokens from Redis session");
+            logger.debug("🔑 [VERIFY] Retrieved tokens from session");
 
             // Validate access token and get user info
-            Map<String, Object> userInfo = cachingService.getUserInfoByToken(accessToken, config.getIssuer());
+            CachedUserInfo userInfo = batch != null
+                    ? batch.validate(accessToken, config, this::validateAccessToken)
+                    : validateAccessToken(accessToken, config);
 
             if (userInfo == null) {
                 logger.info("⏰ [VERIFY] Access token expired, refreshing for sessionId: {}", sessionId);
-                Map<String, Object> newTokens = zitadelApiService.refreshTokens(refreshToken, config).block();
+                Map<String, Object> newTokens = refreshTokens(refreshToken, config, "expired");
 
                 if (newTokens == null) {
                     logger.error("❌ [VERIFY] Token refresh failed");
@@ -95,6 +349,7 @@ public class AuthorizationService {
 
                 session = newTokens;
 
+                String expiredAccessToken = accessToken;
                 accessToken = (String) session.get("access_token");
                 refreshToken = (String) session.get("refresh_token");
 
@@ -103,26 +358,26 @@ public class AuthorizationService {
                     throw new AuthorizationException("Invalid session tokens", 401);
                 }
 
-                // Update session in Redis with new tokens
-                redisService.setValueWithExpiry(redisKey, session, sessionTtlDays, TimeUnit.DAYS);
+                // Update session with new tokens
+                storeRefreshedTokens(config, sessionRef, userId, session, responseHeaders, batch);
 
-                // Invalidate old token cache
-                cachingService.invalidateToken(accessToken);
+                // Invalidate the replaced token's cache entry (not the new token's)
+                invalidateAccessToken(expiredAccessToken, config);
 
-                logger.info("✅ [VERIFY] Tokens refreshed and saved to Redis");
+                logger.info("✅ [VERIFY] Tokens refreshed and saved to session");
 
-                userInfo = cachingService.getUserInfoByToken(accessToken, config.getIssuer());
+                userInfo = validateAccessToken(accessToken, config);
                 if (userInfo == null) {
                     logger.error("❌ [VERIFY] Failed to get user info after token refresh");
                     throw new AuthorizationException("Failed to get user info after refresh", 401);
                 }
             }
 
-            // Verify persona role
-            if (!personaService.hasPersonaRole(userInfo, config.getProjectId(), persona)) {
+            // Verify persona role (bit test on roles compiled at cache time)
+            if (!personaService.hasPersonaRole(userInfo, config)) {
                 logger.warn("⚠️ [VERIFY] Persona role '{}' missing, attempting token refresh", persona);
 
-                Map<String, Object> newTokens = zitadelApiService.refreshTokens(refreshToken, config).block();
+                Map<String, Object> newTokens = refreshTokens(refreshToken, config, "role_missing");
                 if (newTokens == null) {
                     logger.error("❌ [VERIFY] Token refresh failed for role verification");
                     throw new AuthorizationException("Token refresh failed", 401);
@@ -130,6 +385,7 @@ public class AuthorizationService {
 
                 session = newTokens;
 
+                String staleAccessToken = accessToken;
                 accessToken = (String) session.get("access_token");
                 refreshToken = (String) session.get("refresh_token");
 
@@ -139,29 +395,144 @@ public class AuthorizationService {
                 }
 
                 // Update session with new tokens
-                redisService.setValueWithExpiry(redisKey, session, sessionTtlDays, TimeUnit.DAYS);
+                storeRefreshedTokens(config, sessionRef, userId, session, responseHeaders, batch);
 
-                // Invalidate old token cache
-                cachingService.invalidateToken(accessToken);
+                // Invalidate the replaced token's cached (role-less) user info
+                invalidateAccessToken(staleAccessToken, config);
 
-                userInfo = cachingService.getUserInfoByToken(accessToken, config.getIssuer());
-                if (userInfo == null || !personaService.hasPersonaRole(userInfo, config.getProjectId(), persona)) {
+                userInfo = validateAccessToken(accessToken, config);
+                if (userInfo == null || !personaService.hasPersonaRole(userInfo, config)) {
                     logger.error("❌ [VERIFY] Persona role '{}' still missing after refresh", persona);
-                    throw new AuthorizationException("Insufficient permissions", 403);
+                    metrics.roleCheck(persona, "denied");
+                    throw new AuthorizationException("Insufficient permissions", 403,
+                            userInfo != null ? stringClaim(userInfo.getUserInfo(), "sub") : null);
                 }
+                metrics.roleCheck(persona, "granted_after_refresh");
+            } else {
+                metrics.roleCheck(persona, "granted");
             }
 
             logger.info("✅ [VERIFY] Authorization successful for persona: {}", persona);
-            return userInfo;
+            return new VerifiedSession(accessToken, userInfo.getUserInfo());
 
         } catch (AuthorizationException e) {
             throw e;
+        } catch (ZitadelUnavailableException e) {
+            logger.error("🔴 [VERIFY] Identity provider unavailable for persona: {} ({})", persona, e.getIssuer());
+            throw new AuthorizationException("Identity provider temporarily unavailable", 503);
         } catch (Exception e) {
             logger.error("❌ [VERIFY] Unexpected authorization error for persona: {}", persona, e);
             throw new AuthorizationException("Authorization failed", 500);
         }
     }
 
+    /**
+     * Refresh grant, timed as a stage and counted per reason (expired | role_missing);
+     * null or incomplete tokens count as failure
+     */
+    private Map<String, Object> refreshTokens(String refreshToken, PersonaConfig config, String reason) {
+        boolean success = false;
+        try {
+            Map<String, Object> tokens = metrics.stage("token_refresh", config.getName(),
+                    () -> zitadelApiService.refreshTokens(refreshToken, config).block());
+            success = tokens != null && tokens.get("access_token") != null && tokens.get("refresh_token") != null;
+            return tokens;
+        } finally {
+            metrics.tokenRefresh(config.getName(), reason, success);
+        }
+    }
+
+    private void storeRefreshedTokens(PersonaConfig config, SessionService.SessionRef sessionRef, String userId,
+                                      Map<String, Object> tokens, BiConsumer<String, String> responseHeaders,
+                                      BatchContext batch) {
+        String newCookie;
+        try {
+            newCookie = sessionService.updateTokens(config, sessionRef, userId, tokens);
+        } catch (SessionService.SessionEndedException e) {
+            logger.warn("🚫 [VERIFY] Session ended during token refresh: {}", sessionRef.id());
+            throw new AuthorizationException("Session expired or invalid", 401);
+        }
+        if (newCookie != null && responseHeaders != null) {
+            responseHeaders.accept(HttpHeaders.SET_COOKIE, sessionService.buildCookie(config, newCookie).toString());
+        }
+        decisionCache.invalidateSession(sessionRef.id());
+        if (batch != null) {
+            // Later pairs of the same session must not reuse the rotated refresh token
+            Map<String, Object> record = new HashMap<>(tokens);
+            record.put(SessionService.USER_ID_FIELD, userId);
+            batch.sessions.put(sessionRef.id(), record);
+        }
+    }
+
+    private static BiConsumer<String, String> headerSink(HttpServletResponse response) {
+        return response != null ? response::addHeader : null;
+    }
+
+    /**
+     * Pre-render the headers forwarded to the upstream (nginx auth_request).
+     * X-User-Info holds only the persona's user-context claims (all claims if none configured)
+     * and is serialized once per access token.
+     */
+    private VerifyDecision render(PersonaConfig config, VerifiedSession verified) {
+        Map<String, Object> userInfo = verified.userInfo();
+        String userContext = renderedUserContext.get(config.getName() + " " + verified.accessToken(),
+                key -> userContextJson(config, userInfo));
+        return VerifyDecision.allow(stringClaim(userInfo, "sub"), stringClaim(userInfo, "email"), userContext,
+                tokenExpiresAt(verified));
+    }
+
+    /**
+     * Access token expiry, epoch seconds: JWT exp, else the introspection "exp" claim; 0 if unknown
+     */
+    private static long tokenExpiresAt(VerifiedSession verified) {
+        Instant expiresAt = TokenClaims.expiresAt(verified.accessToken());
+        if (expiresAt != null) {
+            return expiresAt.getEpochSecond();
+        }
+        return verified.userInfo().get("exp") instanceof Number exp ? exp.longValue() : 0;
+    }
+
+    private String userContextJson(PersonaConfig config, Map<String, Object> userInfo) {
+        Map<String, Object> claims = userInfo;
+        if (!config.getUserContextClaims().isEmpty()) {
+            claims = new LinkedHashMap<>();
+            for (String claim : config.getUserContextClaims()) {
+                Object value = userInfo.get(claim);
+                if (value != null) {
+                    claims.put(claim, value);
+                }
+            }
+        }
+        try {
+            return objectMapper.writeValueAsString(claims);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize user info", e);
+        }
+    }
+
+    private static String stringClaim(Map<String, Object> claims, String name) {
+        Object value = claims.get(name);
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * Validates the access token with the persona's strategy.
+     * Returns user claims with compiled persona roles, or null if the token is no longer valid.
+     */
+    private CachedUserInfo validateAccessToken(String accessToken, PersonaConfig config) {
+        return metrics.stage("token_validation", config.getName(), () -> config.usesIntrospection()
+                ? introspectionService.introspect(accessToken, config)
+                : cachingService.getUserInfoByToken(accessToken, config.getIssuer()));
+    }
+
+    private void invalidateAccessToken(String accessToken, PersonaConfig config) {
+        if (config.usesIntrospection()) {
+            introspectionService.invalidateToken(accessToken);
+        } else {
+            cachingService.invalidateToken(accessToken);
+        }
+    }
+
     /**
      * FIXED: Properly extract session ID from cookie without hardcoded fallback
      */
@@ -186,15 +557,81 @@ public class AuthorizationService {
         return null;
     }
 
+    private record Authorized(String sessionId, VerifyDecision decision, boolean fromDecisionCache) {
+    }
+
+    /**
+     * Outcome of a successful verify: the access token in use (possibly refreshed) and its claims
+     */
+    private record VerifiedSession(String accessToken, Map<String, Object> userInfo) {
+    }
+
+    /**
+     * Value of a cookie in a raw Cookie header ("a=1; b=2"), or null if absent or empty.
+     * For listeners outside the servlet stack.
+     */
+    public static String cookieValue(String cookieHeader, String name) {
+        if (cookieHeader == null) {
+            return null;
+        }
+        for (String pair : cookieHeader.split(";")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).trim().equals(name)) {
+                String value = pair.substring(eq + 1).trim();
+                return value.isEmpty() ? null : value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One (session, persona) pair of a batch verify; session null = the persona's cookie
+     */
+    public record BatchCheck(String persona, String session) {
+    }
+
+    /**
+     * Per-batch state: prefetched session records and access-token validations
+     */
+    private static class BatchContext {
+        private final Map<String, Map<String, Object>> sessions = new HashMap<>();
+        private final Map<String, CachedUserInfo> validated = new HashMap<>();
+
+        CachedUserInfo validate(String accessToken, PersonaConfig config,
+                                BiFunction<String, PersonaConfig, CachedUserInfo> validator) {
+            // Strategy + issuer: the same token may be validated differently per persona
+            String key = config.usesIntrospection() + " " + config.getIssuer() + " " + accessToken;
+            if (validated.containsKey(key)) {
+                return validated.get(key);
+            }
+            CachedUserInfo userInfo = validator.apply(accessToken, config);
+            validated.put(key, userInfo);
+            return userInfo;
+        }
+    }
+
     /**
      * Custom exception for authorization errors with HTTP status code.
      */
     public static class AuthorizationException extends RuntimeException {
         private final int statusCode;
+        private final String userId;
 
         public AuthorizationException(String message, int statusCode) {
+            this(message, statusCode, null);
+        }
+
+        public AuthorizationException(String message, int statusCode, String userId) {
             super(message);
             this.statusCode = statusCode;
+            this.userId = userId;
+        }
+
+        /**
+         * Subject of the denied user, if known (lets role changes clear cached denials)
+         */
+        public String getUserId() {
+            return userId;
         }
 
         public int getStatusCode() {
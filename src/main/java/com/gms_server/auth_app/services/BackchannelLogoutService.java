@@ -0,0 +1,167 @@
+package com.gms_server.auth_app.services;
+
+import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.utils.RedisService;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.DefaultJOSEObjectTypeVerifier;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================
+ * OIDC BACK-CHANNEL LOGOUT
+ * ============================================
+ *
+ * Receives logout tokens sent by Zitadel when a session ends at the IdP
+ * (OpenID Connect Back-Channel Logout 1.0) and ends the matching local sessions:
+ * - sid present: only the sessions created under that IdP session
+ *   (linked at login through the id_token sid, see SessionService)
+ * - sub only: all of the user's sessions of the persona
+ *
+ * Logout token checks:
+ * - signature against the issuer's JWKS (cached per issuer)
+ * - iss = persona issuer, aud contains the persona client ID
+ * - iat not older than max-age-seconds, exp (if present) not passed
+ * - events contains the back-channel-logout event, sub or sid present, no nonce
+ * - jti not seen before (replay protection in Redis)
+ *
+ * The IdP already ended its tokens, so nothing is revoked upstream.
+ */
+@Service
+public class BackchannelLogoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackchannelLogoutService.class);
+
+    private static final String LOGOUT_EVENT = "http://schemas.openid.net/event/backchannel-logout";
+    private static final String JTI_KEY_PREFIX = "logout:jti:";
+    private static final long CLOCK_SKEW_SECONDS = 60;
+
+    private final SessionService sessionService;
+    private final DecisionCache decisionCache;
+    private final RedisService redisService;
+
+    @Value("${backchannel-logout.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    /**
+     * issuer + client ID → JWT processor (holds the cached, auto-refreshing JWKS)
+     */
+    private final Map<String, ConfigurableJWTProcessor<SecurityContext>> processors = new ConcurrentHashMap<>();
+
+    public BackchannelLogoutService(SessionService sessionService, DecisionCache decisionCache,
+                                    RedisService redisService) {
+        this.sessionService = sessionService;
+        this.decisionCache = decisionCache;
+        this.redisService = redisService;
+    }
+
+    /**
+     * Validate the logout token and end the matching sessions of this persona.
+     *
+     * @return Number of sessions ended
+     * @throws IllegalArgumentException if the logout token is invalid
+     */
+    public int logout(PersonaConfig config, String logoutToken) {
+        JWTClaimsSet claims;
+        try {
+            claims = processorFor(config).process(logoutToken, null);
+        } catch (Exception e) {
+            logger.warn("🚫 [BACKCHANNEL] Invalid logout token for persona {}: {}", config.getName(), e.getMessage());
+            throw new IllegalArgumentException("Invalid logout token");
+        }
+
+        Instant issuedAt = claims.getIssueTime().toInstant();
+        if (issuedAt.isBefore(Instant.now().minusSeconds(maxAgeSeconds))
+                || issuedAt.isAfter(Instant.now().plusSeconds(CLOCK_SKEW_SECONDS))) {
+            throw new IllegalArgumentException("Logout token outside accepted time window");
+        }
+        Object events;
+        try {
+            events = claims.getJSONObjectClaim("events");
+        } catch (Exception e) {
+            events = null;
+        }
+        if (!(events instanceof Map<?, ?> eventMap) || !eventMap.containsKey(LOGOUT_EVENT)) {
+            throw new IllegalArgumentException("Logout token without back-channel logout event");
+        }
+        String userId = claims.getSubject();
+        String idpSessionId;
+        try {
+            idpSessionId = claims.getStringClaim("sid");
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Logout token with invalid sid");
+        }
+        boolean hasUser = userId != null && !userId.isBlank();
+        boolean hasSid = idpSessionId != null && !idpSessionId.isBlank();
+        if (!hasUser && !hasSid) {
+            throw new IllegalArgumentException("Logout token without sub or sid");
+        }
+
+        // Replay protection: each jti is accepted once
+        Boolean firstUse = redisService.setIfAbsent(JTI_KEY_PREFIX + claims.getJWTID(), "1",
+                maxAgeSeconds + CLOCK_SKEW_SECONDS, TimeUnit.SECONDS);
+        if (!Boolean.TRUE.equals(firstUse)) {
+            throw new IllegalArgumentException("Logout token replayed");
+        }
+
+        if (hasSid) {
+            Set<String> ended = sessionService.revokeIdpSession(config, idpSessionId, hasUser ? userId : null);
+            ended.forEach(decisionCache::invalidateSession);
+            logger.info("🚪 [BACKCHANNEL] Ended {} sessions of IdP session {} for persona {}", ended.size(),
+                    idpSessionId, config.getName());
+            return ended.size();
+        }
+
+        // sub only: the IdP ended all of the user's sessions
+        int ended = sessionService.revokeUserSessions(userId, List.of(config.getName()), false);
+        decisionCache.invalidateUser(userId);
+        logger.info("🚪 [BACKCHANNEL] Ended {} sessions of user {} for persona {}", ended, userId, config.getName());
+        return ended;
+    }
+
+    private ConfigurableJWTProcessor<SecurityContext> processorFor(PersonaConfig config) {
+        return processors.computeIfAbsent(config.getIssuer() + " " + config.getClientId(), key -> {
+            JWKSource<SecurityContext> keys;
+            try {
+                keys = JWKSourceBuilder.create(URI.create(config.getIssuer() + "/oauth/v2/keys").toURL()).build();
+            } catch (IllegalArgumentException | MalformedURLException e) {
+                throw new IllegalStateException("Invalid issuer URL: " + config.getIssuer(), e);
+            }
+            DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+            processor.setJWSTypeVerifier(new DefaultJOSEObjectTypeVerifier<>(
+                    new JOSEObjectType("logout+jwt"), JOSEObjectType.JWT, null));
+            processor.setJWSKeySelector(new JWSVerificationKeySelector<>(
+                    Set.of(JWSAlgorithm.RS256, JWSAlgorithm.RS384, JWSAlgorithm.RS512,
+                            JWSAlgorithm.ES256, JWSAlgorithm.ES384, JWSAlgorithm.ES512), keys));
+            // Not Set.of: the verifier probes the audience set with contains(null)
+            processor.setJWTClaimsSetVerifier(new DefaultJWTClaimsVerifier<>(
+                    Collections.singleton(config.getClientId()),
+                    new JWTClaimsSet.Builder().issuer(config.getIssuer()).build(),
+                    Set.of("iat", "jti", "events"),
+                    Set.of("nonce")));
+            return processor;
+        });
+    }
+}
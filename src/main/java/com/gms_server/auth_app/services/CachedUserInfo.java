@@ -0,0 +1,71 @@
+package com.gms_server.auth_app.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserInfo (or introspection claims) plus the persona roles compiled from it.
+ *
+ * Roles are a bitmask over the persona registry index (bit i = persona i),
+ * so an authorization check is a single bit test. The registry fingerprint
+ * tells whether the bits still match the current persona ordering; if not,
+ * PersonaRegistry recompiles them from the claims.
+ *
+ * Stored in Redis as a plain map (the Redis serializer keeps no type info).
+ */
+public final class CachedUserInfo {
+
+    private static final String FIELD_USER_INFO = "userInfo";
+    private static final String FIELD_ROLES = "roles";
+    private static final String FIELD_REGISTRY = "registry";
+
+    private final Map<String, Object> userInfo;
+    private final long[] roles;
+    private final long registryFingerprint;
+
+    CachedUserInfo(Map<String, Object> userInfo, long[] roles, long registryFingerprint) {
+        this.userInfo = userInfo;
+        this.roles = roles;
+        this.registryFingerprint = registryFingerprint;
+    }
+
+    public Map<String, Object> getUserInfo() {
+        return userInfo;
+    }
+
+    public long getRegistryFingerprint() {
+        return registryFingerprint;
+    }
+
+    public boolean hasRole(int personaIndex) {
+        int word = personaIndex >>> 6;
+        return word < roles.length && (roles[word] & (1L << personaIndex)) != 0;
+    }
+
+    public Map<String, Object> toCacheValue() {
+        List<Long> words = new ArrayList<>(roles.length);
+        for (long word : roles) {
+            words.add(word);
+        }
+        return Map.of(FIELD_USER_INFO, userInfo, FIELD_ROLES, words, FIELD_REGISTRY, registryFingerprint);
+    }
+
+    /**
+     * Rebuild from a cached map; null if the value doesn't have the expected shape
+     */
+    @SuppressWarnings("unchecked")
+    public static CachedUserInfo fromCacheValue(Map<String, Object> value) {
+        if (value == null
+                || !(value.get(FIELD_USER_INFO) instanceof Map<?, ?> info)
+                || !(value.get(FIELD_ROLES) instanceof List<?> words)
+                || !(value.get(FIELD_REGISTRY) instanceof Number registry)) {
+            return null;
+        }
+        long[] roles = new long[words.size()];
+        for (int i = 0; i < roles.length; i++) {
+            roles[i] = ((Number) words.get(i)).longValue();
+        }
+        return new CachedUserInfo((Map<String, Object>) info, roles, registry.longValue());
+    }
+}
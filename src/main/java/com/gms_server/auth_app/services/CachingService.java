@@ -1,11 +1,20 @@
 package com.gms_server.auth_app.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gms_server.auth_app.utils.AuthMetrics;
 import com.gms_server.auth_app.utils.RedisService;
+import com.gms_server.auth_app.utils.SecureRandomGenerator;
+import com.gms_server.auth_app.utils.TokenClaims;
 import com.gms_server.auth_app.utils.ZitadelApiService;
+import com.gms_server.auth_app.utils.ZitadelUnavailableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 
 @Service
@@ -13,29 +22,70 @@ public class CachingService {
 
     private static final Logger logger = LoggerFactory.getLogger(CachingService.class);
 
+    static final String USERINFO_KEY_PREFIX = "token:principal:";
+
     private final ZitadelApiService zitadelApiService;
     private final RedisService redisService;
+    private final PersonaRegistry personaRegistry;
+    private final DecisionCache decisionCache;
+    private final AuthMetrics metrics;
+
+    /**
+     * Last known UserInfo per token, served only while Zitadel is unavailable
+     * (circuit open) and the token itself has not expired.
+     */
+    private final Cache<String, CachedUserInfo> staleUserInfo;
 
-    public CachingService(ZitadelApiService zitadelApiService, RedisService redisService) {
+    public CachingService(ZitadelApiService zitadelApiService, RedisService redisService,
+                          PersonaRegistry personaRegistry, DecisionCache decisionCache, AuthMetrics metrics,
+                          @Value("${zitadel.resilience.stale.max-age-minutes:60}") long staleMaxAgeMinutes,
+                          @Value("${zitadel.resilience.stale.max-entries:10000}") long staleMaxEntries) {
         this.zitadelApiService = zitadelApiService;
         this.redisService = redisService;
+        this.personaRegistry = personaRegistry;
+        this.decisionCache = decisionCache;
+        this.metrics = metrics;
+        this.staleUserInfo = Caffeine.newBuilder()
+                .maximumSize(staleMaxEntries)
+                .expireAfterWrite(Duration.ofMinutes(staleMaxAgeMinutes))
+                .build();
     }
 
     /** ---------------- TOKEN → USER INFO ---------------- */
-    public Map<String, Object> getUserInfoByToken(String accessToken, String issuer) {
-        String key = "token:userinfo:" + accessToken;
-        Map<String, Object> cached = redisService.getValue(key, Map.class);
+
+    /**
+     * UserInfo for the token with persona roles compiled once, at cache time.
+     * Cached under a hash of the token, so tokens never appear in Redis keys.
+     */
+    public CachedUserInfo getUserInfoByToken(String accessToken, String issuer) {
+        String key = USERINFO_KEY_PREFIX + SecureRandomGenerator.sha256Base64Url(accessToken);
+        CachedUserInfo cached = CachedUserInfo.fromCacheValue(redisService.getValue(key, Map.class));
         if (cached != null) {
-            logger.info("UserInfo cache hit (redis) {}", cached);
-            return cached;
+            logger.debug("UserInfo cache hit (redis)");
+            metrics.userInfoCache("userinfo", "hit");
+            return personaRegistry.current(cached);
         }
-        logger.info("UserInfo cache miss — fetching from Zitadel {}", accessToken);
+        logger.info("UserInfo cache miss — fetching from Zitadel");
+        metrics.userInfoCache("userinfo", "miss");
         try {
             Map<String, Object> userInfo = zitadelApiService.getUserInfo(accessToken, issuer).block();
-            if (userInfo != null) {
-                redisService.setValueWithExpiry(key, userInfo, 15, java.util.concurrent.TimeUnit.MINUTES);
+            if (userInfo == null) {
+                return null;
+            }
+            CachedUserInfo compiled = personaRegistry.compile(userInfo);
+            redisService.setValueWithExpiry(key, compiled.toCacheValue(), 15, java.util.concurrent.TimeUnit.MINUTES);
+            staleUserInfo.put(accessToken, compiled);
+            return compiled;
+        } catch (ZitadelUnavailableException e) {
+            // Zitadel is down: keep serving a still-valid token's last known UserInfo
+            CachedUserInfo stale = staleUserInfo.getIfPresent(accessToken);
+            Instant expiresAt = TokenClaims.expiresAt(accessToken);
+            if (stale != null && (expiresAt == null || expiresAt.isAfter(Instant.now()))) {
+                logger.warn("🟠 [CACHE] Zitadel unavailable ({}), serving stale UserInfo", e.getIssuer());
+                metrics.userInfoCache("userinfo", "stale");
+                return personaRegistry.current(stale);
             }
-            return userInfo;
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to fetch UserInfo from Zitadel: {}", e.getMessage(), e);
             return null;
@@ -66,12 +116,14 @@ public class CachingService {
     public void invalidateUser(String userId) {
         String key = "user:userinfo:" + userId;
         redisService.delete(key);
+        decisionCache.invalidateUser(userId);
         logger.info("Invalidated user cache: {}", userId);
     }
 
     public void invalidateToken(String accessToken) {
-        String key = "token:userinfo:" + accessToken;
+        String key = USERINFO_KEY_PREFIX + SecureRandomGenerator.sha256Base64Url(accessToken);
         redisService.delete(key);
+        staleUserInfo.invalidate(accessToken);
         logger.info("Invalidated token cache");
     }
 
@@ -0,0 +1,39 @@
+package com.gms_server.auth_app.services;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Cheap storage for idle sessions moved out of Redis (see SessionTiering).
+ *
+ * Implementations must be shared by all instances that serve the same
+ * sessions (object storage, database, shared volume); FileColdSessionStore
+ * is a local-disk implementation for single-node setups and testing.
+ */
+public interface ColdSessionStore {
+
+    /**
+     * Store sessions (sessionId → session); overwrites existing entries
+     */
+    void putAll(Map<String, ColdSession> sessions);
+
+    /**
+     * @return The session, or null if missing or expired
+     */
+    ColdSession get(String sessionId);
+
+    void deleteAll(Collection<String> sessionIds);
+
+    /**
+     * Drop entries whose session expired
+     *
+     * @return Number of entries removed
+     */
+    int purgeExpired(long nowEpochSeconds);
+
+    /**
+     * Session record (tokens + user ID) and its expiry, epoch seconds
+     */
+    record ColdSession(Map<String, Object> record, long expiresAt) {
+    }
+}
@@ -0,0 +1,370 @@
+package com.gms_server.auth_app.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gms_server.auth_app.utils.MappedSnapshotFile;
+import com.gms_server.auth_app.utils.RedisService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ============================================
+ * AUTHORIZATION DECISION CACHE
+ * ============================================
+ *
+ * Local, short-TTL cache of /verify outcomes keyed by session ID + persona.
+ * A hit answers verify with one in-memory lookup (no Redis, no Zitadel).
+ *
+ * Invalidation is broadcast over Redis pub/sub so every instance drops
+ * stale decisions immediately:
+ *   "session:<sessionId>" - logout, token refresh
+ *   "user:<userId>"       - role change
+ * The TTL bounds staleness if a message is missed.
+ *
+ * Verifies in flight during an invalidation must not re-insert what it just
+ * dropped: callers read generation() before the pipeline touches session or
+ * token state and pass it to put(), which discards the decision if its
+ * session or user was invalidated since.
+ *
+ * Warm restarts (cache.snapshot.enabled): live decisions are written to a
+ * memory-mapped snapshot file periodically and on shutdown. On startup the
+ * file is mapped read-only and consulted on cache misses; entries keep the
+ * expiry they had when written and are decoded lazily, so a new instance
+ * answers its first requests without Redis/Zitadel and staleness stays
+ * bounded by the same TTL. Invalidations also apply to the snapshot.
+ */
+@Service
+public class DecisionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionCache.class);
+
+    static final String INVALIDATION_CHANNEL = "auth:decision:invalidate";
+    private static final String SESSION_PREFIX = "session:";
+    private static final String USER_PREFIX = "user:";
+    private static final int SNAPSHOT_VERSION = 2;
+    // Longer than any verify pipeline can run (attempt timeouts, retries, hedges)
+    private static final Duration INVALIDATION_MEMORY = Duration.ofMinutes(5);
+
+    private final RedisService redisService;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final EdgeCacheHints edgeCacheHints;
+
+    /**
+     * sessionId → (persona → decision); a session's decisions expire together
+     */
+    private final Cache<String, Map<String, VerifyDecision>> decisions;
+    /**
+     * "session:<id>" / "user:<id>" → generation of its latest invalidation
+     */
+    private final Cache<String, Long> invalidations;
+    private final AtomicLong generation = new AtomicLong();
+    private final boolean enabled;
+    private final long ttlMillis;
+
+    @Value("${cache.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
+
+    @Value("${cache.snapshot.path:./data/decision-cache.snap}")
+    private String snapshotPath;
+
+    /**
+     * Restored entries: sessionId → (persona → mapped record); null once none can be live
+     */
+    private volatile Map<String, Map<String, ByteBuffer>> restored;
+    private volatile long restoredUntilMillis;
+
+    public DecisionCache(RedisService redisService,
+                         RedisMessageListenerContainer listenerContainer,
+                         EdgeCacheHints edgeCacheHints,
+                         @Value("${verify.decision-cache.enabled:true}") boolean enabled,
+                         @Value("${verify.decision-cache.ttl-seconds:30}") long ttlSeconds,
+                         @Value("${verify.decision-cache.max-entries:100000}") long maxEntries) {
+        this.redisService = redisService;
+        this.listenerContainer = listenerContainer;
+        this.edgeCacheHints = edgeCacheHints;
+        this.enabled = enabled;
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.decisions = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.invalidations = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(INVALIDATION_MEMORY)
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        restoreSnapshot();
+        listenerContainer.addMessageListener((message, pattern) ->
+                        applyInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+        logger.info("⚙️ [CONFIG] Decision cache enabled, listening on {}", INVALIDATION_CHANNEL);
+    }
+
+    public VerifyDecision get(String sessionId, String persona) {
+        if (!enabled) {
+            return null;
+        }
+        Map<String, VerifyDecision> byPersona = decisions.getIfPresent(sessionId);
+        VerifyDecision decision = byPersona != null ? byPersona.get(persona) : null;
+        return decision != null || restored == null ? decision : getRestored(sessionId, persona);
+    }
+
+    /**
+     * Current invalidation generation; read before the verify pipeline starts
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Cache a decision computed from state read after `generation` was taken.
+     * Dropped if the session or the decision's user was invalidated since.
+     */
+    public void put(String sessionId, String persona, VerifyDecision decision, long generation) {
+        if (!enabled || invalidatedSince(sessionId, decision.getUserId(), generation)) {
+            return;
+        }
+        Map<String, VerifyDecision> byPersona = decisions.get(sessionId, k -> new ConcurrentHashMap<>(4));
+        byPersona.put(persona, decision);
+        // An invalidation between the check and the insert: it either saw the entry or is seen here
+        if (invalidatedSince(sessionId, decision.getUserId(), generation)) {
+            byPersona.remove(persona, decision);
+        }
+    }
+
+    private boolean invalidatedSince(String sessionId, String userId, long generation) {
+        Long session = invalidations.getIfPresent(SESSION_PREFIX + sessionId);
+        if (session != null && session > generation) {
+            return true;
+        }
+        Long user = userId != null ? invalidations.getIfPresent(USER_PREFIX + userId) : null;
+        return user != null && user > generation;
+    }
+
+    /**
+     * Drop all decisions of a session (every persona), on all instances and at the edge
+     */
+    public void invalidateSession(String sessionId) {
+        edgeCacheHints.purgeSession(sessionId);
+        broadcast(SESSION_PREFIX + sessionId);
+    }
+
+    /**
+     * Drop all decisions of a user (roles changed), on all instances and at the edge
+     */
+    public void invalidateUser(String userId) {
+        edgeCacheHints.purgeUser(userId);
+        broadcast(USER_PREFIX + userId);
+    }
+
+    private void broadcast(String invalidation) {
+        if (!enabled) {
+            return;
+        }
+        applyInvalidation(invalidation);
+        try {
+            redisService.publish(INVALIDATION_CHANNEL, invalidation);
+        } catch (Exception e) {
+            logger.warn("⚠️ [CACHE] Failed to broadcast decision invalidation, other instances expire by TTL: {}",
+                    e.getMessage());
+        }
+    }
+
+    private void applyInvalidation(String invalidation) {
+        // Recorded before removing, so a concurrent put() either is removed or sees it
+        invalidations.put(invalidation, generation.incrementAndGet());
+        Map<String, Map<String, ByteBuffer>> snapshot = restored;
+        if (invalidation.startsWith(SESSION_PREFIX)) {
+            String sessionId = invalidation.substring(SESSION_PREFIX.length());
+            decisions.invalidate(sessionId);
+            if (snapshot != null) {
+                snapshot.remove(sessionId);
+            }
+        } else if (invalidation.startsWith(USER_PREFIX)) {
+            // Rare (role changes): scan is acceptable
+            String userId = invalidation.substring(USER_PREFIX.length());
+            decisions.asMap().values().removeIf(byPersona -> byPersona.values().stream()
+                    .anyMatch(decision -> userId.equals(decision.getUserId())));
+            if (snapshot != null) {
+                snapshot.values().removeIf(byPersona -> byPersona.values().stream()
+                        .anyMatch(record -> userId.equals(decode(record).decision().getUserId())));
+            }
+        }
+    }
+
+    // ========================================
+    // WARM-RESTART SNAPSHOT
+    // ========================================
+
+    /**
+     * Record layout: long expiresAtMillis | str sessionId | str persona | byte allowed
+     * | int status | str message | str userId | str email | str userInfoJson | long tokenExpiresAt
+     */
+    private record SnapshotEntry(long expiresAtMillis, String sessionId, String persona, VerifyDecision decision) {
+    }
+
+    @Scheduled(fixedDelayString = "${cache.snapshot.interval-ms:60000}",
+            initialDelayString = "${cache.snapshot.interval-ms:60000}")
+    public void writeSnapshot() {
+        if (!enabled || !snapshotEnabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<byte[]> records = new ArrayList<>();
+        decisions.policy().expireAfterWrite().ifPresent(expiry ->
+                decisions.asMap().forEach((sessionId, byPersona) -> expiry.ageOf(sessionId).ifPresent(age -> {
+                    long expiresAt = now + ttlMillis - age.toMillis();
+                    byPersona.forEach((persona, decision) ->
+                            records.add(encode(new SnapshotEntry(expiresAt, sessionId, persona, decision))));
+                })));
+
+        // Restored entries not yet replaced by fresh ones survive another restart
+        Map<String, Map<String, ByteBuffer>> snapshot = restored;
+        if (snapshot != null) {
+            snapshot.forEach((sessionId, byPersona) -> byPersona.forEach((persona, record) -> {
+                Map<String, VerifyDecision> live = decisions.getIfPresent(sessionId);
+                if ((live == null || !live.containsKey(persona)) && decode(record).expiresAtMillis() > now) {
+                    byte[] copy = new byte[record.remaining()];
+                    record.duplicate().get(copy);
+                    records.add(copy);
+                }
+            }));
+        }
+
+        try {
+            MappedSnapshotFile.write(Paths.get(snapshotPath), SNAPSHOT_VERSION, records);
+            logger.debug("💾 [CACHE] Wrote {} decisions to snapshot {}", records.size(), snapshotPath);
+        } catch (Exception e) {
+            logger.warn("⚠️ [CACHE] Failed to write decision snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeSnapshot();
+    }
+
+    private void restoreSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        Path path = Paths.get(snapshotPath);
+        try {
+            MappedSnapshotFile file = MappedSnapshotFile.open(path, SNAPSHOT_VERSION);
+            if (file == null) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            long until = 0;
+            Map<String, Map<String, ByteBuffer>> index = new ConcurrentHashMap<>();
+            for (ByteBuffer record : file.getRecords()) {
+                // Only the key fields are read here; decisions are decoded on first use
+                ByteBuffer reader = record.duplicate();
+                long expiresAt = reader.getLong();
+                if (expiresAt <= now) {
+                    continue;
+                }
+                String sessionId = MappedSnapshotFile.getString(reader);
+                String persona = MappedSnapshotFile.getString(reader);
+                index.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>(4)).put(persona, record);
+                until = Math.max(until, expiresAt);
+            }
+            if (!index.isEmpty()) {
+                restoredUntilMillis = until;
+                restored = index;
+                logger.info("💾 [CACHE] Mapped decision snapshot {}: {} live sessions", path, index.size());
+            }
+        } catch (Exception e) {
+            logger.warn("⚠️ [CACHE] Ignoring unreadable decision snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private VerifyDecision getRestored(String sessionId, String persona) {
+        Map<String, Map<String, ByteBuffer>> snapshot = restored;
+        if (snapshot == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now >= restoredUntilMillis) {
+            // Everything in the snapshot has expired: release the mapping
+            restored = null;
+            return null;
+        }
+        Map<String, ByteBuffer> byPersona = snapshot.get(sessionId);
+        ByteBuffer record = byPersona != null ? byPersona.get(persona) : null;
+        if (record == null) {
+            return null;
+        }
+        SnapshotEntry entry = decode(record);
+        if (entry.expiresAtMillis() <= now) {
+            byPersona.remove(persona);
+            return null;
+        }
+        return entry.decision();
+    }
+
+    private static byte[] encode(SnapshotEntry entry) {
+        VerifyDecision decision = entry.decision();
+        int size = 8 + 1 + 4 + 8
+                + MappedSnapshotFile.sizeOf(entry.sessionId())
+                + MappedSnapshotFile.sizeOf(entry.persona())
+                + MappedSnapshotFile.sizeOf(decision.getMessage())
+                + MappedSnapshotFile.sizeOf(decision.getUserId())
+                + MappedSnapshotFile.sizeOf(decision.getEmail())
+                + MappedSnapshotFile.sizeOf(decision.getUserInfoJson());
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(entry.expiresAtMillis());
+        MappedSnapshotFile.putString(buffer, entry.sessionId());
+        MappedSnapshotFile.putString(buffer, entry.persona());
+        buffer.put((byte) (decision.isAllowed() ? 1 : 0));
+        buffer.putInt(decision.getStatusCode());
+        MappedSnapshotFile.putString(buffer, decision.getMessage());
+        MappedSnapshotFile.putString(buffer, decision.getUserId());
+        MappedSnapshotFile.putString(buffer, decision.getEmail());
+        MappedSnapshotFile.putString(buffer, decision.getUserInfoJson());
+        buffer.putLong(decision.getTokenExpiresAt());
+        return buffer.array();
+    }
+
+    private static SnapshotEntry decode(ByteBuffer record) {
+        ByteBuffer reader = record.duplicate();
+        long expiresAt = reader.getLong();
+        String sessionId = MappedSnapshotFile.getString(reader);
+        String persona = MappedSnapshotFile.getString(reader);
+        boolean allowed = reader.get() == 1;
+        int status = reader.getInt();
+        String message = MappedSnapshotFile.getString(reader);
+        String userId = MappedSnapshotFile.getString(reader);
+        String email = MappedSnapshotFile.getString(reader);
+        String userInfoJson = MappedSnapshotFile.getString(reader);
+        long tokenExpiresAt = reader.getLong();
+        VerifyDecision decision = allowed
+                ? VerifyDecision.allow(userId, email, userInfoJson, tokenExpiresAt)
+                : VerifyDecision.deny(status, message, userId);
+        return new SnapshotEntry(expiresAt, sessionId, persona, decision);
+    }
+}
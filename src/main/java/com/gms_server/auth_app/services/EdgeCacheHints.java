@@ -0,0 +1,191 @@
+package com.gms_server.auth_app.services;
+
+import com.gms_server.auth_app.utils.SecretKeyProvider;
+import com.gms_server.auth_app.utils.SecureRandomGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * ============================================
+ * EDGE CACHING OF VERIFY DECISIONS
+ * ============================================
+ *
+ * Lets nginx (proxy_cache on the auth_request location) reuse allow decisions:
+ * - Lifetime: min(max-seconds, access token's remaining validity), sent as
+ *   X-Accel-Expires (nginx) or Cache-Control: max-age. Denials are never cacheable.
+ * - Keys: X-Auth-Cache-Key (session) and X-Auth-Cache-User (user), keyed hashes
+ *   of the session ID / user ID - stable per session, useless to anyone reading
+ *   edge logs. Usable as cache tags by edges that purge by tag.
+ * - Purge: session/user invalidations (logout, refresh, revocation, role change)
+ *   POST the affected keys to purge-url, if configured. Without a purge endpoint,
+ *   max-seconds is the staleness bound - keep it short.
+ */
+@Service
+public class EdgeCacheHints {
+
+    private static final Logger logger = LoggerFactory.getLogger(EdgeCacheHints.class);
+
+    static final String SESSION_KEY_HEADER = "X-Auth-Cache-Key";
+    static final String USER_KEY_HEADER = "X-Auth-Cache-User";
+    private static final String HEADER_X_ACCEL_EXPIRES = "x-accel-expires";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int KEY_BYTES = 16;
+
+    private static final Base64.Encoder base64UrlEncoder = Base64.getUrlEncoder().withoutPadding();
+
+    private final boolean enabled;
+    private final long maxSeconds;
+    private final boolean xAccelExpires;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final WebClient purgeClient;
+
+    public EdgeCacheHints(SecretKeyProvider secretKeyProvider,
+                          WebClient.Builder webClientBuilder,
+                          @Value("${verify.edge-cache.enabled:false}") boolean enabled,
+                          @Value("${verify.edge-cache.max-seconds:5}") long maxSeconds,
+                          @Value("${verify.edge-cache.header:x-accel-expires}") String header,
+                          @Value("${verify.edge-cache.purge-url:}") String purgeUrl,
+                          @Value("${verify.edge-cache.purge-token:}") String purgeToken) {
+        this.enabled = enabled;
+        this.maxSeconds = maxSeconds;
+        this.xAccelExpires = HEADER_X_ACCEL_EXPIRES.equalsIgnoreCase(header.trim());
+        if (secretKeyProvider.isConfigured()) {
+            this.key = new SecretKeySpec(secretKeyProvider.deriveKey("edge-cache-key"), HMAC_ALGORITHM);
+            this.macs = ThreadLocal.withInitial(this::newMac);
+        } else {
+            this.key = null;
+            this.macs = null;
+        }
+        if (enabled && !purgeUrl.isBlank()) {
+            WebClient.Builder builder = webClientBuilder.clone().baseUrl(purgeUrl);
+            if (!purgeToken.isBlank()) {
+                builder.defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + purgeToken);
+            }
+            this.purgeClient = builder.build();
+        } else {
+            this.purgeClient = null;
+        }
+        if (enabled) {
+            logger.info("⚙️ [CONFIG] Edge caching of verify decisions: up to {}s via {}, purge {}",
+                    maxSeconds, xAccelExpires ? "X-Accel-Expires" : "Cache-Control",
+                    purgeClient != null ? "enabled" : "disabled");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add lifetime and keys for an allow decision
+     */
+    public void apply(String sessionId, VerifyDecision decision, BiConsumer<String, String> headers) {
+        if (!enabled || headers == null) {
+            return;
+        }
+        long lifetime = maxSeconds;
+        if (decision.getTokenExpiresAt() > 0) {
+            lifetime = Math.min(lifetime, decision.getTokenExpiresAt() - Instant.now().getEpochSecond());
+        }
+        if (!decision.isAllowed() || lifetime <= 0) {
+            doNotCache(headers);
+            return;
+        }
+        if (xAccelExpires) {
+            headers.accept("X-Accel-Expires", Long.toString(lifetime));
+        } else {
+            headers.accept(HttpHeaders.CACHE_CONTROL, "max-age=" + lifetime);
+        }
+        headers.accept(SESSION_KEY_HEADER, sessionKey(sessionId));
+        String userId = decision.getUserId();
+        if (userId != null && !userId.isEmpty()) {
+            headers.accept(USER_KEY_HEADER, userKey(userId));
+        }
+    }
+
+    /**
+     * Mark the response as not cacheable (denials, errors)
+     */
+    public void doNotCache(BiConsumer<String, String> headers) {
+        if (!enabled || headers == null) {
+            return;
+        }
+        if (xAccelExpires) {
+            headers.accept("X-Accel-Expires", "0");
+        } else {
+            headers.accept(HttpHeaders.CACHE_CONTROL, "no-store");
+        }
+    }
+
+    public void purgeSession(String sessionId) {
+        purge(Map.of("sessionKeys", List.of(sessionKey(sessionId))));
+    }
+
+    public void purgeUser(String userId) {
+        purge(Map.of("userKeys", List.of(userKey(userId))));
+    }
+
+    /**
+     * Fire-and-forget: the lifetime cap bounds staleness if the purge is lost
+     */
+    private void purge(Map<String, Object> body) {
+        if (purgeClient == null) {
+            return;
+        }
+        purgeClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(Duration.ofSeconds(5))
+                .subscribe(
+                        response -> logger.debug("🧹 [EDGE-CACHE] Purged {}", body.keySet()),
+                        error -> logger.warn("⚠️ [EDGE-CACHE] Purge failed, entries expire within {}s: {}",
+                                maxSeconds, error.getMessage()));
+    }
+
+    String sessionKey(String sessionId) {
+        return hash("session:" + sessionId);
+    }
+
+    String userKey(String userId) {
+        return hash("user:" + userId);
+    }
+
+    private String hash(String value) {
+        if (macs == null) {
+            // No auth.secret: plain SHA-256 (session IDs are random; user IDs become linkable)
+            return SecureRandomGenerator.sha256Base64Url(value).substring(0, 22);
+        }
+        byte[] mac = macs.get().doFinal(value.getBytes(StandardCharsets.UTF_8));
+        return base64UrlEncoder.encodeToString(Arrays.copyOf(mac, KEY_BYTES));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.gms_server.auth_app.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.rpc.Code;
+import com.google.rpc.Status;
+import io.envoyproxy.envoy.config.core.v3.HeaderValue;
+import io.envoyproxy.envoy.config.core.v3.HeaderValueOption;
+import io.envoyproxy.envoy.service.auth.v3.AttributeContext;
+import io.envoyproxy.envoy.service.auth.v3.AuthorizationGrpc;
+import io.envoyproxy.envoy.service.auth.v3.CheckRequest;
+import io.envoyproxy.envoy.service.auth.v3.CheckResponse;
+import io.envoyproxy.envoy.service.auth.v3.DeniedHttpResponse;
+import io.envoyproxy.envoy.service.auth.v3.OkHttpResponse;
+import io.envoyproxy.envoy.type.v3.HttpStatus;
+import io.envoyproxy.envoy.type.v3.StatusCode;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ============================================
+ * ENVOY EXT_AUTHZ (gRPC) VERIFY
+ * ============================================
+ *
+ * Native envoy.service.auth.v3.Authorization/Check implementation, served by
+ * ExtAuthzGrpcServer. Same pipeline and decision cache as GET /api/v1/verify/{persona}:
+ *
+ * - Persona: route-level context extension "persona" (check_settings.context_extensions),
+ *   falling back to authz.grpc.default-persona
+ * - Session: the persona's cookie, read from the check request's "cookie" header
+ * - Allowed: OK + OkHttpResponse overwriting x-user-id / x-user-email / x-user-info
+ *   upstream (client-supplied values never pass), Set-Cookie of refreshed cookie sessions
+ *   added to the downstream response
+ * - Denied: DeniedHttpResponse with the same status and JSON body as the HTTP API
+ */
+@Service
+@ConditionalOnProperty(name = "authz.grpc.enabled", havingValue = "true")
+public class ExtAuthzService extends AuthorizationGrpc.AuthorizationImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtAuthzService.class);
+
+    static final String PERSONA_EXTENSION = "persona";
+
+    private final AuthorizationService authorizationService;
+    private final ObjectMapper objectMapper;
+    private final String defaultPersona;
+
+    public ExtAuthzService(AuthorizationService authorizationService,
+                           ObjectMapper objectMapper,
+                           @Value("${authz.grpc.default-persona:}") String defaultPersona) {
+        this.authorizationService = authorizationService;
+        this.objectMapper = objectMapper;
+        this.defaultPersona = defaultPersona;
+    }
+
+    @Override
+    public void check(CheckRequest request, StreamObserver<CheckResponse> responseObserver) {
+        AttributeContext attributes = request.getAttributes();
+        String persona = attributes.getContextExtensionsMap().getOrDefault(PERSONA_EXTENSION, defaultPersona);
+        // Envoy lower-cases header names
+        String cookieHeader = attributes.getRequest().getHttp().getHeadersMap().get("cookie");
+
+        CheckResponse response;
+        try {
+            List<String> setCookies = new ArrayList<>(1);
+            // Only Set-Cookie concerns the client; edge-cache hints are for nginx auth_request
+            VerifyDecision decision = authorizationService.verifyPersonaAuthorization(persona,
+                    config -> AuthorizationService.cookieValue(cookieHeader, config.getSessionIdName()),
+                    (name, value) -> {
+                        if (HttpHeaders.SET_COOKIE.equalsIgnoreCase(name)) {
+                            setCookies.add(value);
+                        }
+                    });
+            response = allow(decision, setCookies);
+        } catch (AuthorizationService.AuthorizationException e) {
+            logger.warn("❌ [EXT-AUTHZ] Denied for persona {}: {}", persona, e.getMessage());
+            response = deny(e.getStatusCode(), e.getMessage(), persona);
+        } catch (Exception e) {
+            logger.error("❌ [EXT-AUTHZ] Unexpected error for persona: {}", persona, e);
+            response = deny(500, "Authorization failed", persona);
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private static CheckResponse allow(VerifyDecision decision, List<String> setCookies) {
+        OkHttpResponse.Builder ok = OkHttpResponse.newBuilder()
+                .addHeaders(header("x-user-id", decision.getUserId()))
+                .addHeaders(header("x-user-email", decision.getEmail()))
+                .addHeaders(header("x-user-info", decision.getUserInfoJson()));
+        for (String cookie : setCookies) {
+            ok.addResponseHeadersToAdd(HeaderValueOption.newBuilder()
+                    .setHeader(HeaderValue.newBuilder().setKey("set-cookie").setValue(cookie))
+                    .setAppendAction(HeaderValueOption.HeaderAppendAction.APPEND_IF_EXISTS_OR_ADD));
+        }
+        return CheckResponse.newBuilder()
+                .setStatus(Status.newBuilder().setCode(Code.OK_VALUE))
+                .setOkResponse(ok)
+                .build();
+    }
+
+    private CheckResponse deny(int statusCode, String message, String persona) {
+        StatusCode httpStatus = StatusCode.forNumber(statusCode);
+        Code code = switch (statusCode) {
+            case 401 -> Code.UNAUTHENTICATED;
+            case 400 -> Code.INVALID_ARGUMENT;
+            case 503 -> Code.UNAVAILABLE;
+            case 500 -> Code.INTERNAL;
+            default -> Code.PERMISSION_DENIED;
+        };
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(Map.of(
+                    "error", message,
+                    "persona", persona != null ? persona : "",
+                    "status", statusCode));
+        } catch (JsonProcessingException e) {
+            body = "";
+        }
+        return CheckResponse.newBuilder()
+                .setStatus(Status.newBuilder().setCode(code.getNumber()).setMessage(message))
+                .setDeniedResponse(DeniedHttpResponse.newBuilder()
+                        .setStatus(HttpStatus.newBuilder()
+                                .setCode(httpStatus != null ? httpStatus : StatusCode.Forbidden))
+                        .addHeaders(header("content-type", "application/json"))
+                        .setBody(body))
+                .build();
+    }
+
+    private static HeaderValueOption header(String name, String value) {
+        return HeaderValueOption.newBuilder()
+                .setHeader(HeaderValue.newBuilder().setKey(name).setValue(value != null ? value : ""))
+                .setAppendAction(HeaderValueOption.HeaderAppendAction.OVERWRITE_IF_EXISTS_OR_ADD)
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.gms_server.auth_app.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ============================================
+ * FILE-BASED COLD SESSION STORE
+ * ============================================
+ *
+ * One JSON file per session under session.tiering.file.directory, sharded
+ * by the first two characters of the session ID. Writes go to a temp file
+ * and are moved into place, so readers never see partial entries.
+ *
+ * Files hold refresh tokens: the directory is created owner-only (0700)
+ * and files are 0600 where the filesystem supports POSIX permissions.
+ * Local disk is only shared by instances on the same host - use it for
+ * single-node setups and testing.
+ */
+@Component
+@ConditionalOnProperty(name = "session.tiering.store", havingValue = "file", matchIfMissing = true)
+public class FileColdSessionStore implements ColdSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileColdSessionStore.class);
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+    public FileColdSessionStore(@Value("${session.tiering.file.directory:./data/cold-sessions}") String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void putAll(Map<String, ColdSession> sessions) {
+        for (Map.Entry<String, ColdSession> entry : sessions.entrySet()) {
+            Path target = fileFor(entry.getKey());
+            try {
+                createDirectories(target.getParent());
+                Path temp = Files.createTempFile(target.getParent(), ".cold", ".tmp");
+                restrict(temp, "rw-------");
+                Map<String, Object> content = new HashMap<>(4);
+                content.put("expiresAt", entry.getValue().expiresAt());
+                content.put("record", entry.getValue().record());
+                objectMapper.writeValue(temp.toFile(), content);
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to write cold session " + entry.getKey(), e);
+            }
+        }
+    }
+
+    @Override
+    public ColdSession get(String sessionId) {
+        return read(fileFor(sessionId), Instant.now().getEpochSecond());
+    }
+
+    /**
+     * Read an entry; expired entries are deleted and read as null
+     */
+    private ColdSession read(Path file, long nowEpochSeconds) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            Map<String, Object> content = objectMapper.readValue(file.toFile(), new TypeReference<>() {});
+            long expiresAt = ((Number) content.get("expiresAt")).longValue();
+            if (expiresAt <= nowEpochSeconds) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> record = (Map<String, Object>) content.get("record");
+            return new ColdSession(record, expiresAt);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("⚠️ [COLD-STORE] Unreadable cold session {}: {}", file.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> sessionIds) {
+        for (String sessionId : sessionIds) {
+            try {
+                Files.deleteIfExists(fileFor(sessionId));
+            } catch (IOException e) {
+                logger.warn("⚠️ [COLD-STORE] Failed to delete cold session: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public int purgeExpired(long nowEpochSeconds) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int removed = 0;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard, "*" + SUFFIX)) {
+                    for (Path file : files) {
+                        if (read(file, nowEpochSeconds) == null && !Files.exists(file)) {
+                            removed++;
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ [COLD-STORE] Purge failed: {}", e.getMessage());
+        }
+        return removed;
+    }
+
+    private Path fileFor(String sessionId) {
+        // Session IDs are base64url (+ '.'), so they are safe file names
+        String shard = sessionId.length() >= 2 ? sessionId.substring(0, 2) : "__";
+        return directory.resolve(shard).resolve(sessionId + SUFFIX);
+    }
+
+    private void createDirectories(Path shard) throws IOException {
+        if (Files.isDirectory(shard)) {
+            return;
+        }
+        if (!Files.isDirectory(directory)) {
+            Files.createDirectories(directory);
+            restrict(directory, "rwx------");
+        }
+        Files.createDirectories(shard);
+        restrict(shard, "rwx------");
+    }
+
+    private void restrict(Path path, String permissions) throws IOException {
+        if (posix) {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(permissions));
+        }
+    }
+}
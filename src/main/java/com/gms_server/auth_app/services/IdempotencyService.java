@@ -1,5 +1,6 @@
 package com.gms_server.auth_app.services;
 
+import com.gms_server.auth_app.utils.AuthMetrics;
 import com.gms_server.auth_app.utils.RedisService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,14 +33,16 @@ public class IdempotencyService {
     private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
 
     private final RedisService redisService;
+    private final AuthMetrics metrics;
 
     // Configuration
     private static final String IDEMPOTENCY_KEY_PREFIX = "idempotency:";
     private static final String PROCESSING_STATUS = "PROCESSING";
     private static final long TTL_MINUTES = 15;
 
-    public IdempotencyService(RedisService redisService) {
+    public IdempotencyService(RedisService redisService, AuthMetrics metrics) {
         this.redisService = redisService;
+        this.metrics = metrics;
         logger.info("✓ IdempotencyService initialized - TTL: {} minutes, Pattern: Stripe/AWS-style", TTL_MINUTES);
     }
 
@@ -70,8 +73,10 @@ public class IdempotencyService {
         if (Boolean.TRUE.equals(stored)) {
             logger.info("✅ FIRST REQUEST - Idempotency key initiated | Key: {} | Status: PROCESSING | TTL: {}min",
                     idempotencyKey, TTL_MINUTES);
+            metrics.idempotency("first");
         } else {
             logger.warn("⚠️ DUPLICATE REQUEST - Idempotency key already exists | Key: {}", idempotencyKey);
+            metrics.idempotency("duplicate");
         }
 
         return stored;
@@ -108,6 +113,7 @@ public class IdempotencyService {
         // Check if still processing
         if (PROCESSING_STATUS.equals(cachedData)) {
             logger.info("⏳ Request PROCESSING | Key: {}", idempotencyKey);
+            metrics.idempotency("processing");
             Map<String, Object> result = new HashMap<>();
             result.put("status", "PROCESSING");
             return result;
@@ -115,6 +121,7 @@ public class IdempotencyService {
 
         // Response completed - return cached data
         logger.info("✅ CACHED RESPONSE found | Key: {}", idempotencyKey);
+        metrics.idempotency("completed");
         Map<String, Object> result = new HashMap<>();
         result.put("status", "COMPLETED");
         result.put("response", cachedData);
@@ -155,9 +162,11 @@ public class IdempotencyService {
             redisService.setValueWithExpiry(redisKey, responseData, TTL_MINUTES, TimeUnit.MINUTES);
 
             logger.info("✅ Response STORED successfully | Key: {} | TTL: {}min", idempotencyKey, TTL_MINUTES);
+            metrics.idempotency("stored");
 
         } catch (Exception e) {
             logger.error("❌ Error storing response | Key: {} | Error: {}", idempotencyKey, e.getMessage(), e);
+            metrics.idempotency("store_failed");
         }
     }
 
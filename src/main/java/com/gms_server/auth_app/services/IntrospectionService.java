@@ -0,0 +1,145 @@
+package com.gms_server.auth_app.services;
+
+import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.utils.AuthMetrics;
+import com.gms_server.auth_app.utils.RedisService;
+import com.gms_server.auth_app.utils.SecureRandomGenerator;
+import com.gms_server.auth_app.utils.ZitadelApiService;
+import com.gms_server.auth_app.utils.ZitadelUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================
+ * TOKEN INTROSPECTION (opaque access tokens)
+ * ============================================
+ *
+ * Alternative to the userinfo path for personas with
+ * zitadel.personas.<persona>.token-validation=introspection:
+ * 1. Redis cache keyed by SHA-256(token), valid until the token's exp
+ * 2. Concurrent lookups for the same token share one in-flight call
+ * 3. Inactive tokens are cached briefly so a burst of retries stays local
+ *
+ * Returns the introspection claims with persona roles compiled
+ * (same role claims as userinfo), or null if the token is not active.
+ */
+@Service
+public class IntrospectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntrospectionService.class);
+
+    static final String KEY_PREFIX = "token:introspect:";
+
+    private final ZitadelApiService zitadelApiService;
+    private final RedisService redisService;
+    private final PersonaRegistry personaRegistry;
+    private final AuthMetrics metrics;
+    private final Map<String, CompletableFuture<CachedUserInfo>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${zitadel.introspection.max-cache-seconds:900}")
+    private long maxCacheSeconds;
+
+    @Value("${zitadel.introspection.inactive-cache-seconds:30}")
+    private long inactiveCacheSeconds;
+
+    public IntrospectionService(ZitadelApiService zitadelApiService, RedisService redisService,
+                                PersonaRegistry personaRegistry, AuthMetrics metrics) {
+        this.zitadelApiService = zitadelApiService;
+        this.redisService = redisService;
+        this.personaRegistry = personaRegistry;
+        this.metrics = metrics;
+    }
+
+    public CachedUserInfo introspect(String accessToken, PersonaConfig config) {
+        String key = KEY_PREFIX + SecureRandomGenerator.sha256Base64Url(accessToken);
+
+        Map<String, Object> cached = redisService.getValue(key, Map.class);
+        if (cached != null) {
+            logger.debug("Introspection cache hit (redis)");
+            if (Boolean.FALSE.equals(cached.get("active"))) {
+                metrics.userInfoCache("introspection", "inactive");
+                return null;
+            }
+            CachedUserInfo compiled = CachedUserInfo.fromCacheValue(cached);
+            if (compiled != null) {
+                metrics.userInfoCache("introspection", "hit");
+                return personaRegistry.current(compiled);
+            }
+        }
+
+        CompletableFuture<CachedUserInfo> call = new CompletableFuture<>();
+        CompletableFuture<CachedUserInfo> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            logger.debug("Introspection coalesced with in-flight call");
+            metrics.userInfoCache("introspection", "coalesced");
+            return join(existing);
+        }
+
+        try {
+            CachedUserInfo result = fetchAndCache(key, accessToken, config);
+            call.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private CachedUserInfo fetchAndCache(String key, String accessToken, PersonaConfig config) {
+        logger.info("Introspection cache miss — calling Zitadel");
+        metrics.userInfoCache("introspection", "miss");
+        Map<String, Object> response;
+        try {
+            response = zitadelApiService.introspectToken(accessToken, config).block();
+        } catch (ZitadelUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to introspect token: {}", e.getMessage());
+            return null;
+        }
+
+        if (response == null || !isActive(response)) {
+            redisService.setValueWithExpiry(key, Map.of("active", false), inactiveCacheSeconds, TimeUnit.SECONDS);
+            return null;
+        }
+
+        long ttl = maxCacheSeconds;
+        if (response.get("exp") instanceof Number exp) {
+            ttl = Math.min(ttl, exp.longValue() - System.currentTimeMillis() / 1000);
+        }
+        CachedUserInfo compiled = personaRegistry.compile(response);
+        if (ttl > 0) {
+            redisService.setValueWithExpiry(key, compiled.toCacheValue(), ttl, TimeUnit.SECONDS);
+        }
+        return compiled;
+    }
+
+    private static CachedUserInfo join(CompletableFuture<CachedUserInfo> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isActive(Map<String, Object> claims) {
+        return Boolean.TRUE.equals(claims.get("active"));
+    }
+
+    public void invalidateToken(String accessToken) {
+        redisService.delete(KEY_PREFIX + SecureRandomGenerator.sha256Base64Url(accessToken));
+    }
+}
@@ -0,0 +1,204 @@
+package com.gms_server.auth_app.services;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.configs.PersonaProperties;
+import com.gms_server.auth_app.utils.RedisService;
+import com.gms_server.auth_app.utils.SecureRandomGenerator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * ============================================
+ * PERSONA REGISTRY
+ * ============================================
+ *
+ * Holds every persona as an immutable PersonaConfig, resolved once:
+ * 1. Base definitions from zitadel.personas.<name>.* (application properties)
+ * 2. Optional Redis overlay: hash "persona:registry" (field = persona name,
+ *    value = definition map), polled via "persona:registry:version";
+ *    changes are picked up without a restart
+ *
+ * Lookup is allocation-free: exact HashMap hit first (names are stored
+ * lowercase), then a case-insensitive TreeMap for mixed-case input.
+ * Reloads swap the whole snapshot, so readers never see a partial update.
+ *
+ * Every persona gets an index; role claims are compiled once into a bitmask
+ * over these indexes (CachedUserInfo). The snapshot fingerprint (names +
+ * project IDs) is identical on all instances with the same configuration.
+ */
+@Service
+public class PersonaRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonaRegistry.class);
+
+    static final String REDIS_REGISTRY_KEY = "persona:registry";
+    static final String REDIS_VERSION_KEY = "persona:registry:version";
+    private static final String GLOBAL_ROLES_CLAIM = "urn:zitadel:iam:org:project:roles";
+
+    private final PersonaProperties personaProperties;
+    private final RedisService redisService;
+    private final ObjectMapper definitionMapper = new ObjectMapper()
+            .setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile String loadedRedisVersion;
+
+    @Value("${persona.registry.redis.enabled:false}")
+    private boolean redisOverlayEnabled;
+
+    public PersonaRegistry(PersonaProperties personaProperties, RedisService redisService) {
+        this.personaProperties = personaProperties;
+        this.redisService = redisService;
+    }
+
+    @PostConstruct
+    public void load() {
+        snapshot = buildSnapshot(Collections.emptyMap());
+        logger.info("⚙️ [CONFIG] Persona registry loaded {} personas: {}", snapshot.names.size(), snapshot.names);
+        if (redisOverlayEnabled) {
+            try {
+                refreshFromRedis();
+            } catch (Exception e) {
+                logger.warn("⚠️ [CONFIG] Redis persona overlay unavailable at startup: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Persona config for the given name (case-insensitive), or null if unknown
+     */
+    public PersonaConfig find(String persona) {
+        if (persona == null) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        PersonaConfig config = current.exact.get(persona);
+        return config != null ? config : current.caseInsensitive.get(persona);
+    }
+
+    public List<String> names() {
+        return snapshot.names;
+    }
+
+    /**
+     * Compile the persona roles contained in the claims into a bitmask.
+     * Persona i is granted if its name appears in the global or its project's role claim.
+     */
+    public CachedUserInfo compile(Map<String, Object> claims) {
+        Snapshot current = snapshot;
+        long[] roles = new long[(current.ordered.size() + 63) >>> 6];
+        Object globalRoles = claims.get(GLOBAL_ROLES_CLAIM);
+        for (PersonaConfig config : current.ordered) {
+            if (containsRole(globalRoles, config.getName())
+                    || containsRole(claims.get(config.getProjectRolesClaim()), config.getName())) {
+                roles[config.getIndex() >>> 6] |= 1L << config.getIndex();
+            }
+        }
+        return new CachedUserInfo(claims, roles, current.fingerprint);
+    }
+
+    /**
+     * Same instance if compiled against the current registry, otherwise recompiled
+     */
+    public CachedUserInfo current(CachedUserInfo cached) {
+        return cached.getRegistryFingerprint() == snapshot.fingerprint ? cached : compile(cached.getUserInfo());
+    }
+
+    private static boolean containsRole(Object roleClaim, String role) {
+        return roleClaim instanceof Map<?, ?> roles && roles.containsKey(role);
+    }
+
+    /**
+     * Poll the Redis overlay version; rebuild only when it changed
+     */
+    @Scheduled(fixedDelayString = "${persona.registry.redis.refresh-ms:30000}",
+            initialDelayString = "${persona.registry.redis.refresh-ms:30000}")
+    public void refreshFromRedis() {
+        if (!redisOverlayEnabled) {
+            return;
+        }
+        Object version = redisService.getValue(REDIS_VERSION_KEY, Object.class);
+        String versionString = version == null ? null : version.toString();
+        if (Objects.equals(versionString, loadedRedisVersion)) {
+            return;
+        }
+
+        Map<String, Object> overlay = redisService.hgetAll(REDIS_REGISTRY_KEY);
+        Map<String, PersonaProperties.Definition> definitions = new LinkedHashMap<>();
+        if (overlay != null) {
+            overlay.forEach((name, raw) -> {
+                try {
+                    definitions.put(name, definitionMapper.convertValue(raw, PersonaProperties.Definition.class));
+                } catch (IllegalArgumentException e) {
+                    logger.error("❌ [CONFIG] Invalid persona definition '{}' in Redis: {}", name, e.getMessage());
+                }
+            });
+        }
+
+        snapshot = buildSnapshot(definitions);
+        loadedRedisVersion = versionString;
+        logger.info("🔄 [CONFIG] Persona registry reloaded (version: {}, personas: {})", versionString, snapshot.names.size());
+    }
+
+    private Snapshot buildSnapshot(Map<String, PersonaProperties.Definition> overlay) {
+        Map<String, PersonaProperties.Definition> merged = new LinkedHashMap<>(personaProperties.getPersonas());
+        merged.putAll(overlay);
+
+        Map<String, PersonaConfig> exact = new HashMap<>(merged.size() * 2);
+        TreeMap<String, PersonaConfig> caseInsensitive = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<PersonaConfig> ordered = new ArrayList<>(merged.size());
+        List<String> names = new ArrayList<>(merged.size());
+        StringBuilder fingerprintSource = new StringBuilder();
+
+        for (Map.Entry<String, PersonaProperties.Definition> entry : merged.entrySet()) {
+            String name = entry.getKey().trim().toLowerCase();
+            PersonaProperties.Definition definition = entry.getValue();
+            if (definition.getIssuer() == null || definition.getIssuer().isBlank()) {
+                logger.error("❌ [CONFIG] Persona '{}' has no issuer - skipped", name);
+                continue;
+            }
+            if (exact.containsKey(name)) {
+                logger.error("❌ [CONFIG] Duplicate persona '{}' - skipped", name);
+                continue;
+            }
+            PersonaConfig config = new PersonaConfig(name, ordered.size(), definition);
+            exact.put(name, config);
+            caseInsensitive.put(name, config);
+            ordered.add(config);
+            names.add(name);
+            fingerprintSource.append(name).append(':').append(config.getProjectId()).append('\n');
+        }
+
+        byte[] digest = SecureRandomGenerator.sha256(fingerprintSource.toString().getBytes(StandardCharsets.UTF_8));
+        long fingerprint = ByteBuffer.wrap(digest).getLong();
+        return new Snapshot(exact, caseInsensitive, List.copyOf(ordered), List.copyOf(names), fingerprint);
+    }
+
+    private record Snapshot(Map<String, PersonaConfig> exact,
+                            TreeMap<String, PersonaConfig> caseInsensitive,
+                            List<PersonaConfig> ordered,
+                            List<String> names,
+                            long fingerprint) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), new TreeMap<>(String.CASE_INSENSITIVE_ORDER),
+                List.of(), List.of(), 0L);
+    }
+}
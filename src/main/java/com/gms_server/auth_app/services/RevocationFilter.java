@@ -0,0 +1,262 @@
+package com.gms_server.auth_app.services;
+
+import com.gms_server.auth_app.utils.RedisService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ============================================
+ * SESSION REVOCATION FILTER (cookie session mode)
+ * ============================================
+ *
+ * Locally replicated set of revoked session IDs, so checking a stateless
+ * session cookie needs no network I/O:
+ * 1. Bloom filter - almost every lookup (not revoked) ends here
+ * 2. Exact set   - confirms Bloom hits (no false positives)
+ *
+ * Source of truth is the Redis sorted set "session:revoked"
+ * (member = session ID, score = session expiry, epoch seconds):
+ * - full resync on a schedule (also prunes expired revocations)
+ * - new revocations are pushed immediately over pub/sub
+ *   (message: one "sessionId:expiry" per line)
+ *
+ * Local adds and the resync swap share a lock (adds are rare, lookups stay
+ * lock-free); adds made while a resync is reading Redis are buffered and
+ * replayed into the fresh replica before it is swapped in.
+ *
+ * Fails closed: until the first resync succeeds (e.g. Redis down at startup)
+ * isSynced() is false and cookie sessions are refused with 503, since an empty
+ * replica would accept every revoked cookie.
+ */
+@Service
+public class RevocationFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationFilter.class);
+
+    static final String REVOKED_KEY = "session:revoked";
+    static final String REVOKED_CHANNEL = "session:revoked:events";
+
+    private final RedisService redisService;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final boolean enabled;
+    private final int bloomBits;
+
+    /**
+     * Bloom filter and exact set are swapped together on resync
+     */
+    private volatile Replica replica;
+
+    /**
+     * Revocations added during a resync (guarded by this); null when none runs
+     */
+    private Map<String, Long> pendingAdds;
+
+    /**
+     * Set once a resync has loaded the revocations from Redis
+     */
+    private volatile boolean synced;
+
+    public RevocationFilter(RedisService redisService,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${session.mode:redis}") String sessionMode,
+                            @Value("${session.revocation.bloom-bits:1048576}") int bloomBits) {
+        this.redisService = redisService;
+        this.listenerContainer = listenerContainer;
+        this.enabled = SessionService.MODE_COOKIE.equalsIgnoreCase(sessionMode);
+        this.bloomBits = bloomBits;
+        this.replica = new Replica(bloomBits);
+        this.synced = !enabled;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        listenerContainer.addMessageListener((message, pattern) -> {
+            for (String line : new String(message.getBody(), StandardCharsets.UTF_8).split("\n")) {
+                String[] parts = line.split(":", 2);
+                if (parts.length == 2) {
+                    addLocal(parts[0], Long.parseLong(parts[1]));
+                }
+            }
+        }, new ChannelTopic(REVOKED_CHANNEL));
+        try {
+            resync();
+        } catch (Exception e) {
+            logger.error("❌ [REVOCATION] Initial revocation sync failed, cookie sessions refused until a sync "
+                    + "succeeds (retrying on schedule): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * True once the replica reflects Redis (always true when disabled)
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * True if the session ID was revoked (and the revocation has not expired)
+     */
+    public boolean isRevoked(String sessionId) {
+        return enabled && replica.contains(sessionId);
+    }
+
+    /**
+     * Revoke a session until its own expiry; replicated to all instances
+     */
+    public void revoke(String sessionId, long expiresAtEpochSeconds) {
+        if (!enabled) {
+            return;
+        }
+        addLocal(sessionId, expiresAtEpochSeconds);
+        redisService.zadd(REVOKED_KEY, sessionId, expiresAtEpochSeconds);
+        try {
+            redisService.publish(REVOKED_CHANNEL, sessionId + ":" + expiresAtEpochSeconds);
+        } catch (Exception e) {
+            logger.warn("⚠️ [REVOCATION] Failed to broadcast revocation, other instances pick it up on resync: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Revoke many sessions (sessionId → expiry) with one pipeline and one broadcast
+     */
+    public void revokeAll(Map<String, Long> sessions) {
+        if (!enabled || sessions.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        sessions.forEach((sessionId, expiresAt) -> {
+            addLocal(sessionId, expiresAt);
+            message.append(sessionId).append(':').append(expiresAt).append('\n');
+        });
+        redisService.executePipelined(ops -> sessions.forEach((sessionId, expiresAt) ->
+                ops.opsForZSet().add(REVOKED_KEY, sessionId, expiresAt)));
+        try {
+            redisService.publish(REVOKED_CHANNEL, message.toString());
+        } catch (Exception e) {
+            logger.warn("⚠️ [REVOCATION] Failed to broadcast revocations, other instances pick them up on resync: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the local replica from Redis, dropping expired revocations
+     */
+    @Scheduled(fixedDelayString = "${session.revocation.sync-ms:30000}",
+            initialDelayString = "${session.revocation.sync-ms:30000}")
+    public void resync() {
+        if (!enabled) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        synchronized (this) {
+            pendingAdds = new HashMap<>();
+        }
+        Replica fresh = new Replica(bloomBits);
+        try {
+            redisService.zremrangeByScore(REVOKED_KEY, Double.NEGATIVE_INFINITY, now);
+            Set<ZSetOperations.TypedTuple<Object>> revoked =
+                    redisService.zrangeByScoreWithScores(REVOKED_KEY, now, Double.POSITIVE_INFINITY);
+            if (revoked != null) {
+                for (ZSetOperations.TypedTuple<Object> entry : revoked) {
+                    if (entry.getValue() != null && entry.getScore() != null) {
+                        fresh.add(entry.getValue().toString(), entry.getScore().longValue());
+                    }
+                }
+            }
+            synchronized (this) {
+                // Revocations that arrived via pub/sub (or locally) while the snapshot was read
+                pendingAdds.forEach(fresh::add);
+                replica = fresh;
+            }
+            if (!synced) {
+                synced = true;
+                logger.info("✅ [REVOCATION] Initial revocation sync done, accepting cookie sessions");
+            }
+        } finally {
+            synchronized (this) {
+                pendingAdds = null;
+            }
+        }
+        logger.debug("🔄 [REVOCATION] Replica synced: {} revoked sessions", fresh.exact.size());
+    }
+
+    private synchronized void addLocal(String sessionId, long expiresAt) {
+        replica.add(sessionId, expiresAt);
+        if (pendingAdds != null) {
+            pendingAdds.put(sessionId, expiresAt);
+        }
+    }
+
+    /**
+     * Bloom filter (double hashing, 4 probes) + exact map of sessionId → expiry
+     */
+    static final class Replica {
+
+        private static final int PROBES = 4;
+
+        private final AtomicLongArray bits;
+        private final int bitCount;
+        final Map<String, Long> exact = new ConcurrentHashMap<>();
+
+        Replica(int bitCount) {
+            this.bitCount = Math.max(64, bitCount);
+            this.bits = new AtomicLongArray((this.bitCount + 63) >>> 6);
+        }
+
+        void add(String sessionId, long expiresAt) {
+            exact.put(sessionId, expiresAt);
+            int h1 = sessionId.hashCode();
+            int h2 = mix(h1);
+            for (int i = 0; i < PROBES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean contains(String sessionId) {
+            int h1 = sessionId.hashCode();
+            int h2 = mix(h1);
+            for (int i = 0; i < PROBES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            Long expiresAt = exact.get(sessionId);
+            return expiresAt != null && expiresAt > Instant.now().getEpochSecond();
+        }
+
+        private static int mix(int h) {
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h | 1;
+        }
+    }
+}
@@ -0,0 +1,729 @@
+package com.gms_server.auth_app.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.utils.RedisService;
+import com.gms_server.auth_app.utils.SecretKeyProvider;
+import com.gms_server.auth_app.utils.SecureRandomGenerator;
+import com.gms_server.auth_app.utils.SessionIdSigner;
+import com.nimbusds.jose.CompressionAlgorithm;
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.crypto.DirectDecrypter;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================
+ * SESSION STORAGE
+ * ============================================
+ *
+ * Single place that creates, resolves, updates and revokes login sessions.
+ *
+ * MODES (session.mode):
+ * - redis  (default) cookie = random session ID, tokens in Redis under session:<id>
+ * - cookie           cookie = compact JWE (dir + A256GCM, DEFLATE) carrying the
+ *                    tokens, persona, session ID and expiry. Verify needs no Redis
+ *                    read; Redis only holds revocations (RevocationFilter).
+ *                    Refreshed tokens are re-sealed and returned as a new cookie.
+ *
+ * The JWE key is derived from auth.secret, so all instances can open each
+ * other's cookies.
+ *
+ * JUNK COOKIE SHIELD (redis mode):
+ * - Session IDs are HMAC-signed with their issue time (SessionIdSigner):
+ *   forged or expired IDs are rejected without a Redis round-trip
+ * - Well-formed IDs that turn out to be missing go into a short-TTL
+ *   negative cache, so replays of the same dead cookie stay in memory
+ *
+ * SLIDING EXPIRY (redis mode, session.idle-timeout-minutes > 0):
+ * the session key lives idle-timeout after its last use, never past
+ * session.ttl.days from login (absolute limit, stored in the session record).
+ * Touches are coalesced and flushed in batches by SessionTouchBuffer.
+ * Cookie mode keeps the absolute expiry sealed into the cookie.
+ *
+ * COLD TIERING (redis mode, session.tiering.enabled): idle sessions are moved
+ * to a ColdSessionStore and promoted back on use (SessionTiering).
+ *
+ * USER INDEX (both modes):
+ * session:user:<userId>:<persona> is a sorted set of the user's session IDs
+ * (score = session expiry), written in the same MULTI/EXEC as the session
+ * itself. Bulk revocation reads it instead of scanning the keyspace.
+ * session:idp:<sid>:<persona> indexes the same way by the IdP session (id_token
+ * sid), so a back-channel logout ends only the sessions of that IdP session.
+ */
+@Service
+public class SessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionService.class);
+
+    public static final String MODE_REDIS = "redis";
+    public static final String MODE_COOKIE = "cookie";
+
+    /**
+     * Field in the session record (and claim-derived token map) holding the user ID
+     */
+    public static final String USER_ID_FIELD = "user_id";
+
+    /**
+     * Field in the session record holding its absolute expiry (login + session.ttl.days), epoch seconds
+     */
+    static final String EXPIRES_AT_FIELD = "session_expires_at";
+
+    static final String SESSION_KEY_PREFIX = "session:";
+    private static final String USER_INDEX_KEY_PREFIX = "session:user:";
+    private static final String IDP_INDEX_KEY_PREFIX = "session:idp:";
+    private static final String CLAIM_USER_ID = "sub";
+    private static final String CLAIM_PERSONA = "per";
+    private static final String CLAIM_ACCESS_TOKEN = "at";
+    private static final String CLAIM_REFRESH_TOKEN = "rt";
+    private static final int MAX_COOKIE_LENGTH = 4000;
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    private final RedisService redisService;
+    private final SecretKeyProvider secretKeyProvider;
+    private final RevocationFilter revocationFilter;
+    private final SessionIdSigner sessionIdSigner;
+    private final TokenRevocationQueue tokenRevocationQueue;
+    private final SessionTouchBuffer touchBuffer;
+    private final SessionTiering sessionTiering;
+
+    /**
+     * Session IDs recently looked up and found missing in Redis
+     */
+    private final Cache<String, Boolean> missingSessions;
+
+    /**
+     * Absolute expiry of sessions recently loaded here, so touches from decision cache
+     * hits (no record at hand) stay capped too
+     */
+    private final Cache<String, Long> sessionExpiries;
+
+    @Value("${session.mode:redis}")
+    private String sessionMode;
+
+    @Value("${session.ttl.days:7}")
+    private int sessionTtlDays;
+
+    /**
+     * Idle timeout (sliding expiry); 0 = sessions live session.ttl.days regardless of use
+     */
+    @Value("${session.idle-timeout-minutes:0}")
+    private long idleTimeoutMinutes;
+
+    /**
+     * Accept legacy UUID session IDs (issued before signing existed) while signing is on.
+     * Disable once all pre-signing sessions have expired (session.ttl.days).
+     */
+    @Value("${session.id.accept-unsigned:true}")
+    private boolean acceptUnsigned;
+
+    @Value("${cookie.secure:false}")
+    private boolean cookieSecure;
+
+    @Value("${cookie.same-site:Strict}")
+    private String cookieSameSite;
+
+    private boolean cookieMode;
+    private DirectEncrypter encrypter;
+    private DirectDecrypter decrypter;
+
+    public SessionService(RedisService redisService, SecretKeyProvider secretKeyProvider,
+                          RevocationFilter revocationFilter, SessionIdSigner sessionIdSigner,
+                          TokenRevocationQueue tokenRevocationQueue, SessionTouchBuffer touchBuffer,
+                          SessionTiering sessionTiering,
+                          @Value("${session.negative-cache.ttl-seconds:30}") long negativeTtlSeconds,
+                          @Value("${session.negative-cache.max-entries:100000}") long negativeMaxEntries,
+                          @Value("${session.touch.max-entries:200000}") long expiryMaxEntries) {
+        this.redisService = redisService;
+        this.secretKeyProvider = secretKeyProvider;
+        this.revocationFilter = revocationFilter;
+        this.sessionIdSigner = sessionIdSigner;
+        this.tokenRevocationQueue = tokenRevocationQueue;
+        this.touchBuffer = touchBuffer;
+        this.sessionTiering = sessionTiering;
+        this.missingSessions = Caffeine.newBuilder()
+                .maximumSize(negativeMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(negativeTtlSeconds))
+                .build();
+        this.sessionExpiries = Caffeine.newBuilder()
+                .maximumSize(expiryMaxEntries)
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (MODE_COOKIE.equalsIgnoreCase(sessionMode)) {
+            if (!secretKeyProvider.isConfigured()) {
+                throw new IllegalStateException("session.mode=cookie requires auth.secret to be configured");
+            }
+            try {
+                byte[] key = secretKeyProvider.deriveKey("session-cookie");
+                encrypter = new DirectEncrypter(key);
+                decrypter = new DirectDecrypter(key);
+            } catch (JOSEException e) {
+                throw new IllegalStateException("Invalid session cookie key", e);
+            }
+            cookieMode = true;
+        } else if (!MODE_REDIS.equalsIgnoreCase(sessionMode)) {
+            throw new IllegalStateException("Unsupported session.mode: " + sessionMode);
+        }
+        logger.info("⚙️ [CONFIG] Session mode: {}, idle timeout: {}", cookieMode ? MODE_COOKIE : MODE_REDIS,
+                !cookieMode && idleTimeoutMinutes > 0 ? idleTimeoutMinutes + " min" : "off");
+    }
+
+    /**
+     * False while cookie sessions cannot be checked for revocation yet (no revocation
+     * sync has succeeded since startup); callers answer 503 instead of resolving
+     */
+    public boolean isReady() {
+        return !cookieMode || revocationFilter.isSynced();
+    }
+
+    public long getTtlSeconds() {
+        return (long) sessionTtlDays * SECONDS_PER_DAY;
+    }
+
+    /**
+     * Create a session for freshly issued tokens; returns the cookie value
+     *
+     * @param idpSessionId IdP session (id_token sid) for back-channel logout; null if unknown
+     */
+    public String create(PersonaConfig config, String userId, String idpSessionId, Map<String, Object> tokens) {
+        String sessionId = sessionIdSigner.issue();
+        long expiresAt = Instant.now().getEpochSecond() + getTtlSeconds();
+        String indexKey = userIndexKey(userId, config.getName());
+        String idpIndexKey = idpIndexKey(idpSessionId, config.getName());
+        if (cookieMode) {
+            String value = seal(sessionId, config.getName(), userId, tokens, expiresAt);
+            redisService.executeInTransaction(ops -> {
+                index(ops, indexKey, sessionId, expiresAt);
+                index(ops, idpIndexKey, sessionId, expiresAt);
+            });
+            return value;
+        }
+        Map<String, Object> record = sessionRecord(userId, tokens, expiresAt);
+        redisService.executeInTransaction(ops -> {
+            ops.opsForValue().set(SESSION_KEY_PREFIX + sessionId, record, Duration.ofSeconds(keyTtlSeconds(expiresAt)));
+            index(ops, indexKey, sessionId, expiresAt);
+            index(ops, idpIndexKey, sessionId, expiresAt);
+            sessionTiering.track(ops, sessionId);
+        });
+        return sessionId;
+    }
+
+    /**
+     * Resolve a cookie value to a session reference.
+     * Cookie mode: decrypts, checks expiry, persona and revocation (all in memory) - null if invalid.
+     * Redis mode: the cookie value is the session ID; its signature and the negative
+     * cache are checked in memory (null if rejected), tokens are loaded lazily.
+     * Nothing is written here: a session counts as used once it is loaded or
+     * answered from the decision cache (touch()).
+     */
+    public SessionRef resolve(PersonaConfig config, String cookieValue) {
+        if (!cookieMode) {
+            SessionIdSigner.Result result = sessionIdSigner.verify(cookieValue, getTtlSeconds());
+            if (result == SessionIdSigner.Result.INVALID
+                    || (result == SessionIdSigner.Result.UNSIGNED && sessionIdSigner.isEnabled() && !acceptUnsigned)) {
+                logger.debug("🚫 [SESSION] Session ID rejected without lookup ({})", result);
+                return null;
+            }
+            if (missingSessions.getIfPresent(cookieValue) != null) {
+                logger.debug("🚫 [SESSION] Session ID in negative cache");
+                return null;
+            }
+            return new SessionRef(cookieValue, null, 0);
+        }
+        try {
+            EncryptedJWT jwt = EncryptedJWT.parse(cookieValue);
+            jwt.decrypt(decrypter);
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+
+            Date expiresAt = claims.getExpirationTime();
+            if (expiresAt == null || expiresAt.toInstant().isBefore(Instant.now())) {
+                logger.debug("⏰ [SESSION] Session cookie expired");
+                return null;
+            }
+            if (!config.getName().equals(claims.getStringClaim(CLAIM_PERSONA))) {
+                logger.warn("⚠️ [SESSION] Session cookie issued for another persona");
+                return null;
+            }
+            String sessionId = claims.getJWTID();
+            if (sessionId == null || revocationFilter.isRevoked(sessionId)) {
+                logger.info("🚫 [SESSION] Revoked session cookie presented");
+                return null;
+            }
+
+            Map<String, Object> tokens = new HashMap<>(4);
+            tokens.put("access_token", claims.getStringClaim(CLAIM_ACCESS_TOKEN));
+            tokens.put("refresh_token", claims.getStringClaim(CLAIM_REFRESH_TOKEN));
+            tokens.put(USER_ID_FIELD, claims.getSubject());
+            return new SessionRef(sessionId, tokens, expiresAt.toInstant().getEpochSecond());
+        } catch (Exception e) {
+            logger.debug("⚠️ [SESSION] Invalid session cookie: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Tokens of the session (plus USER_ID_FIELD), or null if it no longer exists
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> loadTokens(SessionRef session) {
+        if (session.tokens() != null) {
+            return session.tokens();
+        }
+        Map<String, Object> tokens = redisService.getValue(SESSION_KEY_PREFIX + session.id(), Map.class);
+        if (tokens != null && SessionTiering.isStub(tokens)) {
+            tokens = sessionTiering.promote(session.id());
+        }
+        if (tokens == null) {
+            missingSessions.put(session.id(), Boolean.TRUE);
+        } else {
+            touch(session.id(), expiresAt(session.id(), tokens));
+        }
+        return tokens;
+    }
+
+    /**
+     * Tokens of several sessions: sessionId → tokens (plus USER_ID_FIELD).
+     * Redis mode reads all records with one MGET; sessions that no longer exist are absent.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<String, Object>> loadTokensAll(Collection<SessionRef> sessions) {
+        Map<String, Map<String, Object>> loaded = new HashMap<>();
+        Set<String> pending = new LinkedHashSet<>();
+        for (SessionRef session : sessions) {
+            if (session.tokens() != null) {
+                loaded.put(session.id(), session.tokens());
+            } else {
+                pending.add(session.id());
+            }
+        }
+        if (pending.isEmpty()) {
+            return loaded;
+        }
+        List<String> sessionIds = new ArrayList<>(pending);
+        List<String> keys = new ArrayList<>(sessionIds.size());
+        sessionIds.forEach(id -> keys.add(SESSION_KEY_PREFIX + id));
+        List<Object> values = redisService.multiGet(keys);
+        for (int i = 0; i < sessionIds.size(); i++) {
+            String sessionId = sessionIds.get(i);
+            Map<String, Object> tokens = values.get(i) instanceof Map<?, ?> value ? (Map<String, Object>) value : null;
+            if (tokens != null && SessionTiering.isStub(tokens)) {
+                tokens = sessionTiering.promote(sessionId);
+            }
+            if (tokens == null) {
+                missingSessions.put(sessionId, Boolean.TRUE);
+            } else {
+                loaded.put(sessionId, tokens);
+                touch(sessionId, expiresAt(sessionId, tokens));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Record a use of a session known to exist (redis mode): sliding expiry and
+     * last-use tracking, buffered and flushed in batches (no write on the verify path).
+     * The TTL is only extended when the session's absolute expiry is known here (or
+     * from a signed ID); otherwise the next load extends it - decision cache entries are short-lived.
+     */
+    public void touch(SessionRef session) {
+        Long expiresAt = sessionExpiries.getIfPresent(session.id());
+        if (expiresAt == null) {
+            long issuedAt = sessionIdSigner.issuedAt(session.id());
+            expiresAt = issuedAt > 0 ? issuedAt + getTtlSeconds() : 0;
+        }
+        touch(session.id(), expiresAt);
+    }
+
+    private void touch(String sessionId, long expiresAt) {
+        if (!cookieMode && (idleTimeoutMinutes > 0 || sessionTiering.isEnabled())) {
+            touchBuffer.touch(sessionId, idleTimeoutMinutes > 0 && expiresAt > 0 ? keyTtlSeconds(expiresAt) : 0);
+        }
+    }
+
+    /**
+     * Store refreshed tokens. Returns the new cookie value in cookie mode
+     * (the caller must send it to the client), null in Redis mode.
+     *
+     * Redis mode rewrites the record only while it still exists (WATCH ... MULTI ... EXEC),
+     * so a refresh racing a logout or revocation cannot bring the session back.
+     *
+     * @throws SessionEndedException if the session was ended meanwhile; the new refresh
+     *                               token is then queued for revocation at the IdP
+     */
+    @SuppressWarnings("unchecked")
+    public String updateTokens(PersonaConfig config, SessionRef session, String userId, Map<String, Object> tokens) {
+        if (cookieMode) {
+            if (revocationFilter.isRevoked(session.id())) {
+                discardRefreshed(config, session.id(), tokens);
+            }
+            return seal(session.id(), config.getName(), userId, tokens, session.expiresAt());
+        }
+        String key = SESSION_KEY_PREFIX + session.id();
+        String indexKey = userIndexKey(userId, config.getName());
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            Boolean stored = redisService.executeInSession(ops -> {
+                ops.watch(key);
+                Object current = ops.opsForValue().get(key);
+                if (!(current instanceof Map<?, ?> existing) || SessionTiering.isStub(existing)) {
+                    ops.unwatch();
+                    // Demoted meanwhile: promote, then write over the full record
+                    return current == null ? Boolean.FALSE : null;
+                }
+                // Sliding expiry keeps the absolute limit from login; without it a refresh
+                // starts a new session.ttl.days period
+                long expiresAt = idleTimeoutMinutes > 0
+                        ? expiresAt(session.id(), (Map<String, Object>) existing)
+                        : Instant.now().getEpochSecond() + getTtlSeconds();
+                sessionExpiries.put(session.id(), expiresAt);
+                ops.multi();
+                ops.opsForValue().set(key, sessionRecord(userId, tokens, expiresAt),
+                        Duration.ofSeconds(keyTtlSeconds(expiresAt)));
+                index(ops, indexKey, session.id(), expiresAt);
+                sessionTiering.track(ops, session.id());
+                List<Object> result = ops.exec();
+                // Empty: the key changed under WATCH (touch, demotion, revocation) - re-check
+                return result != null && !result.isEmpty() ? Boolean.TRUE : null;
+            });
+            if (stored != null) {
+                if (!stored) {
+                    discardRefreshed(config, session.id(), tokens);
+                }
+                touchBuffer.forget(session.id());
+                return null;
+            }
+            Map<String, Object> current = redisService.getValue(key, Map.class);
+            if (current != null && SessionTiering.isStub(current)) {
+                sessionTiering.promote(session.id());
+            }
+        }
+        throw new IllegalStateException("Session " + session.id() + " kept changing while storing refreshed tokens");
+    }
+
+    /**
+     * The session ended while its tokens were being refreshed: drop the new tokens
+     * (their refresh token is revoked upstream like the old one) and report it
+     */
+    private void discardRefreshed(PersonaConfig config, String sessionId, Map<String, Object> tokens) {
+        missingSessions.put(sessionId, Boolean.TRUE);
+        if (tokens.get("refresh_token") instanceof String refreshToken) {
+            tokenRevocationQueue.enqueue(config.getName(), refreshToken);
+        }
+        logger.info("🚫 [SESSION] Session {} ended during token refresh, refreshed tokens dropped", sessionId);
+        throw new SessionEndedException(sessionId);
+    }
+
+    /**
+     * End the session and queue its refresh token for revocation at the IdP.
+     * Returns the session ID (for cache invalidation), or null if the cookie was invalid.
+     */
+    public String revoke(PersonaConfig config, String cookieValue) {
+        SessionRef session = resolve(config, cookieValue);
+        if (session == null) {
+            return null;
+        }
+        // Read only: a demoted session is not promoted (or touched) just to be deleted
+        Map<String, Object> tokens = cookieMode ? session.tokens() : peekTokens(session.id());
+        String indexKey = tokens != null ? userIndexKey((String) tokens.get(USER_ID_FIELD), config.getName()) : null;
+        if (cookieMode) {
+            revocationFilter.revoke(session.id(), session.expiresAt());
+            if (indexKey != null) {
+                redisService.executeInTransaction(ops -> ops.opsForZSet().remove(indexKey, session.id()));
+            }
+        } else {
+            List<Object> results = redisService.executeInTransaction(ops -> {
+                ops.delete(SESSION_KEY_PREFIX + session.id());
+                if (indexKey != null) {
+                    ops.opsForZSet().remove(indexKey, session.id());
+                }
+            });
+            missingSessions.put(session.id(), Boolean.TRUE);
+            touchBuffer.forget(session.id());
+            sessionTiering.forget(List.of(session.id()));
+            logger.info("💾 [SESSION] Session deleted from Redis: {}, success: {}", session.id(),
+                    results != null && !results.isEmpty() ? results.get(0) : null);
+        }
+        if (tokens != null && tokens.get("refresh_token") instanceof String refreshToken) {
+            tokenRevocationQueue.enqueue(config.getName(), refreshToken);
+        }
+        return session.id();
+    }
+
+    /**
+     * Session record without side effects: demoted sessions are read from the cold store
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> peekTokens(String sessionId) {
+        Map<String, Object> record = redisService.getValue(SESSION_KEY_PREFIX + sessionId, Map.class);
+        return record != null && SessionTiering.isStub(record) ? sessionTiering.peek(sessionId) : record;
+    }
+
+    /**
+     * End every live session of a user for the given personas (account compromise, role removal).
+     * Reads the user index, then deletes sessions, their cached token validations and the
+     * index itself in one pipeline (cookie mode: one batched revocation instead).
+     *
+     * @param revokeUpstream Also queue the refresh tokens for revocation at the IdP
+     *                       (false when the IdP itself initiated the logout)
+     * @return Number of sessions revoked
+     */
+    public int revokeUserSessions(String userId, List<String> personas, boolean revokeUpstream) {
+        List<String> indexKeys = new ArrayList<>(personas.size());
+        for (String persona : personas) {
+            indexKeys.add(userIndexKey(userId, persona));
+        }
+        Set<String> revoked = revokeIndexed(indexKeys, personas, null, revokeUpstream);
+        logger.info("🚫 [SESSION] Revoked {} sessions of user {} (personas: {})", revoked.size(), userId, personas);
+        return revoked.size();
+    }
+
+    /**
+     * End the sessions created under one IdP session (back-channel logout with sid).
+     * Refresh tokens are not revoked upstream - the IdP ended them itself.
+     *
+     * @param userId Owner (logout token sub) whose user index is cleaned up too; may be null
+     * @return IDs of the sessions revoked
+     */
+    public Set<String> revokeIdpSession(PersonaConfig config, String idpSessionId, String userId) {
+        Set<String> revoked = revokeIndexed(List.of(idpIndexKey(idpSessionId, config.getName())),
+                List.of(config.getName()), userIndexKey(userId, config.getName()), false);
+        logger.info("🚫 [SESSION] Revoked {} sessions of IdP session {} (persona: {})", revoked.size(),
+                idpSessionId, config.getName());
+        return revoked;
+    }
+
+    /**
+     * Revoke the live sessions listed in the index keys (one per persona, same order) and
+     * delete the indexes; their members are also removed from unindexKey if given
+     */
+    private Set<String> revokeIndexed(List<String> indexKeys, List<String> personas, String unindexKey,
+                                      boolean revokeUpstream) {
+        long now = Instant.now().getEpochSecond();
+
+        // 1. Live session IDs of all personas (one round-trip)
+        Map<String, Long> sessions = new LinkedHashMap<>();
+        Map<String, String> sessionPersonas = new HashMap<>();
+        List<Object> ranges = redisService.executePipelined(ops -> indexKeys.forEach(key ->
+                ops.opsForZSet().rangeByScoreWithScores(key, now, Double.POSITIVE_INFINITY)));
+        for (int i = 0; i < ranges.size(); i++) {
+            if (ranges.get(i) instanceof Set<?> entries) {
+                for (Object entry : entries) {
+                    if (entry instanceof ZSetOperations.TypedTuple<?> tuple
+                            && tuple.getValue() != null && tuple.getScore() != null) {
+                        sessions.put(tuple.getValue().toString(), tuple.getScore().longValue());
+                        sessionPersonas.put(tuple.getValue().toString(), personas.get(i));
+                    }
+                }
+            }
+        }
+
+        Object[] members = sessions.keySet().toArray();
+        if (cookieMode) {
+            // 2a. Tokens live in the cookies: revoke the IDs everywhere in one batch
+            revocationFilter.revokeAll(sessions);
+            redisService.executePipelined(ops -> {
+                ops.delete(indexKeys);
+                unindex(ops, unindexKey, members);
+            });
+        } else {
+            // 2b. Access tokens of the sessions (one MGET) → cached validations to drop
+            List<String> sessionIds = new ArrayList<>(sessions.keySet());
+            List<String> sessionKeys = new ArrayList<>(sessionIds.size());
+            sessionIds.forEach(id -> sessionKeys.add(SESSION_KEY_PREFIX + id));
+            List<String> doomed = new ArrayList<>(sessionKeys);
+            Map<String, List<String>> refreshTokens = new HashMap<>();
+            if (!sessionKeys.isEmpty()) {
+                List<Object> records = redisService.executePipelined(ops -> ops.opsForValue().multiGet(sessionKeys));
+                if (!records.isEmpty() && records.get(0) instanceof List<?> values) {
+                    for (int i = 0; i < values.size(); i++) {
+                        if (!(values.get(i) instanceof Map<?, ?> stored)) {
+                            continue;
+                        }
+                        // Demoted sessions: tokens are in the cold store
+                        Map<?, ?> record = SessionTiering.isStub(stored) ? sessionTiering.peek(sessionIds.get(i)) : stored;
+                        if (record == null) {
+                            continue;
+                        }
+                        if (record.get("access_token") instanceof String accessToken) {
+                            String tokenHash = SecureRandomGenerator.sha256Base64Url(accessToken);
+                            doomed.add(CachingService.USERINFO_KEY_PREFIX + tokenHash);
+                            doomed.add(IntrospectionService.KEY_PREFIX + tokenHash);
+                        }
+                        if (record.get("refresh_token") instanceof String refreshToken) {
+                            refreshTokens.computeIfAbsent(sessionPersonas.get(sessionIds.get(i)), p -> new ArrayList<>())
+                                    .add(refreshToken);
+                        }
+                    }
+                }
+            }
+            doomed.addAll(indexKeys);
+
+            // 3. Sessions + cached tokens + index in one pipeline
+            redisService.executePipelined(ops -> {
+                ops.delete(doomed);
+                unindex(ops, unindexKey, members);
+            });
+            sessionTiering.forget(sessionIds);
+
+            // 4. Refresh tokens are revoked at the IdP off the request path
+            if (revokeUpstream) {
+                refreshTokens.forEach(tokenRevocationQueue::enqueueAll);
+            }
+        }
+
+        sessions.keySet().forEach(id -> missingSessions.put(id, Boolean.TRUE));
+        return sessions.keySet();
+    }
+
+    /**
+     * Secure session cookie for the persona
+     */
+    public ResponseCookie buildCookie(PersonaConfig config, String value) {
+        return ResponseCookie
+                .from(config.getSessionIdName(), value)
+                .httpOnly(true)          // Prevents JavaScript access (XSS protection)
+                .secure(cookieSecure)    // HTTPS only (set false for localhost)
+                .path("/")               // Cookie available on all paths
+                .maxAge(getTtlSeconds()) // Matches session TTL
+                .sameSite(cookieSameSite)     // Prevents CSRF attacks (Strict/Lax/None)
+                .build();
+    }
+
+    /**
+     * TTL for the session key: the idle timeout (if enabled), capped by the time left
+     * until the session's absolute expiry
+     */
+    private long keyTtlSeconds(long expiresAt) {
+        long remaining = expiresAt - Instant.now().getEpochSecond();
+        if (idleTimeoutMinutes > 0) {
+            remaining = Math.min(idleTimeoutMinutes * 60, remaining);
+        }
+        return Math.max(1, remaining);
+    }
+
+    /**
+     * Absolute expiry of a loaded session: from its record; records written before the
+     * field existed fall back to the signed ID's issue time, else to the first load here
+     * (persisted with the next refresh)
+     */
+    private long expiresAt(String sessionId, Map<String, Object> record) {
+        if (record.get(EXPIRES_AT_FIELD) instanceof Number expiresAt) {
+            sessionExpiries.put(sessionId, expiresAt.longValue());
+            return expiresAt.longValue();
+        }
+        return sessionExpiries.get(sessionId, id -> {
+            long issuedAt = sessionIdSigner.issuedAt(id);
+            return (issuedAt > 0 ? issuedAt : Instant.now().getEpochSecond()) + getTtlSeconds();
+        });
+    }
+
+    private static String userIndexKey(String userId, String persona) {
+        return userId != null ? USER_INDEX_KEY_PREFIX + userId + ":" + persona : null;
+    }
+
+    private static String idpIndexKey(String idpSessionId, String persona) {
+        return idpSessionId != null && !idpSessionId.isBlank()
+                ? IDP_INDEX_KEY_PREFIX + idpSessionId + ":" + persona
+                : null;
+    }
+
+    private static void unindex(RedisOperations<String, Object> ops, String indexKey, Object[] sessionIds) {
+        if (indexKey != null && sessionIds.length > 0) {
+            ops.opsForZSet().remove(indexKey, sessionIds);
+        }
+    }
+
+    /**
+     * Add the session to the user index; prunes expired members and keeps the index
+     * alive as long as its newest session. No-op without a user ID.
+     */
+    private void index(RedisOperations<String, Object> ops, String indexKey, String sessionId, long expiresAt) {
+        if (indexKey == null) {
+            return;
+        }
+        ops.opsForZSet().add(indexKey, sessionId, expiresAt);
+        ops.opsForZSet().removeRangeByScore(indexKey, Double.NEGATIVE_INFINITY, Instant.now().getEpochSecond());
+        ops.expire(indexKey, Duration.ofSeconds(getTtlSeconds()));
+    }
+
+    private static Map<String, Object> sessionRecord(String userId, Map<String, Object> tokens, long expiresAt) {
+        Map<String, Object> record = new HashMap<>(tokens);
+        record.put(EXPIRES_AT_FIELD, expiresAt);
+        if (userId != null) {
+            record.put(USER_ID_FIELD, userId);
+        }
+        return record;
+    }
+
+    private String seal(String sessionId, String persona, String userId, Map<String, Object> tokens,
+                        long expiresAtEpochSeconds) {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .jwtID(sessionId)
+                .subject(userId)
+                .issueTime(new Date())
+                .expirationTime(new Date(TimeUnit.SECONDS.toMillis(expiresAtEpochSeconds)))
+                .claim(CLAIM_PERSONA, persona)
+                .claim(CLAIM_ACCESS_TOKEN, tokens.get("access_token"))
+                .claim(CLAIM_REFRESH_TOKEN, tokens.get("refresh_token"))
+                .build();
+        JWEHeader header = new JWEHeader.Builder(JWEAlgorithm.DIR, EncryptionMethod.A256GCM)
+                .compressionAlgorithm(CompressionAlgorithm.DEF)
+                .build();
+        try {
+            EncryptedJWT jwt = new EncryptedJWT(header, claims);
+            jwt.encrypt(encrypter);
+            String value = jwt.serialize();
+            if (value.length() > MAX_COOKIE_LENGTH) {
+                logger.warn("⚠️ [SESSION] Session cookie is {} chars - browsers may drop cookies over 4KB", value.length());
+            }
+            return value;
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to seal session cookie", e);
+        }
+    }
+
+    /**
+     * Resolved session: ID (Redis key / JWE jti), tokens if already known (cookie mode),
+     * expiry in epoch seconds (cookie mode only)
+     */
+    public record SessionRef(String id, Map<String, Object> tokens, long expiresAt) {
+    }
+
+    /**
+     * The session was ended (logout, revocation) while an operation on it was in flight
+     */
+    public static class SessionEndedException extends RuntimeException {
+        public SessionEndedException(String sessionId) {
+            super("Session ended: " + sessionId);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.gms_server.auth_app.services;
+
+import com.gms_server.auth_app.utils.RedisService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================
+ * COLD SESSION TIERING (redis session mode)
+ * ============================================
+ *
+ * Most sessions go idle within hours but keep their tokens in Redis for
+ * session.ttl.days. Tiering moves idle sessions to a cheaper ColdSessionStore:
+ *
+ * 1. "session:activity" (sorted set, score = last use) is updated with the
+ *    coalesced session touches - no extra write on /verify
+ * 2. A sweeper (one instance at a time, Redis lock) picks sessions idle longer
+ *    than idle-minutes, copies them to the cold store, then replaces each
+ *    Redis record with a tiny stub {"tier":"cold"} keeping the same TTL.
+ *    The swap runs under WATCH on the records and session:activity, and the
+ *    activity scores are re-read after WATCH: a session used meanwhile (record
+ *    rewritten or touch flushed) is left alone; an aborted batch is retried,
+ *    the re-read dropping the busy sessions.
+ * 3. Loading a stub promotes the session back to Redis (again under WATCH);
+ *    only returning users pay the cold-store latency.
+ */
+@Service
+public class SessionTiering {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionTiering.class);
+
+    static final String ACTIVITY_KEY = "session:activity";
+    private static final String LOCK_KEY = "session:tiering:lock";
+    private static final String STUB_FIELD = "tier";
+    private static final String STUB_VALUE = "cold";
+    static final Map<String, Object> STUB = Map.of(STUB_FIELD, STUB_VALUE);
+    private static final int MAX_BATCHES_PER_SWEEP = 20;
+    private static final int MAX_ATTEMPTS_PER_BATCH = 3;
+
+    private final RedisService redisService;
+    private final ColdSessionStore coldStore;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${session.tiering.enabled:false}")
+    private boolean enabled;
+
+    @Value("${session.tiering.idle-minutes:120}")
+    private long idleMinutes;
+
+    @Value("${session.tiering.batch-size:500}")
+    private int batchSize;
+
+    @Value("${session.tiering.sweep-ms:60000}")
+    private long sweepMs;
+
+    public SessionTiering(RedisService redisService, ColdSessionStore coldStore) {
+        this.redisService = redisService;
+        this.coldStore = coldStore;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static boolean isStub(Map<?, ?> value) {
+        return value.size() == 1 && STUB_VALUE.equals(value.get(STUB_FIELD));
+    }
+
+    /**
+     * Mark the session as used now (inside the caller's transaction or pipeline)
+     */
+    public void track(RedisOperations<String, Object> ops, String sessionId) {
+        if (enabled) {
+            ops.opsForZSet().add(ACTIVITY_KEY, sessionId, Instant.now().getEpochSecond());
+        }
+    }
+
+    /**
+     * Cold copy of a demoted session (tokens only needed, no promotion)
+     */
+    public Map<String, Object> peek(String sessionId) {
+        ColdSessionStore.ColdSession cold = coldStore.get(sessionId);
+        return cold != null ? cold.record() : null;
+    }
+
+    /**
+     * Bring a demoted session back to Redis.
+     *
+     * @return The session record, or null if the session no longer exists
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> promote(String sessionId) {
+        String key = SessionService.SESSION_KEY_PREFIX + sessionId;
+        ColdSessionStore.ColdSession cold = coldStore.get(sessionId);
+        long ttl = cold != null ? cold.expiresAt() - Instant.now().getEpochSecond() : 0;
+        if (cold == null || ttl <= 0) {
+            logger.warn("⚠️ [TIERING] Cold session missing or expired, dropping stub: {}", sessionId);
+            redisService.delete(key);
+            return null;
+        }
+
+        Boolean promoted = redisService.executeInSession(ops -> {
+            ops.watch(key);
+            Object current = ops.opsForValue().get(key);
+            if (!(current instanceof Map<?, ?> value) || !isStub(value)) {
+                ops.unwatch();
+                return false;
+            }
+            ops.multi();
+            ops.opsForValue().set(key, cold.record(), Duration.ofSeconds(ttl));
+            ops.opsForZSet().add(ACTIVITY_KEY, sessionId, Instant.now().getEpochSecond());
+            List<Object> result = ops.exec();
+            return result != null && !result.isEmpty();
+        });
+
+        if (Boolean.TRUE.equals(promoted)) {
+            coldStore.deleteAll(List.of(sessionId));
+            logger.info("🔥 [TIERING] Session promoted from cold store: {}", sessionId);
+            return cold.record();
+        }
+        // Promoted (or ended) concurrently by another request
+        Map<String, Object> current = redisService.getValue(key, Map.class);
+        return current != null && !isStub(current) ? current : null;
+    }
+
+    /**
+     * Sessions ended: drop activity entries and cold copies
+     */
+    public void forget(Collection<String> sessionIds) {
+        if (!enabled || sessionIds.isEmpty()) {
+            return;
+        }
+        redisService.executePipelined(ops -> ops.opsForZSet().remove(ACTIVITY_KEY, sessionIds.toArray()));
+        coldStore.deleteAll(sessionIds);
+    }
+
+    @Scheduled(fixedDelayString = "${session.tiering.sweep-ms:60000}",
+            initialDelayString = "${session.tiering.sweep-ms:60000}")
+    public void demoteIdle() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!Boolean.TRUE.equals(redisService.setIfAbsent(LOCK_KEY, instanceId, sweepMs, TimeUnit.MILLISECONDS))) {
+                return;
+            }
+            long now = Instant.now().getEpochSecond();
+            long cutoff = now - idleMinutes * 60;
+            int demoted = 0;
+            for (int round = 0; round < MAX_BATCHES_PER_SWEEP; round++) {
+                Set<Object> idle = redisService.zrangeByScore(ACTIVITY_KEY, Double.NEGATIVE_INFINITY, cutoff, 0, batchSize);
+                if (idle == null || idle.isEmpty()) {
+                    break;
+                }
+                List<String> sessionIds = new ArrayList<>(idle.size());
+                idle.forEach(id -> sessionIds.add(id.toString()));
+                int batchDemoted = -1;
+                for (int attempt = 0; attempt < MAX_ATTEMPTS_PER_BATCH && batchDemoted < 0; attempt++) {
+                    // Aborted by a concurrent write: the retry re-reads the scores and skips busy sessions
+                    batchDemoted = demote(sessionIds, cutoff, now);
+                }
+                if (batchDemoted < 0) {
+                    // Contended on every attempt; left for the next sweep
+                    break;
+                }
+                demoted += batchDemoted;
+                if (idle.size() < batchSize) {
+                    break;
+                }
+            }
+            int purged = coldStore.purgeExpired(now);
+            if (demoted > 0 || purged > 0) {
+                logger.info("❄️ [TIERING] Demoted {} idle sessions, purged {} expired cold sessions", demoted, purged);
+            }
+        } catch (Exception e) {
+            logger.error("❌ [TIERING] Sweep failed, retrying on next run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Copy the still idle sessions of a batch to the cold store, then swap their Redis
+     * records for stubs atomically
+     *
+     * @return Number of sessions demoted, -1 if a concurrent write aborted the swap
+     */
+    private int demote(List<String> sessionIds, long cutoff, long now) {
+        List<String> watched = new ArrayList<>(sessionIds.size() + 1);
+        sessionIds.forEach(id -> watched.add(SessionService.SESSION_KEY_PREFIX + id));
+        watched.add(ACTIVITY_KEY);
+
+        Integer committed = redisService.executeInSession(ops -> {
+            ops.watch(watched);
+            // Read after WATCH: earlier touches show here, later ones abort the EXEC
+            List<Double> scores = ops.opsForZSet().score(ACTIVITY_KEY, sessionIds.toArray());
+            List<String> idleIds = new ArrayList<>(sessionIds.size());
+            for (int i = 0; i < sessionIds.size(); i++) {
+                Double score = scores != null ? scores.get(i) : null;
+                if (score != null && score <= cutoff) {
+                    idleIds.add(sessionIds.get(i));
+                }
+            }
+            if (idleIds.isEmpty()) {
+                ops.unwatch();
+                return 0;
+            }
+
+            List<String> keys = new ArrayList<>(idleIds.size());
+            idleIds.forEach(id -> keys.add(SessionService.SESSION_KEY_PREFIX + id));
+            List<Object> values = ops.opsForValue().multiGet(keys);
+            Map<String, ColdSessionStore.ColdSession> cold = new LinkedHashMap<>();
+            for (int i = 0; i < idleIds.size(); i++) {
+                Object value = values != null ? values.get(i) : null;
+                if (!(value instanceof Map<?, ?> record) || isStub(record)) {
+                    continue;
+                }
+                Long ttl = ops.getExpire(keys.get(i), TimeUnit.SECONDS);
+                if (ttl != null && ttl > 0) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> typed = (Map<String, Object>) record;
+                    cold.put(idleIds.get(i), new ColdSessionStore.ColdSession(typed, now + ttl));
+                }
+            }
+            // Cold copy first: a crash after this point leaves the Redis record intact
+            coldStore.putAll(cold);
+
+            ops.multi();
+            cold.forEach((id, session) -> ops.opsForValue().set(SessionService.SESSION_KEY_PREFIX + id, STUB,
+                    Duration.ofSeconds(session.expiresAt() - now)));
+            ops.opsForZSet().remove(ACTIVITY_KEY, idleIds.toArray());
+            List<Object> result = ops.exec();
+            return result != null && !result.isEmpty() ? cold.size() : -1;
+        });
+        return committed != null ? committed : -1;
+    }
+}
@@ -0,0 +1,116 @@
+package com.gms_server.auth_app.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gms_server.auth_app.utils.RedisService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ============================================
+ * COALESCED SESSION TOUCHES (sliding expiry)
+ * ============================================
+ *
+ * Extending a session's TTL on every /verify would add a Redis write to the
+ * hot path. Instead, touches are buffered in memory:
+ * - at most one touch per session per touch-interval-seconds (later ones are dropped)
+ * - buffered touches are flushed as one pipeline of EXPIREs every flush-ms
+ *   (plus last-use scores in "session:activity" when tiering is enabled)
+ *
+ * A session therefore lives between idle-timeout and idle-timeout + interval
+ * + flush delay after its last use.
+ */
+@Service
+public class SessionTouchBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionTouchBuffer.class);
+
+    private final RedisService redisService;
+
+    private final boolean trackActivity;
+
+    /**
+     * Session ID → TTL (seconds) to apply on the next flush (0 = activity only)
+     */
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Sessions touched within the current interval
+     */
+    private final Cache<String, Boolean> recentlyTouched;
+
+    public SessionTouchBuffer(RedisService redisService,
+                              @Value("${session.tiering.enabled:false}") boolean trackActivity,
+                              @Value("${session.touch.interval-seconds:60}") long intervalSeconds,
+                              @Value("${session.touch.max-entries:200000}") long maxEntries) {
+        this.redisService = redisService;
+        this.trackActivity = trackActivity;
+        this.recentlyTouched = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(intervalSeconds))
+                .build();
+    }
+
+    /**
+     * Record a use of the session; extends its TTL to ttlSeconds if > 0. No I/O.
+     */
+    public void touch(String sessionId, long ttlSeconds) {
+        if (recentlyTouched.asMap().putIfAbsent(sessionId, Boolean.TRUE) == null) {
+            pending.put(sessionId, ttlSeconds);
+        }
+    }
+
+    /**
+     * Forget a session (ended or rewritten with a fresh TTL)
+     */
+    public void forget(String sessionId) {
+        pending.remove(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${session.touch.flush-ms:5000}",
+            initialDelayString = "${session.touch.flush-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Long>> batch = new ArrayList<>(pending.size());
+        for (String sessionId : pending.keySet()) {
+            Long ttl = pending.remove(sessionId);
+            if (ttl != null) {
+                batch.add(Map.entry(sessionId, ttl));
+            }
+        }
+        long now = Instant.now().getEpochSecond();
+        try {
+            redisService.executePipelined(ops -> batch.forEach(entry -> {
+                if (entry.getValue() > 0) {
+                    ops.expire(SessionService.SESSION_KEY_PREFIX + entry.getKey(), Duration.ofSeconds(entry.getValue()));
+                }
+                if (trackActivity) {
+                    ops.opsForZSet().add(SessionTiering.ACTIVITY_KEY, entry.getKey(), now);
+                }
+            }));
+            logger.debug("⏳ [SESSION] Extended {} session TTLs", batch.size());
+        } catch (Exception e) {
+            // Re-queue; a newer touch for the same key wins
+            batch.forEach(entry -> pending.putIfAbsent(entry.getKey(), entry.getValue()));
+            logger.warn("⚠️ [SESSION] Failed to flush {} session touches: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
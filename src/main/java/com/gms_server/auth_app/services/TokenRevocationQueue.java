@@ -0,0 +1,221 @@
+package com.gms_server.auth_app.services;
+
+import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.utils.RedisService;
+import com.gms_server.auth_app.utils.ZitadelApiService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ============================================
+ * UPSTREAM TOKEN REVOCATION QUEUE
+ * ============================================
+ *
+ * Logout must not wait for the IdP. Refresh tokens of ended sessions are
+ * appended to the Redis stream "session:revocations" and revoked at Zitadel
+ * in the background:
+ * - consumer group "auth-server": each entry is handled by one instance
+ * - batches of batch-size, at most concurrency calls in flight
+ * - entries are acknowledged only after Zitadel confirmed; failed entries stay
+ *   pending and are re-claimed after retry-after-ms (also those of dead instances)
+ * - after max-attempts deliveries an entry is dropped (logged)
+ * - acknowledged and dropped entries are deleted right away (XDEL), so refresh
+ *   tokens don't linger in the stream until max-length trims them
+ */
+@Service
+public class TokenRevocationQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationQueue.class);
+
+    static final String STREAM_KEY = "session:revocations";
+    static final String GROUP = "auth-server";
+    private static final String FIELD_PERSONA = "persona";
+    private static final String FIELD_TOKEN = "token";
+    private static final String TOKEN_TYPE_HINT = "refresh_token";
+
+    private final RedisService redisService;
+    private final ZitadelApiService zitadelApiService;
+    private final PersonaRegistry personaRegistry;
+    private final String consumerName = "auth-" + UUID.randomUUID();
+
+    @Value("${session.revocation.upstream.enabled:true}")
+    private boolean enabled;
+
+    @Value("${session.revocation.upstream.batch-size:50}")
+    private int batchSize;
+
+    @Value("${session.revocation.upstream.concurrency:8}")
+    private int concurrency;
+
+    @Value("${session.revocation.upstream.retry-after-ms:30000}")
+    private long retryAfterMs;
+
+    @Value("${session.revocation.upstream.max-attempts:10}")
+    private long maxAttempts;
+
+    @Value("${session.revocation.upstream.max-length:100000}")
+    private long maxLength;
+
+    private volatile boolean groupReady;
+
+    public TokenRevocationQueue(RedisService redisService, ZitadelApiService zitadelApiService,
+                                PersonaRegistry personaRegistry) {
+        this.redisService = redisService;
+        this.zitadelApiService = zitadelApiService;
+        this.personaRegistry = personaRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            ensureGroup();
+            logger.info("⚙️ [CONFIG] Upstream token revocation queue enabled (consumer: {})", consumerName);
+        }
+    }
+
+    /**
+     * Queue one refresh token for revocation (one XADD)
+     */
+    public void enqueue(String persona, String refreshToken) {
+        if (!enabled || refreshToken == null) {
+            return;
+        }
+        try {
+            redisService.xadd(STREAM_KEY, Map.of(FIELD_PERSONA, persona, FIELD_TOKEN, refreshToken), maxLength);
+        } catch (Exception e) {
+            logger.warn("⚠️ [REVOKE-QUEUE] Failed to queue token revocation for persona {}: {}", persona, e.getMessage());
+        }
+    }
+
+    /**
+     * Queue many refresh tokens of one persona in a single pipeline
+     */
+    public void enqueueAll(String persona, Collection<String> refreshTokens) {
+        if (!enabled || refreshTokens.isEmpty()) {
+            return;
+        }
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions.maxlen(maxLength).approximateTrimming(true);
+        try {
+            redisService.executePipelined(ops -> refreshTokens.forEach(token -> ops.opsForStream()
+                    .add(STREAM_KEY, Map.<Object, Object>of(FIELD_PERSONA, persona, FIELD_TOKEN, token), options)));
+        } catch (Exception e) {
+            logger.warn("⚠️ [REVOKE-QUEUE] Failed to queue {} token revocations for persona {}: {}",
+                    refreshTokens.size(), persona, e.getMessage());
+        }
+    }
+
+    /**
+     * Drain the queue: re-claim stale pending entries, then read new ones, batch by batch
+     */
+    @Scheduled(fixedDelayString = "${session.revocation.upstream.poll-ms:1000}",
+            initialDelayString = "${session.revocation.upstream.poll-ms:1000}")
+    public void drain() {
+        if (!enabled || !ensureGroup()) {
+            return;
+        }
+        try {
+            process(claimStale());
+            List<MapRecord<String, Object, Object>> batch;
+            do {
+                batch = redisService.xreadGroup(STREAM_KEY, GROUP, consumerName, batchSize);
+                process(batch);
+            } while (batch != null && batch.size() >= batchSize);
+        } catch (Exception e) {
+            logger.error("❌ [REVOKE-QUEUE] Drain failed, retrying on next poll: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Pending entries idle longer than retry-after-ms; entries over max-attempts are dropped
+     */
+    private List<MapRecord<String, Object, Object>> claimStale() {
+        PendingMessages pending = redisService.xpending(STREAM_KEY, GROUP, batchSize);
+        if (pending == null || pending.isEmpty()) {
+            return List.of();
+        }
+        Duration minIdle = Duration.ofMillis(retryAfterMs);
+        List<RecordId> retry = new ArrayList<>();
+        List<RecordId> exhausted = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) < 0) {
+                continue;
+            }
+            if (message.getTotalDeliveryCount() >= maxAttempts) {
+                exhausted.add(message.getId());
+            } else {
+                retry.add(message.getId());
+            }
+        }
+        if (!exhausted.isEmpty()) {
+            redisService.xackDel(STREAM_KEY, GROUP, exhausted.toArray(RecordId[]::new));
+            logger.error("❌ [REVOKE-QUEUE] Dropped {} token revocations after {} attempts", exhausted.size(), maxAttempts);
+        }
+        if (retry.isEmpty()) {
+            return List.of();
+        }
+        return redisService.xclaim(STREAM_KEY, GROUP, consumerName, minIdle, retry.toArray(RecordId[]::new));
+    }
+
+    /**
+     * Revoke a batch with bounded concurrency; acknowledge and delete the successes in one round-trip
+     */
+    private void process(List<MapRecord<String, Object, Object>> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        List<RecordId> done = Flux.fromIterable(batch)
+                .flatMap(record -> revoke(record).thenReturn(record.getId())
+                        .onErrorResume(e -> {
+                            logger.warn("⚠️ [REVOKE-QUEUE] Revocation {} failed, will retry: {}", record.getId(), e.getMessage());
+                            return Mono.empty();
+                        }), concurrency)
+                .collectList()
+                .block();
+        if (done != null && !done.isEmpty()) {
+            redisService.xackDel(STREAM_KEY, GROUP, done.toArray(RecordId[]::new));
+        }
+        logger.info("🔒 [REVOKE-QUEUE] Revoked {}/{} refresh tokens upstream", done != null ? done.size() : 0, batch.size());
+    }
+
+    private Mono<Void> revoke(MapRecord<String, Object, Object> record) {
+        Object persona = record.getValue().get(FIELD_PERSONA);
+        Object token = record.getValue().get(FIELD_TOKEN);
+        PersonaConfig config = persona != null ? personaRegistry.find(persona.toString()) : null;
+        if (config == null || token == null) {
+            // Unknown persona or corrupt entry: nothing to retry
+            logger.warn("⚠️ [REVOKE-QUEUE] Skipping unusable entry {}", record.getId());
+            return Mono.empty();
+        }
+        return zitadelApiService.revokeToken(token.toString(), TOKEN_TYPE_HINT, config);
+    }
+
+    private boolean ensureGroup() {
+        if (!groupReady) {
+            try {
+                redisService.xgroupCreate(STREAM_KEY, GROUP);
+                groupReady = true;
+            } catch (Exception e) {
+                logger.error("❌ [REVOKE-QUEUE] Consumer group setup failed, retrying on next poll: {}", e.getMessage());
+            }
+        }
+        return groupReady;
+    }
+}
@@ -0,0 +1,70 @@
+package com.gms_server.auth_app.services;
+
+/**
+ * Final outcome of a /verify for one session + persona.
+ *
+ * Allowed decisions carry the header values already rendered
+ * (X-User-Id, X-User-Email, X-User-Info), so a cached decision
+ * needs no further work.
+ */
+public final class VerifyDecision {
+
+    private final boolean allowed;
+    private final int statusCode;
+    private final String message;
+    private final String userId;
+    private final String email;
+    private final String userInfoJson;
+
+    /**
+     * Access token expiry (epoch seconds) of an allowed decision; 0 if unknown
+     */
+    private final long tokenExpiresAt;
+
+    private VerifyDecision(boolean allowed, int statusCode, String message,
+                           String userId, String email, String userInfoJson, long tokenExpiresAt) {
+        this.allowed = allowed;
+        this.statusCode = statusCode;
+        this.message = message;
+        this.userId = userId;
+        this.email = email;
+        this.userInfoJson = userInfoJson;
+        this.tokenExpiresAt = tokenExpiresAt;
+    }
+
+    public static VerifyDecision allow(String userId, String email, String userInfoJson, long tokenExpiresAt) {
+        return new VerifyDecision(true, 200, null, userId, email, userInfoJson, tokenExpiresAt);
+    }
+
+    public static VerifyDecision deny(int statusCode, String message, String userId) {
+        return new VerifyDecision(false, statusCode, message, userId, null, null, 0);
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getUserInfoJson() {
+        return userInfoJson;
+    }
+
+    public long getTokenExpiresAt() {
+        return tokenExpiresAt;
+    }
+}
@@ -0,0 +1,222 @@
+package com.gms_server.auth_app.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ============================================
+ * ADAPTIVE CONCURRENCY LIMITER (per issuer)
+ * ============================================
+ *
+ * Vegas-style limit on in-flight Zitadel requests:
+ * - Tracks the minimum observed RTT (no-load latency)
+ * - Estimated queue = limit * (1 - minRtt / rtt)
+ *   queue < alpha → limit + 1, queue > beta → limit - 1
+ * - Timeouts / transport errors / 5xx shrink the limit multiplicatively
+ *
+ * When the limit is reached the request is rejected immediately
+ * (ZitadelUnavailableException) instead of waiting for a pool connection.
+ *
+ * Metrics (tag: issuer host):
+ *   zitadel.concurrency.limit, zitadel.concurrency.inflight, zitadel.concurrency.rejected
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, IssuerLimit> limits = new ConcurrentHashMap<>();
+
+    @Value("${zitadel.limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${zitadel.limiter.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${zitadel.limiter.min-limit:4}")
+    private int minLimit;
+
+    @Value("${zitadel.limiter.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${zitadel.limiter.alpha:3}")
+    private int alpha;
+
+    @Value("${zitadel.limiter.beta:6}")
+    private int beta;
+
+    @Value("${zitadel.limiter.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${zitadel.limiter.min-rtt-reset-samples:1000}")
+    private int minRttResetSamples;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Reserve a slot for one request to the issuer.
+     *
+     * @return a permit that must be completed exactly once (extra calls are ignored)
+     * @throws ZitadelUnavailableException if the current limit is reached
+     */
+    public Permit acquire(String issuer) {
+        if (!enabled) {
+            return Permit.NOOP;
+        }
+        IssuerLimit limit = limits.computeIfAbsent(issuer, this::newLimit);
+        if (!limit.tryAcquire()) {
+            limit.rejected.increment();
+            logger.warn("🚦 [LIMITER] Rejected call to {} (in flight: {}, limit: {})",
+                    issuer, limit.inFlight.get(), limit.limit);
+            throw new ZitadelUnavailableException("Zitadel concurrency limit reached", issuer);
+        }
+        return new Permit(limit);
+    }
+
+    private IssuerLimit newLimit(String issuer) {
+        IssuerLimit limit = new IssuerLimit(initialLimit, minLimit, maxLimit, alpha, beta, backoffRatio, minRttResetSamples);
+        String host = hostOf(issuer);
+        Gauge.builder("zitadel.concurrency.limit", limit, l -> l.limit)
+                .tag("issuer", host)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("zitadel.concurrency.inflight", limit, l -> l.inFlight.get())
+                .tag("issuer", host)
+                .description("Zitadel requests currently in flight")
+                .register(meterRegistry);
+        limit.rejected = Counter.builder("zitadel.concurrency.rejected")
+                .tag("issuer", host)
+                .description("Requests rejected by the concurrency limiter")
+                .register(meterRegistry);
+        logger.info("⚙️ [CONFIG] Concurrency limiter for {} (initial: {}, min: {}, max: {})",
+                issuer, initialLimit, minLimit, maxLimit);
+        return limit;
+    }
+
+    static String hostOf(String issuer) {
+        try {
+            String host = URI.create(issuer).getHost();
+            return host != null ? host : issuer;
+        } catch (IllegalArgumentException e) {
+            return issuer;
+        }
+    }
+
+    /**
+     * One in-flight request. Complete with onSuccess (a response arrived),
+     * onDropped (timeout / overload signal) or onIgnore (cancelled).
+     */
+    public static final class Permit {
+
+        static final Permit NOOP = new Permit(null);
+
+        private final IssuerLimit limit;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Permit(IssuerLimit limit) {
+            this.limit = limit;
+        }
+
+        public void onSuccess() {
+            if (limit != null && done.compareAndSet(false, true)) {
+                limit.onSample(System.nanoTime() - startNanos);
+            }
+        }
+
+        public void onDropped() {
+            if (limit != null && done.compareAndSet(false, true)) {
+                limit.onDropped();
+            }
+        }
+
+        public void onIgnore() {
+            if (limit != null && done.compareAndSet(false, true)) {
+                limit.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    static final class IssuerLimit {
+
+        private final int minLimit;
+        private final int maxLimit;
+        private final int alpha;
+        private final int beta;
+        private final double backoffRatio;
+        private final int minRttResetSamples;
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        volatile int limit;
+        Counter rejected;
+
+        private long minRttNanos = Long.MAX_VALUE;
+        private int samples;
+
+        IssuerLimit(int initialLimit, int minLimit, int maxLimit, int alpha, int beta,
+                    double backoffRatio, int minRttResetSamples) {
+            this.limit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.backoffRatio = backoffRatio;
+            this.minRttResetSamples = minRttResetSamples;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        synchronized void onSample(long rttNanos) {
+            int concurrent = inFlight.getAndDecrement();
+
+            // Periodically forget the minimum so a permanently slower issuer resets the baseline
+            if (++samples >= minRttResetSamples) {
+                samples = 0;
+                minRttNanos = rttNanos;
+            }
+            if (rttNanos < minRttNanos) {
+                minRttNanos = rttNanos;
+            }
+
+            int current = limit;
+            double queue = current * (1.0 - (double) minRttNanos / Math.max(rttNanos, 1));
+            if (queue < alpha) {
+                // Only grow when the limit is actually being used (not app-limited)
+                if (concurrent * 2 >= current) {
+                    limit = Math.min(maxLimit, current + 1);
+                }
+            } else if (queue > beta) {
+                limit = Math.max(minLimit, current - 1);
+            }
+        }
+
+        synchronized void onDropped() {
+            inFlight.decrementAndGet();
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.gms_server.auth_app.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * ============================================
+ * AUTH PIPELINE METRICS
+ * ============================================
+ *
+ * Stage-level timers and counters for verify, login and idempotency,
+ * exported via /actuator/prometheus:
+ *
+ *   auth.verify            timer    persona, status, source (decision_cache | pipeline)
+ *   auth.stage             timer    stage, persona, outcome (ok | error)
+ *                                   verify: session_fetch, session_fetch_batch, token_validation, token_refresh
+ *                                   login:  state, code_exchange, userinfo, role_assignment, token_refresh,
+ *                                           session_create
+ *   auth.userinfo.cache    counter  source (userinfo | introspection), result (hit | miss | stale | inactive | coalesced)
+ *   auth.token.refresh     counter  persona, reason (expired | role_missing), result (success | failure)
+ *   auth.role.check        counter  persona, result (granted | granted_after_refresh | denied)
+ *   auth.ratelimit         counter  route (auth | verify), decision (allowed | rejected | error)
+ *   auth.idempotency       counter  outcome (first | duplicate | processing | completed | stored | store_failed)
+ *   zitadel.requests       timer    issuer, endpoint, status (HTTP code | timeout | cancelled | error)
+ *
+ * Low cardinality by design: no user, session or client tags, and persona tags
+ * only take configured persona names (capped at metrics.max-personas; anything
+ * beyond is reported as "other"). Meters are cached per tag combination, so the
+ * hot path does one map lookup instead of a registry lookup.
+ *
+ * Stage timings also feed the request's Server-Timing breakdown (ServerTiming).
+ */
+@Component
+public class AuthMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthMetrics.class);
+
+    public static final String UNKNOWN_PERSONA = "unknown";
+    /** Stages shared by several personas (batch verify) */
+    public static final String MIXED_PERSONAS = "mixed";
+    private static final String OTHER_PERSONA = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final ServerTiming serverTiming;
+    private final int maxPersonas;
+    private final Set<String> personas = ConcurrentHashMap.newKeySet();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry meterRegistry, ServerTiming serverTiming,
+                       @Value("${metrics.max-personas:50}") int maxPersonas) {
+        this.meterRegistry = meterRegistry;
+        this.serverTiming = serverTiming;
+        this.maxPersonas = maxPersonas;
+    }
+
+    /** ---------------- VERIFY ---------------- */
+
+    public void recordVerify(String persona, int status, boolean fromDecisionCache, long startNanos) {
+        String personaTag = personaTag(persona);
+        String statusTag = Integer.toString(status);
+        String source = fromDecisionCache ? "decision_cache" : "pipeline";
+        timers.computeIfAbsent("verify " + personaTag + " " + statusTag + " " + source,
+                key -> Timer.builder("auth.verify")
+                        .tag("persona", personaTag)
+                        .tag("status", statusTag)
+                        .tag("source", source)
+                        .description("Verify decisions, end to end")
+                        .register(meterRegistry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time one pipeline stage; outcome=error when the call throws
+     */
+    public <T> T stage(String stage, String persona, Supplier<T> call) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            T result = call.get();
+            ok = true;
+            return result;
+        } finally {
+            recordStage(stage, persona, ok, start);
+        }
+    }
+
+    public void recordStage(String stage, String persona, boolean ok, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        serverTiming.record(stage, persona, elapsedNanos);
+        String personaTag = personaTag(persona);
+        String outcome = ok ? "ok" : "error";
+        timers.computeIfAbsent("stage " + stage + " " + personaTag + " " + outcome,
+                key -> Timer.builder("auth.stage")
+                        .tag("stage", stage)
+                        .tag("persona", personaTag)
+                        .tag("outcome", outcome)
+                        .description("Duration of one verify / login stage")
+                        .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void userInfoCache(String source, String result) {
+        count("auth.userinfo.cache", "Token → user info cache lookups", "source", source, "result", result);
+    }
+
+    public void tokenRefresh(String persona, String reason, boolean success) {
+        count("auth.token.refresh", "Token refreshes during verify",
+                "persona", personaTag(persona), "reason", reason, "result", success ? "success" : "failure");
+    }
+
+    public void roleCheck(String persona, String result) {
+        count("auth.role.check", "Persona role checks", "persona", personaTag(persona), "result", result);
+    }
+
+    /** ---------------- RATE LIMIT / IDEMPOTENCY ---------------- */
+
+    public void rateLimit(String route, String decision) {
+        count("auth.ratelimit", "Rate limiter decisions", "route", route, "decision", decision);
+    }
+
+    public void idempotency(String outcome) {
+        count("auth.idempotency", "Idempotency key outcomes", "outcome", outcome);
+    }
+
+    /** ---------------- ZITADEL ---------------- */
+
+    public void recordZitadelCall(String issuerHost, String endpoint, String status, long elapsedNanos) {
+        timers.computeIfAbsent("zitadel " + issuerHost + " " + endpoint + " " + status,
+                key -> Timer.builder("zitadel.requests")
+                        .tag("issuer", issuerHost)
+                        .tag("endpoint", endpoint)
+                        .tag("status", status)
+                        .description("Physical requests to Zitadel (each attempt and hedge)")
+                        .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void count(String name, String description, String... tags) {
+        counters.computeIfAbsent(name + " " + String.join(" ", tags),
+                key -> Counter.builder(name)
+                        .tags(tags)
+                        .description(description)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * Callers pass configured persona names; the cap guards against a caller
+     * ever tagging with request input
+     */
+    private String personaTag(String persona) {
+        if (persona == null || persona.isEmpty()) {
+            return UNKNOWN_PERSONA;
+        }
+        if (personas.contains(persona)) {
+            return persona;
+        }
+        if (personas.size() >= maxPersonas) {
+            return OTHER_PERSONA;
+        }
+        if (personas.add(persona)) {
+            logger.debug("📊 [METRICS] Tracking persona: {}", persona);
+        }
+        return persona;
+    }
+}
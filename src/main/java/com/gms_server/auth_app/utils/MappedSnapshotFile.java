@@ -0,0 +1,155 @@
+package com.gms_server.auth_app.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ============================================
+ * MEMORY-MAPPED SNAPSHOT FILE
+ * ============================================
+ *
+ * Minimal binary container for local cache snapshots:
+ *
+ *   "GMSSNAP1" | int version | long createdAtMillis | int count | count × (int length | bytes)
+ *
+ * Written through a mapping of a temp file (owner-only, 0600) that is then
+ * moved into place atomically; read back by mapping the file read-only, so
+ * records are decoded lazily straight from the page cache.
+ * Record encoding is up to the caller (see the string helpers).
+ */
+public final class MappedSnapshotFile {
+
+    private static final byte[] MAGIC = "GMSSNAP1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_BYTES = MAGIC.length + 4 + 8 + 4;
+
+    private final long createdAtMillis;
+    private final List<ByteBuffer> records;
+
+    private MappedSnapshotFile(long createdAtMillis, List<ByteBuffer> records) {
+        this.createdAtMillis = createdAtMillis;
+        this.records = records;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * Read-only views of the records, in file order
+     */
+    public List<ByteBuffer> getRecords() {
+        return records;
+    }
+
+    /**
+     * Write records to path (replacing any previous snapshot)
+     */
+    public static void write(Path path, int version, List<byte[]> records) throws IOException {
+        long size = HEADER_BYTES;
+        for (byte[] record : records) {
+            size += 4 + record.length;
+        }
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = dir.resolve(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+
+        List<FileAttribute<?>> attributes = new ArrayList<>(1);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            attributes.add(PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        Files.createFile(temp, attributes.toArray(FileAttribute[]::new));
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.put(MAGIC).putInt(version).putLong(System.currentTimeMillis()).putInt(records.size());
+            for (byte[] record : records) {
+                buffer.putInt(record.length).put(record);
+            }
+            buffer.force();
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Map a snapshot read-only.
+     *
+     * @return The snapshot, or null if the file is missing, foreign or of another version
+     */
+    public static MappedSnapshotFile open(Path path, int version) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!java.util.Arrays.equals(magic, MAGIC) || buffer.getInt() != version) {
+                return null;
+            }
+            long createdAt = buffer.getLong();
+            int count = buffer.getInt();
+            List<ByteBuffer> records = new ArrayList<>(Math.max(0, count));
+            for (int i = 0; i < count && buffer.remaining() >= 4; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    return null;
+                }
+                records.add(buffer.slice(buffer.position(), length).asReadOnlyBuffer());
+                buffer.position(buffer.position() + length);
+            }
+            return new MappedSnapshotFile(createdAt, records);
+        }
+    }
+
+    /**
+     * Length-prefixed UTF-8 string (-1 = null)
+     */
+    public static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    public static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encoded size of a string written by putString
+     */
+    public static int sizeOf(String value) {
+        return 4 + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+}
@@ -1,42 +1,24 @@
 package com.gms_server.auth_app.utils;
 
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.util.Base64;
-import java.util.UUID;
-
 public class PkceService {
 
-    private static final SecureRandom secureRandom = new SecureRandom();
-    private static final Base64.Encoder base64UrlEncoder = Base64.getUrlEncoder().withoutPadding();
+    // Entropy sizes (bytes): verifier 512 bits, state 192 bits (session IDs: SessionIdSigner)
+    private static final int CODE_VERIFIER_BYTES = 64;
+    private static final int STATE_BYTES = 24;
 
     // Generate code_verifier (RFC 7636: 43–128 chars)
     public static String generateCodeVerifier() {
-        byte[] code = new byte[64];
-        secureRandom.nextBytes(code);
-        return base64UrlEncoder.encodeToString(code);
+        return SecureRandomGenerator.randomToken(CODE_VERIFIER_BYTES);
     }
 
     // Generate code_challenge from code_verifier
     public static String generateCodeChallenge(String verifier) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashed = digest.digest(verifier.getBytes(StandardCharsets.US_ASCII));
-            return base64UrlEncoder.encodeToString(hashed);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 not supported", e);
-        }
+        return SecureRandomGenerator.sha256Base64Url(verifier);
     }
 
-    // Generate state (UUID is fine, or random bytes)
+    // Generate state (32 base64url chars)
     public static String generateState() {
-        return UUID.randomUUID().toString();
-    }
-
-    public static String generateSessionId() {
-        return UUID.randomUUID().toString();
+        return SecureRandomGenerator.randomToken(STATE_BYTES);
     }
-}
\ No newline at end of file
+}
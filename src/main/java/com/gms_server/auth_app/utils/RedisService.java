@@ -3,13 +3,32 @@ package com.gms_server.auth_app.utils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class RedisService {
@@ -55,6 +74,35 @@ public class RedisService {
         }
     }
 
+    /**
+     * Read several keys in one round-trip (Redis MGET)
+     * Values are in key order; missing keys read as null
+     */
+    public List<Object> multiGet(List<String> keys) {
+        try {
+            List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+            return values != null ? values : new ArrayList<>(Collections.nCopies(keys.size(), null));
+        } catch (Exception e) {
+            logger.error("Error getting {} Redis keys", keys.size(), e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    /**
+     * Atomically read and delete a key (Redis GETDEL)
+     * One round-trip instead of GET followed by DEL
+     */
+    public <T> T getAndDelete(String key, Class<T> clazz) {
+        try {
+            Object value = redisTemplate.opsForValue().getAndDelete(key);
+            if (value == null) return null;
+            return clazz.cast(value);
+        } catch (Exception e) {
+            logger.error("Error getting and deleting Redis key: {}", key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
     // -------- HSET / HGET --------
     public void hset(String key, String field, Object value) {
         try {
@@ -105,6 +153,20 @@ public class RedisService {
         }
     }
 
+    // -------- PUB/SUB --------
+    /**
+     * Publish a plain UTF-8 message (bypasses the JSON value serializer)
+     */
+    public Long publish(String channel, String message) {
+        try {
+            return redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                    channel.getBytes(StandardCharsets.UTF_8), message.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            logger.error("Error publishing to Redis channel: {}", channel, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
     // -------- EXPIRE --------
     public Boolean expire(String key, long timeout, TimeUnit unit) {
         try {
@@ -180,6 +242,194 @@ public class RedisService {
         }
     }
 
+    // -------- SORTED SETS --------
+    public Boolean zadd(String key, String member, double score) {
+        try {
+            return redisTemplate.opsForZSet().add(key, member, score);
+        } catch (Exception e) {
+            logger.error("Error adding to Redis sorted set: {}", key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    public Set<ZSetOperations.TypedTuple<Object>> zrangeByScoreWithScores(String key, double min, double max) {
+        try {
+            return redisTemplate.opsForZSet().rangeByScoreWithScores(key, min, max);
+        } catch (Exception e) {
+            logger.error("Error reading Redis sorted set: {}", key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    public Set<Object> zrangeByScore(String key, double min, double max, long offset, long count) {
+        try {
+            return redisTemplate.opsForZSet().rangeByScore(key, min, max, offset, count);
+        } catch (Exception e) {
+            logger.error("Error reading Redis sorted set: {}", key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    public Long zremrangeByScore(String key, double min, double max) {
+        try {
+            return redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+        } catch (Exception e) {
+            logger.error("Error pruning Redis sorted set: {}", key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    // -------- STREAMS --------
+    /**
+     * Create a consumer group (and the stream, if missing); no-op if the group exists
+     */
+    public void xgroupCreate(String key, String group) {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands().xGroupCreate(
+                    key.getBytes(StandardCharsets.UTF_8), group, ReadOffset.from("0"), true));
+        } catch (Exception e) {
+            if (e.getMessage() != null && e.getMessage().contains("BUSYGROUP")) {
+                return;
+            }
+            logger.error("Error creating Redis stream group: {} on {}", group, key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    /**
+     * Append an entry, trimming the stream to roughly maxLen entries
+     */
+    public RecordId xadd(String key, Map<String, Object> fields, long maxLen) {
+        try {
+            return redisTemplate.opsForStream().add(key, fields,
+                    RedisStreamCommands.XAddOptions.maxlen(maxLen).approximateTrimming(true));
+        } catch (Exception e) {
+            logger.error("Error appending to Redis stream: {}", key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    /**
+     * Read up to count new entries for the consumer (XREADGROUP ... >), without blocking
+     */
+    public List<MapRecord<String, Object, Object>> xreadGroup(String key, String group, String consumer, long count) {
+        try {
+            return redisTemplate.<Object, Object>opsForStream().read(
+                    org.springframework.data.redis.connection.stream.Consumer.from(group, consumer),
+                    StreamReadOptions.empty().count(count), StreamOffset.create(key, ReadOffset.lastConsumed()));
+        } catch (Exception e) {
+            logger.error("Error reading Redis stream: {}", key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    public Long xack(String key, String group, RecordId... ids) {
+        try {
+            return redisTemplate.opsForStream().acknowledge(key, group, ids);
+        } catch (Exception e) {
+            logger.error("Error acknowledging Redis stream entries: {}", key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    /**
+     * Acknowledge and remove entries (XACK + XDEL, one round-trip), so handled
+     * entries don't stay in the stream until MAXLEN trims them
+     */
+    public void xackDel(String key, String group, RecordId... ids) {
+        executePipelined(ops -> {
+            ops.opsForStream().acknowledge(key, group, ids);
+            ops.opsForStream().delete(key, ids);
+        });
+    }
+
+    /**
+     * Oldest entries delivered but not yet acknowledged (any consumer)
+     */
+    public PendingMessages xpending(String key, String group, long count) {
+        try {
+            return redisTemplate.opsForStream().pending(key, group, Range.unbounded(), count);
+        } catch (Exception e) {
+            logger.error("Error reading pending Redis stream entries: {}", key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    /**
+     * Take over entries idle for at least minIdle (their consumer died or failed)
+     */
+    public List<MapRecord<String, Object, Object>> xclaim(String key, String group, String consumer,
+                                                          Duration minIdle, RecordId... ids) {
+        try {
+            return redisTemplate.<Object, Object>opsForStream().claim(key, group, consumer, minIdle, ids);
+        } catch (Exception e) {
+            logger.error("Error claiming Redis stream entries: {}", key, e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    // -------- TRANSACTIONS / PIPELINES --------
+    /**
+     * Run the commands atomically (MULTI ... EXEC) on one connection
+     *
+     * @return Results of the queued commands, in order
+     */
+    public List<Object> executeInTransaction(Consumer<RedisOperations<String, Object>> commands) {
+        try {
+            return redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                    operations.multi();
+                    commands.accept((RedisOperations<String, Object>) operations);
+                    return operations.exec();
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Error executing Redis transaction", e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    /**
+     * Run work on one dedicated connection (needed for WATCH ... MULTI ... EXEC)
+     */
+    public <T> T executeInSession(Function<RedisOperations<String, Object>, T> work) {
+        try {
+            return redisTemplate.execute(new SessionCallback<T>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> T execute(RedisOperations<K, V> operations) {
+                    return work.apply((RedisOperations<String, Object>) operations);
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Error executing Redis session", e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
+    /**
+     * Send the commands in one pipeline (single round-trip, not atomic)
+     *
+     * @return Results of the commands, in order
+     */
+    public List<Object> executePipelined(Consumer<RedisOperations<String, Object>> commands) {
+        try {
+            return redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    commands.accept((RedisOperations<String, Object>) operations);
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Error executing Redis pipeline", e);
+            throw new RuntimeException("Redis operation failed", e);
+        }
+    }
+
     /**
      * Get time-to-live (TTL) for a key in seconds
      * 
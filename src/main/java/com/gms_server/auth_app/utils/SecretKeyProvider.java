@@ -0,0 +1,84 @@
+package com.gms_server.auth_app.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * ============================================
+ * SECRET KEY PROVIDER
+ * ============================================
+ *
+ * Derives purpose-bound keys from a single master secret (auth.secret).
+ * Each feature (PKCE state envelope, session cookies, ...) asks for its own
+ * purpose label, so one leaked derived key never unlocks another feature.
+ *
+ * The master secret must be identical on every instance, otherwise values
+ * sealed by one container cannot be opened by another.
+ */
+@Component
+public class SecretKeyProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecretKeyProvider.class);
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final byte[] masterSecret;
+
+    public SecretKeyProvider(@Value("${auth.secret:}") String secret) {
+        this.masterSecret = decode(secret);
+        if (masterSecret.length == 0) {
+            logger.info("🔑 [CONFIG] No auth.secret configured - features requiring derived keys stay disabled");
+        }
+    }
+
+    /**
+     * @return true if a master secret is configured
+     */
+    public boolean isConfigured() {
+        return masterSecret.length > 0;
+    }
+
+    /**
+     * Derive a 256-bit key for the given purpose.
+     *
+     * @param purpose Stable label, e.g. "pkce-state"
+     * @return 32 key bytes
+     * @throws IllegalStateException if no master secret is configured
+     */
+    public byte[] deriveKey(String purpose) {
+        if (!isConfigured()) {
+            throw new IllegalStateException("🚨 [SECURITY] auth.secret MUST be configured to derive key for: " + purpose);
+        }
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(masterSecret, HMAC_ALGORITHM));
+            return mac.doFinal(("gms-auth:" + purpose).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Key derivation failed for: " + purpose, e);
+        }
+    }
+
+    private static byte[] decode(String secret) {
+        if (secret == null || secret.isBlank()) {
+            return new byte[0];
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("🚨 [SECURITY] auth.secret must be Base64 encoded", e);
+        }
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("🚨 [SECURITY] auth.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,105 @@
+package com.gms_server.auth_app.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DrbgParameters;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * ============================================
+ * HIGH-THROUGHPUT CSPRNG + DIGEST PROVIDER
+ * ============================================
+ *
+ * A single shared SecureRandom (and UUID.randomUUID()) serializes every login
+ * on one lock. This provider gives each thread its own:
+ * - NIST SP 800-90A DRBG (Hash_DRBG, 256-bit strength), seeded from the
+ *   system entropy source once per thread
+ * - Random byte buffer refilled in bulk, so small draws (state, IDs)
+ *   don't pay the DRBG call overhead each time
+ * - Reusable SHA-256 MessageDigest
+ *
+ * Nothing is shared between threads, so throughput scales with cores.
+ * Buffered bytes are consumed exactly once and never handed to two callers.
+ */
+public final class SecureRandomGenerator {
+
+    private static final int BUFFER_BYTES = 4096;
+    private static final Base64.Encoder base64UrlEncoder = Base64.getUrlEncoder().withoutPadding();
+
+    private static final ThreadLocal<PerThread> perThread = ThreadLocal.withInitial(PerThread::new);
+
+    private SecureRandomGenerator() {
+    }
+
+    /**
+     * Fill the array with random bytes
+     */
+    public static void nextBytes(byte[] out) {
+        perThread.get().nextBytes(out);
+    }
+
+    /**
+     * Random bytes encoded as base64url without padding
+     *
+     * @param byteLength Number of random bytes (entropy = 8 * byteLength bits)
+     */
+    public static String randomToken(int byteLength) {
+        byte[] bytes = new byte[byteLength];
+        nextBytes(bytes);
+        return base64UrlEncoder.encodeToString(bytes);
+    }
+
+    /**
+     * SHA-256 using a per-thread MessageDigest
+     */
+    public static byte[] sha256(byte[] input) {
+        MessageDigest digest = perThread.get().sha256;
+        digest.reset();
+        return digest.digest(input);
+    }
+
+    /**
+     * SHA-256 of an ASCII string, encoded as base64url without padding
+     */
+    public static String sha256Base64Url(String input) {
+        return base64UrlEncoder.encodeToString(sha256(input.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static final class PerThread {
+        private final SecureRandom drbg;
+        private final MessageDigest sha256;
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position = BUFFER_BYTES;
+
+        PerThread() {
+            try {
+                byte[] personalization = ("gms-auth-" + System.identityHashCode(Thread.currentThread()) + "-" + System.nanoTime())
+                        .getBytes(StandardCharsets.US_ASCII);
+                this.drbg = SecureRandom.getInstance("DRBG",
+                        DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, personalization));
+                this.sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("DRBG or SHA-256 not supported", e);
+            }
+        }
+
+        void nextBytes(byte[] out) {
+            if (out.length > BUFFER_BYTES / 4) {
+                // Large draws bypass the buffer
+                drbg.nextBytes(out);
+                return;
+            }
+            if (BUFFER_BYTES - position < out.length) {
+                drbg.nextBytes(buffer);
+                position = 0;
+            }
+            System.arraycopy(buffer, position, out, 0, out.length);
+            // Wipe consumed bytes so they can never be served twice
+            Arrays.fill(buffer, position, position + out.length, (byte) 0);
+            position += out.length;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.gms_server.auth_app.utils;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * ============================================
+ * SERVER-TIMING BREAKDOWN (opt-in)
+ * ============================================
+ *
+ * Per-request stage timings for verify and the login callback, returned as
+ *
+ *   Server-Timing: session_fetch;dur=0.81, token_validation;dur=42.13, token_refresh;dur=35.2, total;dur=79.04
+ *
+ * (ms, same stage names as the auth.stage timer) and optionally logged for a
+ * sample of requests as one key=value line.
+ *
+ * The entry point opens a collector for the current thread; AuthMetrics feeds
+ * every stage it times into it. Stages of one name are summed (e.g. token
+ * validation before and after a refresh). No stages = answered from the
+ * decision cache.
+ *
+ * Disabled (default): begin() returns null and record() returns on a final
+ * field check - no allocation, no thread-local access.
+ * Timings are visible to clients; enable only where that is acceptable.
+ */
+@Component
+public class ServerTiming {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerTiming.class);
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<Timings> current = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final double logSampleRate;
+
+    public ServerTiming(@Value("${server-timing.enabled:false}") boolean enabled,
+                        @Value("${server-timing.log-sample-rate:0}") double logSampleRate) {
+        this.enabled = enabled;
+        this.logSampleRate = logSampleRate;
+        if (enabled) {
+            logger.info("⏱️ [CONFIG] Server-Timing enabled (log sample rate: {})", logSampleRate);
+        }
+    }
+
+    /**
+     * Open the collector for this request; null when disabled or one is already open
+     */
+    public Timings begin(String operation) {
+        if (!enabled || current.get() != null) {
+            return null;
+        }
+        Timings timings = new Timings(operation);
+        current.set(timings);
+        return timings;
+    }
+
+    public void record(String stage, String persona, long elapsedNanos) {
+        if (!enabled) {
+            return;
+        }
+        Timings timings = current.get();
+        if (timings != null) {
+            timings.add(stage, persona, elapsedNanos);
+        }
+    }
+
+    /**
+     * Set persona and status, emit the header through the sink and close the collector
+     */
+    public void finish(Timings timings, String persona, int status, BiConsumer<String, String> responseHeaders) {
+        if (timings == null) {
+            return;
+        }
+        timings.persona = persona;
+        timings.status = status;
+        if (responseHeaders != null) {
+            responseHeaders.accept(HEADER, timings.header());
+        }
+        end(timings);
+    }
+
+    /**
+     * Close the collector (header already sent, e.g. through respond()); logs when sampled
+     */
+    public void end(Timings timings) {
+        if (timings == null) {
+            return;
+        }
+        current.remove();
+        if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+            logger.info("⏱️ [TIMING] {}", timings.logLine());
+        }
+    }
+
+    /**
+     * Response that adds the header right before a redirect or error commits it
+     * (the callback answers through sendRedirect / sendError); the response itself when disabled
+     */
+    public HttpServletResponse respond(Timings timings, HttpServletResponse response) {
+        return timings == null ? response : new TimedResponse(response, timings);
+    }
+
+    /**
+     * Collected stages of one request; touched by the request thread only
+     */
+    public static final class Timings {
+
+        private final long startNanos = System.nanoTime();
+        private final String operation;
+        // From the entry point, else the first stage with a known persona
+        private String persona;
+        private int status;
+        private String[] stages = new String[6];
+        private long[] nanos = new long[6];
+        private int size;
+
+        private Timings(String operation) {
+            this.operation = operation;
+        }
+
+        private void add(String stage, String stagePersona, long elapsedNanos) {
+            if (persona == null && !AuthMetrics.UNKNOWN_PERSONA.equals(stagePersona)
+                    && !AuthMetrics.MIXED_PERSONAS.equals(stagePersona)) {
+                persona = stagePersona;
+            }
+            for (int i = 0; i < size; i++) {
+                if (stages[i].equals(stage)) {
+                    nanos[i] += elapsedNanos;
+                    return;
+                }
+            }
+            if (size == stages.length) {
+                stages = Arrays.copyOf(stages, size * 2);
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            stages[size] = stage;
+            nanos[size++] = elapsedNanos;
+        }
+
+        String header() {
+            StringBuilder header = new StringBuilder(24 * (size + 1));
+            for (int i = 0; i < size; i++) {
+                header.append(stages[i]).append(";dur=").append(millis(nanos[i])).append(", ");
+            }
+            return header.append("total;dur=").append(millis(System.nanoTime() - startNanos)).toString();
+        }
+
+        String logLine() {
+            StringBuilder line = new StringBuilder(64 + 24 * size)
+                    .append("operation=").append(operation)
+                    .append(" persona=").append(persona != null ? persona : AuthMetrics.UNKNOWN_PERSONA)
+                    .append(" status=").append(status)
+                    .append(" total_ms=").append(millis(System.nanoTime() - startNanos));
+            for (int i = 0; i < size; i++) {
+                line.append(' ').append(stages[i]).append("_ms=").append(millis(nanos[i]));
+            }
+            return line.toString();
+        }
+
+        /** ms rounded to 0.01 */
+        private static double millis(long nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+
+    private static final class TimedResponse extends HttpServletResponseWrapper {
+
+        private final Timings timings;
+
+        TimedResponse(HttpServletResponse response, Timings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            stamp(SC_FOUND);
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            stamp(sc);
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            stamp(sc);
+            super.sendError(sc, msg);
+        }
+
+        private void stamp(int status) {
+            if (!isCommitted()) {
+                timings.status = status;
+                setHeader(HEADER, timings.header());
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.gms_server.auth_app.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * ============================================
+ * SIGNED SESSION IDs
+ * ============================================
+ *
+ * Session IDs carry their issue time and a truncated HMAC:
+ *
+ *   <random 256 bit>.<issuedAt, epoch seconds base36>.<HMAC-SHA256, 128 bit>
+ *
+ * so forged, mangled or long-expired IDs are rejected in memory,
+ * before any Redis lookup. The key is derived from auth.secret
+ * ("session-id"); without it, plain random IDs are issued.
+ */
+@Component
+public class SessionIdSigner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionIdSigner.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SESSION_ID_BYTES = 32;
+    private static final int MAC_BYTES = 16;
+    private static final int RANDOM_CHARS = 43;
+    private static final int MAC_CHARS = 22;
+    private static final int MAX_TIMESTAMP_CHARS = 8;
+    private static final long MAX_CLOCK_SKEW_SECONDS = 300;
+
+    private static final Base64.Encoder base64UrlEncoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder base64UrlDecoder = Base64.getUrlDecoder();
+
+    public enum Result {
+        /** MAC and issue time check out */
+        VALID,
+        /** Legacy UUID (issued before signing existed), or a plain random ID while signing is off */
+        UNSIGNED,
+        /** Forged, malformed or older than the session TTL */
+        INVALID
+    }
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public SessionIdSigner(SecretKeyProvider secretKeyProvider) {
+        if (secretKeyProvider.isConfigured()) {
+            this.key = new SecretKeySpec(secretKeyProvider.deriveKey("session-id"), HMAC_ALGORITHM);
+            this.macs = ThreadLocal.withInitial(this::newMac);
+            logger.info("🔑 [CONFIG] Session IDs are HMAC-signed");
+        } else {
+            this.key = null;
+            this.macs = null;
+            logger.warn("⚠️ [CONFIG] No auth.secret - session IDs are issued unsigned and every unknown "
+                    + "session cookie costs a Redis lookup; set auth.secret to reject forged IDs in memory");
+        }
+    }
+
+    public boolean isEnabled() {
+        return key != null;
+    }
+
+    /**
+     * New session ID (signed if a key is available)
+     */
+    public String issue() {
+        String random = SecureRandomGenerator.randomToken(SESSION_ID_BYTES);
+        if (!isEnabled()) {
+            return random;
+        }
+        String body = random + "." + Long.toString(Instant.now().getEpochSecond(), 36);
+        return body + "." + base64UrlEncoder.encodeToString(mac(body));
+    }
+
+    /**
+     * Check a session ID presented by a client - no I/O.
+     *
+     * @param maxAgeSeconds Session TTL; older signed IDs are INVALID
+     */
+    public Result verify(String sessionId, long maxAgeSeconds) {
+        if (sessionId == null) {
+            return Result.INVALID;
+        }
+        int firstDot = sessionId.indexOf('.');
+        if (firstDot < 0) {
+            // UUIDs from before signing existed; plain 43-char random IDs are only
+            // issued without a key, so with one they are forgeries
+            return ValidationUtils.isUuidFormat(sessionId)
+                    || (!isEnabled() && sessionId.length() == RANDOM_CHARS && isBase64Url(sessionId, 0, RANDOM_CHARS))
+                    ? Result.UNSIGNED
+                    : Result.INVALID;
+        }
+        int lastDot = sessionId.lastIndexOf('.');
+        if (!isEnabled()
+                || firstDot != RANDOM_CHARS
+                || lastDot - firstDot - 1 < 1 || lastDot - firstDot - 1 > MAX_TIMESTAMP_CHARS
+                || sessionId.length() - lastDot - 1 != MAC_CHARS) {
+            return Result.INVALID;
+        }
+
+        long issuedAt;
+        try {
+            issuedAt = Long.parseLong(sessionId.substring(firstDot + 1, lastDot), 36);
+        } catch (NumberFormatException e) {
+            return Result.INVALID;
+        }
+        long now = Instant.now().getEpochSecond();
+        if (issuedAt > now + MAX_CLOCK_SKEW_SECONDS || issuedAt + maxAgeSeconds < now) {
+            return Result.INVALID;
+        }
+
+        byte[] presented;
+        try {
+            presented = base64UrlDecoder.decode(sessionId.substring(lastDot + 1));
+        } catch (IllegalArgumentException e) {
+            return Result.INVALID;
+        }
+        // Constant-time comparison
+        return MessageDigest.isEqual(presented, mac(sessionId.substring(0, lastDot)))
+                ? Result.VALID
+                : Result.INVALID;
+    }
+
+    /**
+     * Issue time (epoch seconds) embedded in a signed ID, or -1 for unsigned/malformed IDs.
+     * Only meaningful after verify() returned VALID.
+     */
+    public long issuedAt(String sessionId) {
+        int firstDot = sessionId.indexOf('.');
+        int lastDot = sessionId.lastIndexOf('.');
+        if (firstDot < 0 || lastDot <= firstDot) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(sessionId.substring(firstDot + 1, lastDot), 36);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private byte[] mac(String body) {
+        Mac mac = macs.get();
+        return Arrays.copyOf(mac.doFinal(body.getBytes(StandardCharsets.US_ASCII)), MAC_BYTES);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+
+    private static boolean isBase64Url(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
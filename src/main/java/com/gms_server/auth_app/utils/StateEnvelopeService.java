@@ -0,0 +1,179 @@
+package com.gms_server.auth_app.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * ============================================
+ * STATELESS PKCE STATE ENVELOPE
+ * ============================================
+ *
+ * Seals the PKCE code verifier, persona and a one-time nonce into the OAuth
+ * "state" parameter so /auth/start does not write anything to Redis.
+ *
+ * FORMAT (base64url, no padding):
+ *   version(1) | iv(12) | AES-256-GCM( issuedAt(8) | nonce(16) | personaLen(1) | persona | verifier ) | tag(16)
+ *
+ * GCM authenticates the whole envelope, so a tampered or forged state fails
+ * to open. Expiry is checked against issuedAt; replay protection is done by
+ * the caller with the returned nonce (one SET NX per callback).
+ */
+@Component
+public class StateEnvelopeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateEnvelopeService.class);
+
+    private static final byte VERSION = 1;
+    private static final int IV_BYTES = 12;
+    private static final int NONCE_BYTES = 16;
+    private static final int TAG_BITS = 128;
+    private static final byte[] AAD = "pkce-state-v1".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Base64.Encoder base64UrlEncoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder base64UrlDecoder = Base64.getUrlDecoder();
+
+    private final SecretKeyProvider secretKeyProvider;
+    private final long ttlSeconds;
+    private volatile SecretKeySpec key;
+
+    public StateEnvelopeService(SecretKeyProvider secretKeyProvider,
+                                @Value("${auth.state.ttl-seconds:600}") long ttlSeconds) {
+        this.secretKeyProvider = secretKeyProvider;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Seal verifier and persona into an opaque state value.
+     */
+    public String seal(String codeVerifier, String persona) {
+        byte[] personaBytes = persona.getBytes(StandardCharsets.US_ASCII);
+        byte[] verifierBytes = codeVerifier.getBytes(StandardCharsets.US_ASCII);
+        if (personaBytes.length > 255) {
+            throw new IllegalArgumentException("Persona name too long for state envelope");
+        }
+
+        byte[] nonce = new byte[NONCE_BYTES];
+        byte[] iv = new byte[IV_BYTES];
+        SecureRandomGenerator.nextBytes(nonce);
+        SecureRandomGenerator.nextBytes(iv);
+
+        ByteBuffer plain = ByteBuffer.allocate(8 + NONCE_BYTES + 1 + personaBytes.length + verifierBytes.length);
+        plain.putLong(Instant.now().getEpochSecond())
+                .put(nonce)
+                .put((byte) personaBytes.length)
+                .put(personaBytes)
+                .put(verifierBytes);
+
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key(), new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(AAD);
+            byte[] sealed = cipher.doFinal(plain.array());
+
+            ByteBuffer out = ByteBuffer.allocate(1 + IV_BYTES + sealed.length);
+            out.put(VERSION).put(iv).put(sealed);
+            return base64UrlEncoder.encodeToString(out.array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to seal PKCE state", e);
+        }
+    }
+
+    /**
+     * Open and validate a state value.
+     *
+     * @return the payload, or null if the envelope is malformed, forged, expired or
+     *         envelopes are not configured (no auth.secret)
+     */
+    public Payload open(String state) {
+        if (!secretKeyProvider.isConfigured()) {
+            // No envelopes are issued without a secret, so any envelope-shaped state is invalid input
+            logger.debug("🔍 [STATE] State envelopes not configured");
+            return null;
+        }
+        byte[] raw;
+        try {
+            raw = base64UrlDecoder.decode(state);
+        } catch (IllegalArgumentException e) {
+            logger.debug("🔍 [STATE] State is not base64url");
+            return null;
+        }
+        if (raw.length < 1 + IV_BYTES + TAG_BITS / 8 || raw[0] != VERSION) {
+            logger.debug("🔍 [STATE] Unsupported state envelope");
+            return null;
+        }
+
+        byte[] plain;
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key(), new GCMParameterSpec(TAG_BITS, raw, 1, IV_BYTES));
+            cipher.updateAAD(AAD);
+            plain = cipher.doFinal(raw, 1 + IV_BYTES, raw.length - 1 - IV_BYTES);
+        } catch (GeneralSecurityException e) {
+            logger.warn("⚠️ [STATE] State envelope failed authentication");
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(plain);
+        if (buffer.remaining() < 8 + NONCE_BYTES + 1) {
+            return null;
+        }
+        long issuedAt = buffer.getLong();
+        byte[] nonce = new byte[NONCE_BYTES];
+        buffer.get(nonce);
+        int personaLength = buffer.get() & 0xFF;
+        if (buffer.remaining() <= personaLength) {
+            return null;
+        }
+        byte[] personaBytes = new byte[personaLength];
+        buffer.get(personaBytes);
+        byte[] verifierBytes = new byte[buffer.remaining()];
+        buffer.get(verifierBytes);
+
+        long age = Instant.now().getEpochSecond() - issuedAt;
+        if (age < 0 || age > ttlSeconds) {
+            logger.warn("⚠️ [STATE] State envelope expired (age: {}s)", age);
+            return null;
+        }
+
+        return new Payload(
+                new String(verifierBytes, StandardCharsets.US_ASCII),
+                new String(personaBytes, StandardCharsets.US_ASCII),
+                base64UrlEncoder.encodeToString(nonce),
+                ttlSeconds - age);
+    }
+
+    private SecretKeySpec key() {
+        SecretKeySpec current = key;
+        if (current == null) {
+            current = new SecretKeySpec(secretKeyProvider.deriveKey("pkce-state"), "AES");
+            key = current;
+        }
+        return current;
+    }
+
+    /**
+     * Opened state envelope.
+     *
+     * @param codeVerifier     PKCE code verifier
+     * @param persona          Persona the flow was started for
+     * @param nonce            One-time nonce used for replay protection
+     * @param remainingSeconds Seconds until the envelope expires
+     */
+    public record Payload(String codeVerifier, String persona, String nonce, long remainingSeconds) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.gms_server.auth_app.utils;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Reads claims from JWT access tokens WITHOUT verifying the signature.
+ *
+ * Only for tokens we obtained ourselves from Zitadel (stored in the session),
+ * e.g. to bound how long stale data may be served. Never use it to
+ * authenticate a token presented by a client.
+ */
+public final class TokenClaims {
+
+    private TokenClaims() {
+    }
+
+    /**
+     * Expiry of a JWT access token, or null for opaque / unparseable tokens
+     */
+    public static Instant expiresAt(String token) {
+        if (token == null || token.indexOf('.') < 0) {
+            return null;
+        }
+        try {
+            JWTClaimsSet claims = JWTParser.parse(token).getJWTClaimsSet();
+            Date exp = claims.getExpirationTime();
+            return exp != null ? exp.toInstant() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class ValidationUtils {
     private static final Pattern UUID_PATTERN = Pattern.compile(
             "^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$");
     private static final Pattern ALPHANUMERIC_PATTERN = Pattern.compile("^[a-zA-Z0-9_-]+$");
+    private static final Pattern STATE_ENVELOPE_PATTERN = Pattern.compile("^[A-Za-z0-9_-]{16,512}$");
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
             "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
 
@@ -35,21 +36,22 @@ public class ValidationUtils {
      * Validates UUID format (for session IDs, state, etc.)
      */
     public boolean isValidUUID(String uuid) {
-        return uuid != null && UUID_PATTERN.matcher(uuid.toLowerCase()).matches();
+        return isUuidFormat(uuid);
     }
 
     /**
-     * Validates session ID (must be UUID format)
+     * Static form of isValidUUID, for code outside Spring wiring (legacy state / session ID checks)
      */
-    public boolean isValidSessionId(String sessionId) {
-        return isValidUUID(sessionId);
+    public static boolean isUuidFormat(String value) {
+        return value != null && UUID_PATTERN.matcher(value.toLowerCase()).matches();
     }
 
     /**
-     * Validates state parameter (must be UUID format)
+     * Validates state parameter
+     * Random token / legacy UUID (Redis-backed state) or base64url envelope (stateless state)
      */
     public boolean isValidState(String state) {
-        return isValidUUID(state);
+        return isValidUUID(state) || (state != null && STATE_ENVELOPE_PATTERN.matcher(state).matches());
     }
 
     /**
@@ -14,15 +14,18 @@ import java.util.Map;
 @Service
 public class ZitadelApiService {
     private static final Logger logger = LoggerFactory.getLogger(ZitadelApiService.class);
-    private final WebClient webClient;
+    private final ZitadelClientRegistry clientRegistry;
+    private final ZitadelResilience resilience;
 
-    public ZitadelApiService(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder.build();
+    public ZitadelApiService(ZitadelClientRegistry clientRegistry, ZitadelResilience resilience) {
+        this.clientRegistry = clientRegistry;
+        this.resilience = resilience;
     }
 
     public Mono<Map> exchangeCodeForTokens(String code, String codeVerifier, PersonaConfig config) {
         logger.info("Exchanging code for tokens with client_id: {}", config.getClientId());
-        return webClient.post()
+        // Authorization codes are single-use: only retried if the connection never opened
+        return resilience.execute(config.getIssuer(), "token", false, () -> clientRegistry.forIssuer(config.getIssuer()).post()
                 .uri(config.getIssuer() + "/oauth/v2/token")
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
                 .body(BodyInserters.fromFormData("grant_type", "authorization_code")
@@ -32,7 +35,7 @@ public class ZitadelApiService {
                         .with("code_verifier", codeVerifier)
                 )
                 .retrieve()
-                .bodyToMono(Map.class)
+                .bodyToMono(Map.class))
                 .doOnError(error -> {
                     if (error instanceof org.springframework.web.reactive.function.client.WebClientResponseException ex) {
                         logger.error("Token exchange failed with status: {}, body: {}", ex.getStatusCode(), ex.getResponseBodyAsString());
@@ -41,12 +44,12 @@ public class ZitadelApiService {
     }
 
     public Mono<Map> getUserInfo(String accessToken, String issuer) {
-        return webClient.get()
-                .uri(issuer + "/oidc/v1/userinfo")
-                .header("Authorization", "Bearer " + accessToken)
-                .retrieve()
-                .bodyToMono(Map.class)
-                .retry(2)
+        // Idempotent read: hedged against tail latency, retried within the retry budget
+        return resilience.execute(issuer, "userinfo", true, () -> clientRegistry.forIssuer(issuer).get()
+                        .uri(issuer + "/oidc/v1/userinfo")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .retrieve()
+                        .bodyToMono(Map.class))
                 .doOnError(error -> logger.error("Failed to get user info after retries: {}", error.getMessage()));
     }
 
@@ -82,7 +85,7 @@ public class ZitadelApiService {
         if (managementToken == null || managementToken.isBlank()) {
             return Mono.just(false);
         }
-        return webClient.post()
+        return clientRegistry.forIssuer(issuer).post()
                 .uri(issuer + "/management/v1/users/{userId}/grants", userId)
                 .contentType(MediaType.APPLICATION_JSON)
                 .header("Authorization", "Bearer " + managementToken)
@@ -104,8 +107,25 @@ public class ZitadelApiService {
     }
 
 
+    /**
+     * RFC 7662 token introspection, authenticated with the persona's client credentials.
+     * Returns the claims (active, exp, roles...) in one call - works for opaque tokens.
+     */
+    public Mono<Map> introspectToken(String accessToken, PersonaConfig config) {
+        return resilience.execute(config.getIssuer(), "introspect", true, () -> clientRegistry.forIssuer(config.getIssuer()).post()
+                        .uri(config.getIssuer() + "/oauth/v2/introspect")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .headers(headers -> headers.setBasicAuth(config.getClientId(), config.getClientSecret()))
+                        .body(BodyInserters.fromFormData("token", accessToken)
+                                .with("token_type_hint", "access_token"))
+                        .retrieve()
+                        .bodyToMono(Map.class))
+                .doOnError(error -> logger.error("Token introspection failed: {}", error.getMessage()));
+    }
+
     public Mono<Map> refreshTokens(String refreshToken, PersonaConfig config) {
-        return webClient.post()
+        // Refresh tokens may rotate on use: only retried if the connection never opened
+        return resilience.execute(config.getIssuer(), "token", false, () -> clientRegistry.forIssuer(config.getIssuer()).post()
                 .uri(config.getIssuer() + "/oauth/v2/token")
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
                 .body(BodyInserters.fromFormData("grant_type", "refresh_token")
@@ -113,6 +133,22 @@ public class ZitadelApiService {
                         .with("refresh_token", refreshToken)
                 )
                 .retrieve()
-                .bodyToMono(Map.class);
+                .bodyToMono(Map.class));
+    }
+
+    /**
+     * Revoke a token at the IdP (RFC 7009). Unknown or already revoked tokens also answer 200.
+     */
+    public Mono<Void> revokeToken(String token, String tokenTypeHint, PersonaConfig config) {
+        // Revocation is idempotent: safe to hedge and retry
+        return resilience.execute(config.getIssuer(), "revoke", true, () -> clientRegistry.forIssuer(config.getIssuer()).post()
+                        .uri(config.getIssuer() + "/oauth/v2/revoke")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .body(BodyInserters.fromFormData("token", token)
+                                .with("token_type_hint", tokenTypeHint)
+                                .with("client_id", config.getClientId()))
+                        .retrieve()
+                        .toBodilessEntity())
+                .then();
     }
 }
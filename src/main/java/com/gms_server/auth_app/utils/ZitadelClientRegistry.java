@@ -0,0 +1,191 @@
+package com.gms_server.auth_app.utils;
+
+import com.gms_server.auth_app.services.PersonaService;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.tcp.SslProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ============================================
+ * PER-ISSUER ZITADEL CLIENT REGISTRY
+ * ============================================
+ *
+ * One WebClient + connection pool per issuer instead of one shared pool:
+ * 1. HTTP/2 multiplexing (negotiated via ALPN, falls back to HTTP/1.1)
+ * 2. Long-lived connections + shared TLS context, so reconnects resume the
+ *    TLS session instead of doing a full handshake
+ * 3. Warm-up on startup: connections to every persona issuer are opened
+ *    before the first login arrives
+ * 4. Pool metrics (Micrometer, reactor.netty.connection.provider.*):
+ *    active/idle/pending connections, acquire latency, active streams
+ *
+ * A slow issuer can only exhaust its own pool.
+ */
+@Component
+public class ZitadelClientRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZitadelClientRegistry.class);
+
+    private final WebClient.Builder webClientBuilder;
+    private final PersonaService personaService;
+    private final Map<String, IssuerClient> clients = new ConcurrentHashMap<>();
+
+    @Value("${zitadel.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${zitadel.http.max-idle-seconds:45}")
+    private long maxIdleSeconds;
+
+    @Value("${zitadel.http.max-life-minutes:30}")
+    private long maxLifeMinutes;
+
+    @Value("${zitadel.http.pending-acquire-timeout-ms:2000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${zitadel.http.http2-enabled:true}")
+    private boolean http2Enabled;
+
+    @Value("${zitadel.http.max-concurrent-streams:100}")
+    private int maxConcurrentStreams;
+
+    @Value("${zitadel.http.tls-session-cache-size:1024}")
+    private long tlsSessionCacheSize;
+
+    @Value("${zitadel.http.tls-session-timeout-seconds:3600}")
+    private long tlsSessionTimeoutSeconds;
+
+    @Value("${zitadel.http.warmup-connections:4}")
+    private int warmupConnections;
+
+    public ZitadelClientRegistry(WebClient.Builder webClientBuilder, PersonaService personaService) {
+        this.webClientBuilder = webClientBuilder;
+        this.personaService = personaService;
+    }
+
+    /**
+     * WebClient dedicated to the given issuer (created on first use)
+     */
+    public WebClient forIssuer(String issuer) {
+        return clients.computeIfAbsent(issuer, this::createClient).webClient();
+    }
+
+    /**
+     * Open connections to every configured persona issuer once the app is ready.
+     * Runs asynchronously - a slow or unreachable issuer never delays startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmupConnections <= 0) {
+            return;
+        }
+        Set<String> issuers = new LinkedHashSet<>();
+        for (String persona : personaService.getSupportedPersonas()) {
+            String issuer = personaService.getPersonaConfig(persona).getIssuer();
+            if (issuer != null && !issuer.isBlank()) {
+                issuers.add(issuer);
+            }
+        }
+
+        for (String issuer : issuers) {
+            WebClient client = forIssuer(issuer);
+            long start = System.nanoTime();
+            Flux.range(0, warmupConnections)
+                    .flatMap(i -> client.get()
+                            .uri(issuer + "/.well-known/openid-configuration")
+                            .retrieve()
+                            .toBodilessEntity()
+                            .onErrorResume(e -> {
+                                logger.warn("⚠️ [WARMUP] Warm-up request to {} failed: {}", issuer, e.getMessage());
+                                return Mono.empty();
+                            }))
+                    .then()
+                    .subscribe(v -> { }, e -> { }, () -> logger.info("🔥 [WARMUP] Connections to {} ready in {}ms",
+                            issuer, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.values().forEach(client -> client.connectionProvider().dispose());
+        clients.clear();
+    }
+
+    private IssuerClient createClient(String issuer) {
+        URI uri = URI.create(issuer);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        String poolName = "zitadel-" + uri.getHost();
+
+        ConnectionProvider.Builder poolBuilder = ConnectionProvider.builder(poolName)
+                .maxConnections(maxConnections)
+                .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                .maxLifeTime(Duration.ofMinutes(maxLifeMinutes))
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true);
+
+        boolean useHttp2 = http2Enabled && secure;
+        if (useHttp2) {
+            poolBuilder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(maxConnections)
+                    .maxConcurrentStreams(maxConcurrentStreams)
+                    .minConnections(1)
+                    .build());
+        }
+        ConnectionProvider connectionProvider = poolBuilder.build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 10000)
+                .responseTimeout(Duration.ofSeconds(10))
+                .doOnConnected(conn ->
+                        conn.addHandlerLast(new ReadTimeoutHandler(10, TimeUnit.SECONDS))
+                                .addHandlerLast(new WriteTimeoutHandler(10, TimeUnit.SECONDS)));
+
+        if (useHttp2) {
+            // One TLS context per issuer: its session cache enables TLS resumption on reconnect
+            SslProvider.GenericSslContextSpec<SslContextBuilder> sslSpec = Http2SslContextSpec.forClient()
+                    .configure(builder -> builder
+                            .sessionCacheSize(tlsSessionCacheSize)
+                            .sessionTimeout(tlsSessionTimeoutSeconds));
+            httpClient = httpClient
+                    .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                    .secure(spec -> spec.sslContext(sslSpec));
+        }
+
+        logger.info("⚙️ [CONFIG] Created client for issuer {} (pool: {}, max connections: {}, protocol: {})",
+                issuer, poolName, maxConnections, useHttp2 ? "h2,http/1.1" : "http/1.1");
+
+        WebClient webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new IssuerClient(webClient, connectionProvider);
+    }
+
+    private record IssuerClient(WebClient webClient, ConnectionProvider connectionProvider) {
+    }
+}
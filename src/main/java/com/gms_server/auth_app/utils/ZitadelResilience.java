@@ -0,0 +1,479 @@
+package com.gms_server.auth_app.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * ============================================
+ * ZITADEL RESILIENCE LAYER
+ * ============================================
+ *
+ * Wraps every outbound Zitadel call with:
+ * 1. Latency budget per attempt
+ * 2. Hedging (idempotent reads only): a second request is sent once the
+ *    first one is slower than the tracked p95 for that endpoint; the
+ *    first response wins
+ * 3. Retries with exponential backoff + jitter, limited by a per-issuer
+ *    retry budget (retries + hedges <= ratio of requests) so retries can't
+ *    amplify an outage
+ * 4. Circuit breaker per issuer (failure rate over a sliding window);
+ *    after the open period a few half-open probes decide whether to close
+ * 5. Adaptive concurrency limit per issuer (AdaptiveConcurrencyLimiter):
+ *    every physical request (including hedges) needs a permit
+ * 6. Per-attempt latency by endpoint and status (zitadel.requests, see AuthMetrics)
+ *
+ * When the circuit is open or the concurrency limit is reached the call fails
+ * immediately with ZitadelUnavailableException, so callers can serve stale data.
+ *
+ * Only transport errors, timeouts, 429 and 5xx count as failures.
+ * A 401 for an expired token is a normal answer, not an outage.
+ */
+@Component
+public class ZitadelResilience {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZitadelResilience.class);
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+    private final Map<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final AuthMetrics metrics;
+
+    @Value("${zitadel.resilience.attempt-timeout-ms:3000}")
+    private long attemptTimeoutMs;
+
+    @Value("${zitadel.resilience.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+
+    @Value("${zitadel.resilience.hedge.default-delay-ms:250}")
+    private long hedgeDefaultDelayMs;
+
+    @Value("${zitadel.resilience.hedge.min-delay-ms:20}")
+    private long hedgeMinDelayMs;
+
+    @Value("${zitadel.resilience.retry.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${zitadel.resilience.retry.base-backoff-ms:50}")
+    private long baseBackoffMs;
+
+    @Value("${zitadel.resilience.retry.max-backoff-ms:500}")
+    private long maxBackoffMs;
+
+    @Value("${zitadel.resilience.retry.budget-ratio:0.1}")
+    private double retryBudgetRatio;
+
+    @Value("${zitadel.resilience.retry.min-per-second:5}")
+    private int minRetriesPerSecond;
+
+    @Value("${zitadel.resilience.breaker.window-size:20}")
+    private int breakerWindowSize;
+
+    @Value("${zitadel.resilience.breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${zitadel.resilience.breaker.failure-rate-threshold:50}")
+    private int breakerFailureRateThreshold;
+
+    @Value("${zitadel.resilience.breaker.open-seconds:10}")
+    private long breakerOpenSeconds;
+
+    @Value("${zitadel.resilience.breaker.half-open-probes:3}")
+    private int breakerHalfOpenProbes;
+
+    public ZitadelResilience(AdaptiveConcurrencyLimiter limiter, AuthMetrics metrics) {
+        this.limiter = limiter;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Execute a Zitadel call through the resilience layer.
+     *
+     * @param issuer     Issuer URL (breaker and retry budget scope)
+     * @param endpoint   Endpoint label (latency tracking scope), e.g. "userinfo"
+     * @param idempotent true if the call may be hedged and retried after it reached the server
+     * @param call       Supplier creating a fresh request per attempt
+     */
+    public <T> Mono<T> execute(String issuer, String endpoint, boolean idempotent, Supplier<Mono<T>> call) {
+        CircuitBreaker breaker = breakers.computeIfAbsent(issuer, this::newBreaker);
+        RetryBudget budget = budgets.computeIfAbsent(issuer, i -> new RetryBudget(retryBudgetRatio, minRetriesPerSecond));
+        LatencyTracker tracker = trackers.computeIfAbsent(issuer + " " + endpoint, k -> new LatencyTracker());
+
+        Mono<T> attempt = Mono.defer(() -> {
+            int permission = breaker.tryAcquirePermission();
+            if (permission == CircuitBreaker.DENIED) {
+                return Mono.error(new ZitadelUnavailableException("Circuit open for Zitadel issuer", issuer));
+            }
+            boolean probe = permission == CircuitBreaker.PROBE;
+            budget.recordRequest();
+
+            Mono<T> physical = timed(issuer, endpoint, call, tracker);
+            Mono<T> guarded = idempotent && hedgeEnabled ? hedged(physical, tracker, budget, endpoint) : physical;
+
+            return guarded
+                    .timeout(Duration.ofMillis(attemptTimeoutMs))
+                    .doOnSuccess(value -> breaker.onSuccess(probe))
+                    .doOnError(error -> {
+                        if (error instanceof ZitadelUnavailableException) {
+                            // Shed by the limiter: says nothing about the issuer's health
+                            breaker.onCancel(probe);
+                        } else if (isFailure(error)) {
+                            breaker.onFailure(probe);
+                        } else {
+                            breaker.onSuccess(probe);
+                        }
+                    })
+                    .doOnCancel(() -> breaker.onCancel(probe));
+        });
+
+        return attempt.retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(baseBackoffMs))
+                .maxBackoff(Duration.ofMillis(maxBackoffMs))
+                .jitter(0.5)
+                .filter(error -> isRetryable(error, idempotent) && budget.tryAcquire())
+                .doBeforeRetry(signal -> logger.warn("🔁 [RESILIENCE] Retrying {} (attempt {}): {}",
+                        endpoint, signal.totalRetries() + 1, signal.failure().getMessage()))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Every physical request takes a limiter permit and records its latency,
+     * so the p95 and the concurrency limit reflect real responses.
+     * Each one is also recorded as zitadel.requests (endpoint, status).
+     */
+    private <T> Mono<T> timed(String issuer, String endpoint, Supplier<Mono<T>> call, LatencyTracker tracker) {
+        String issuerHost = AdaptiveConcurrencyLimiter.hostOf(issuer);
+        return Mono.defer(() -> {
+            AdaptiveConcurrencyLimiter.Permit permit;
+            try {
+                permit = limiter.acquire(issuer);
+            } catch (ZitadelUnavailableException e) {
+                return Mono.error(e);
+            }
+            long start = System.nanoTime();
+            return call.get()
+                    .doOnSuccess(value -> {
+                        long elapsed = System.nanoTime() - start;
+                        tracker.record(elapsed);
+                        permit.onSuccess();
+                        metrics.recordZitadelCall(issuerHost, endpoint, "200", elapsed);
+                    })
+                    .doOnError(error -> {
+                        metrics.recordZitadelCall(issuerHost, endpoint, statusOf(error), System.nanoTime() - start);
+                        if (isFailure(error)) {
+                            permit.onDropped();
+                        } else {
+                            // 4xx is still a timely answer
+                            permit.onSuccess();
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        // Cancelled by the attempt timeout = overload signal; hedge losers are ignored
+                        long elapsed = System.nanoTime() - start;
+                        if (elapsed >= TimeUnit.MILLISECONDS.toNanos(attemptTimeoutMs)) {
+                            permit.onDropped();
+                            metrics.recordZitadelCall(issuerHost, endpoint, "timeout", elapsed);
+                        } else {
+                            permit.onIgnore();
+                            metrics.recordZitadelCall(issuerHost, endpoint, "cancelled", elapsed);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Send a hedge request once the primary exceeds the tracked p95.
+     * The primary keeps running (cached); whichever answers first wins.
+     * A primary that fails before the hedge delay fails immediately - no hedge.
+     */
+    private <T> Mono<T> hedged(Mono<T> physical, LatencyTracker tracker, RetryBudget budget, String endpoint) {
+        Mono<T> primary = physical.cache();
+        Duration delay = Duration.ofNanos(tracker.hedgeDelayNanos(
+                TimeUnit.MILLISECONDS.toNanos(hedgeDefaultDelayMs), TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMs)));
+
+        return primary.timeout(delay, Mono.defer(() -> {
+                    if (!budget.tryAcquire()) {
+                        return primary;
+                    }
+                    logger.debug("🏁 [RESILIENCE] Hedging {} after {}ms", endpoint, delay.toMillis());
+                    return Mono.firstWithValue(primary, physical);
+                }))
+                .onErrorMap(NoSuchElementException.class, error -> error.getCause() != null
+                        ? Exceptions.unwrapMultiple(error.getCause()).get(0)
+                        : error);
+    }
+
+    /**
+     * Metric status tag: HTTP status code, "timeout" or "error" (transport)
+     */
+    private static String statusOf(Throwable error) {
+        if (error instanceof WebClientResponseException ex) {
+            return Integer.toString(ex.getStatusCode().value());
+        }
+        return error instanceof TimeoutException ? "timeout" : "error";
+    }
+
+    /**
+     * Outage signals: transport errors, timeouts, throttling and server errors
+     */
+    private static boolean isFailure(Throwable error) {
+        if (error instanceof WebClientResponseException ex) {
+            int status = ex.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    /**
+     * Non-idempotent calls (code exchange, refresh) are only retried when the
+     * connection was never established, so the server can't have processed them.
+     */
+    private static boolean isRetryable(Throwable error, boolean idempotent) {
+        if (error instanceof ZitadelUnavailableException) {
+            return false;
+        }
+        if (!idempotent) {
+            return error instanceof WebClientRequestException && error.getCause() instanceof ConnectException;
+        }
+        if (error instanceof WebClientResponseException ex) {
+            int status = ex.getStatusCode().value();
+            return status == 429 || status == 502 || status == 503 || status == 504;
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    private CircuitBreaker newBreaker(String issuer) {
+        return new CircuitBreaker(issuer, breakerWindowSize, breakerMinimumCalls, breakerFailureRateThreshold,
+                TimeUnit.SECONDS.toNanos(breakerOpenSeconds), breakerHalfOpenProbes);
+    }
+
+    /**
+     * ============================================
+     * CIRCUIT BREAKER
+     * ============================================
+     *
+     * CLOSED    → failure rate over the last N calls >= threshold → OPEN
+     * OPEN      → after open period → HALF_OPEN
+     * HALF_OPEN → limited probes; all succeed → CLOSED, any fails → OPEN
+     */
+    static final class CircuitBreaker {
+
+        static final int DENIED = 0;
+        static final int PERMITTED = 1;
+        static final int PROBE = 2;
+
+        private enum State { CLOSED, OPEN, HALF_OPEN }
+
+        private final String issuer;
+        private final boolean[] window;
+        private final int minimumCalls;
+        private final int failureRateThreshold;
+        private final long openNanos;
+        private final int halfOpenProbes;
+
+        private State state = State.CLOSED;
+        private int index;
+        private int calls;
+        private int failures;
+        private long openedAt;
+        private int probesInFlight;
+        private int probeSuccesses;
+
+        CircuitBreaker(String issuer, int windowSize, int minimumCalls, int failureRateThreshold,
+                       long openNanos, int halfOpenProbes) {
+            this.issuer = issuer;
+            this.window = new boolean[windowSize];
+            this.minimumCalls = minimumCalls;
+            this.failureRateThreshold = failureRateThreshold;
+            this.openNanos = openNanos;
+            this.halfOpenProbes = halfOpenProbes;
+        }
+
+        synchronized int tryAcquirePermission() {
+            if (state == State.CLOSED) {
+                return PERMITTED;
+            }
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return DENIED;
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probeSuccesses = 0;
+                logger.info("🟡 [CIRCUIT] Half-open for issuer {}, probing", issuer);
+            }
+            if (probesInFlight + probeSuccesses >= halfOpenProbes) {
+                return DENIED;
+            }
+            probesInFlight++;
+            return PROBE;
+        }
+
+        synchronized void onSuccess(boolean probe) {
+            if (probe) {
+                if (state != State.HALF_OPEN) {
+                    return;
+                }
+                probesInFlight--;
+                if (++probeSuccesses >= halfOpenProbes) {
+                    state = State.CLOSED;
+                    resetWindow();
+                    logger.info("🟢 [CIRCUIT] Closed for issuer {}", issuer);
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        }
+
+        synchronized void onFailure(boolean probe) {
+            if (probe) {
+                if (state == State.HALF_OPEN) {
+                    open();
+                }
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (calls >= minimumCalls && failures * 100 >= failureRateThreshold * calls) {
+                    open();
+                }
+            }
+        }
+
+        synchronized void onCancel(boolean probe) {
+            if (probe && state == State.HALF_OPEN && probesInFlight > 0) {
+                probesInFlight--;
+            }
+        }
+
+        private void record(boolean failure) {
+            if (calls == window.length) {
+                if (window[index]) {
+                    failures--;
+                }
+            } else {
+                calls++;
+            }
+            window[index] = failure;
+            if (failure) {
+                failures++;
+            }
+            index = (index + 1) % window.length;
+        }
+
+        private void open() {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            logger.error("🔴 [CIRCUIT] Opened for issuer {} ({}/{} recent calls failed)", issuer, failures, calls);
+            resetWindow();
+        }
+
+        private void resetWindow() {
+            Arrays.fill(window, false);
+            index = 0;
+            calls = 0;
+            failures = 0;
+        }
+    }
+
+    /**
+     * ============================================
+     * RETRY BUDGET
+     * ============================================
+     *
+     * Retries and hedges per second may not exceed
+     * max(minPerSecond, ratio * requests) for the issuer.
+     */
+    static final class RetryBudget {
+
+        private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private final double ratio;
+        private final int minPerSecond;
+        private long windowStart = System.nanoTime();
+        private int requests;
+        private int spent;
+
+        RetryBudget(double ratio, int minPerSecond) {
+            this.ratio = ratio;
+            this.minPerSecond = minPerSecond;
+        }
+
+        synchronized void recordRequest() {
+            roll();
+            requests++;
+        }
+
+        synchronized boolean tryAcquire() {
+            roll();
+            if (spent < Math.max(minPerSecond, (int) (requests * ratio))) {
+                spent++;
+                return true;
+            }
+            return false;
+        }
+
+        private void roll() {
+            long now = System.nanoTime();
+            if (now - windowStart >= WINDOW_NANOS) {
+                windowStart = now;
+                requests = 0;
+                spent = 0;
+            }
+        }
+    }
+
+    /**
+     * ============================================
+     * LATENCY TRACKER
+     * ============================================
+     *
+     * Ring buffer of the last 256 successful latencies; p95 is recomputed
+     * every 32 samples, so reads are a plain field access.
+     */
+    static final class LatencyTracker {
+
+        private static final int SAMPLES = 256;
+        private static final int MIN_SAMPLES = 20;
+        private static final int RECOMPUTE_EVERY = 32;
+
+        private final long[] samples = new long[SAMPLES];
+        private int next;
+        private int size;
+        private int sinceRecompute;
+        private volatile long p95Nanos = -1;
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % SAMPLES;
+            if (size < SAMPLES) {
+                size++;
+            }
+            if (size >= MIN_SAMPLES && (++sinceRecompute >= RECOMPUTE_EVERY || p95Nanos < 0)) {
+                long[] sorted = Arrays.copyOf(samples, size);
+                Arrays.sort(sorted);
+                p95Nanos = sorted[(int) Math.ceil(size * 0.95) - 1];
+                sinceRecompute = 0;
+            }
+        }
+
+        long hedgeDelayNanos(long defaultNanos, long minNanos) {
+            long p95 = p95Nanos;
+            return p95 < 0 ? defaultNanos : Math.max(minNanos, p95);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.gms_server.auth_app.utils;
+
+/**
+ * Thrown when a Zitadel call is not attempted because the issuer is
+ * considered unavailable (circuit open, concurrency limit reached).
+ *
+ * Callers can fall back to stale-but-valid data instead of treating
+ * the token as expired.
+ */
+public class ZitadelUnavailableException extends RuntimeException {
+
+    private final String issuer;
+
+    public ZitadelUnavailableException(String message, String issuer) {
+        super(message);
+        this.issuer = issuer;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+}
@@ -0,0 +1,211 @@
+package com.gms_server.auth_app.services;
+
+import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.configs.PersonaProperties;
+import com.gms_server.auth_app.utils.RedisService;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackchannelLogoutServiceTest {
+
+    private static final String LOGOUT_EVENT = "http://schemas.openid.net/event/backchannel-logout";
+    private static final String CLIENT_ID = "vendor-client";
+
+    private HttpServer jwksServer;
+    private RSAKey signingKey;
+    private PersonaConfig vendor;
+
+    private final List<String> revokedIdpSessions = new ArrayList<>();
+    private final List<String> revokedUsers = new ArrayList<>();
+    private final List<String> invalidated = new ArrayList<>();
+    private BackchannelLogoutService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        signingKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        byte[] jwks = new JWKSet(signingKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        jwksServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        jwksServer.createContext("/oauth/v2/keys", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, jwks.length);
+            exchange.getResponseBody().write(jwks);
+            exchange.close();
+        });
+        jwksServer.start();
+
+        PersonaProperties.Definition definition = new PersonaProperties.Definition();
+        definition.setIssuer("http://127.0.0.1:" + jwksServer.getAddress().getPort());
+        definition.setClientId(CLIENT_ID);
+        definition.setProjectId("10000");
+        definition.setSessionIdName("VENDOR_SESSION_ID");
+        vendor = new PersonaConfig("vendor", 0, definition);
+
+        SessionService sessions = new SessionService(null, null, null, null, null, null, null, 30, 1000, 1000) {
+            @Override
+            public Set<String> revokeIdpSession(PersonaConfig config, String idpSessionId, String userId) {
+                revokedIdpSessions.add(idpSessionId + " " + userId);
+                return new LinkedHashSet<>(List.of("local-1", "local-2"));
+            }
+
+            @Override
+            public int revokeUserSessions(String userId, List<String> personas, boolean revokeUpstream) {
+                revokedUsers.add(userId + " " + personas + " " + revokeUpstream);
+                return 3;
+            }
+        };
+        DecisionCache decisionCache = new DecisionCache(null, null, null, false, 30, 1000) {
+            @Override
+            public void invalidateSession(String sessionId) {
+                invalidated.add("session:" + sessionId);
+            }
+
+            @Override
+            public void invalidateUser(String userId) {
+                invalidated.add("user:" + userId);
+            }
+        };
+        Set<String> usedJtis = new HashSet<>();
+        RedisService redis = new RedisService(null, null) {
+            @Override
+            public Boolean setIfAbsent(String key, Object value, long timeout, TimeUnit unit) {
+                return usedJtis.add(key);
+            }
+        };
+        service = new BackchannelLogoutService(sessions, decisionCache, redis);
+        ReflectionTestUtils.setField(service, "maxAgeSeconds", 300L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jwksServer.stop(0);
+    }
+
+    @Test
+    void tokenWithSidEndsOnlyThatIdpSession() throws Exception {
+        int ended = service.logout(vendor, sign(claims().subject("user-1").claim("sid", "idp-1").build()));
+
+        assertEquals(2, ended);
+        assertEquals(List.of("idp-1 user-1"), revokedIdpSessions);
+        assertTrue(revokedUsers.isEmpty());
+        assertEquals(List.of("session:local-1", "session:local-2"), invalidated);
+    }
+
+    @Test
+    void tokenWithOnlySubEndsAllSessionsOfThePersona() throws Exception {
+        int ended = service.logout(vendor, sign(claims().subject("user-1").build()));
+
+        assertEquals(3, ended);
+        assertEquals(List.of("user-1 [vendor] false"), revokedUsers);
+        assertEquals(List.of("user:user-1"), invalidated);
+    }
+
+    @Test
+    void sidOnlyTokenIsAccepted() throws Exception {
+        service.logout(vendor, sign(claims().claim("sid", "idp-1").build()));
+
+        assertEquals(List.of("idp-1 null"), revokedIdpSessions);
+    }
+
+    @Test
+    void tokenWithoutSubOrSidIsRejected() throws Exception {
+        assertRejected(sign(claims().build()));
+    }
+
+    @Test
+    void tokenWithoutLogoutEventIsRejected() throws Exception {
+        assertRejected(sign(base().subject("user-1").build()));
+        assertRejected(sign(base().subject("user-1").claim("events", Map.of("urn:other:event", Map.of())).build()));
+    }
+
+    @Test
+    void tokenWithNonceIsRejected() throws Exception {
+        assertRejected(sign(claims().subject("user-1").claim("nonce", "n-1").build()));
+    }
+
+    @Test
+    void tokenOutsideIatWindowIsRejected() throws Exception {
+        Instant now = Instant.now();
+        assertRejected(sign(claims().subject("user-1").issueTime(Date.from(now.minusSeconds(301))).build()));
+        assertRejected(sign(claims().subject("user-1").issueTime(Date.from(now.plusSeconds(120))).build()));
+    }
+
+    @Test
+    void replayedTokenIsRejected() throws Exception {
+        String token = sign(claims().subject("user-1").build());
+        service.logout(vendor, token);
+
+        assertRejected(token);
+        assertEquals(1, revokedUsers.size());
+    }
+
+    @Test
+    void tokenForAnotherClientOrKeyIsRejected() throws Exception {
+        assertRejected(sign(claims().subject("user-1").audience("other-client").build()));
+
+        RSAKey otherKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        assertRejected(sign(claims().subject("user-1").build(), otherKey));
+    }
+
+    private void assertRejected(String token) {
+        int revokedBefore = revokedIdpSessions.size() + revokedUsers.size();
+        assertThrows(IllegalArgumentException.class, () -> service.logout(vendor, token));
+        assertEquals(revokedBefore, revokedIdpSessions.size() + revokedUsers.size());
+    }
+
+    /**
+     * Valid logout token claims (add sub and/or sid)
+     */
+    private JWTClaimsSet.Builder claims() {
+        return base().claim("events", Map.of(LOGOUT_EVENT, Map.of()));
+    }
+
+    private JWTClaimsSet.Builder base() {
+        return new JWTClaimsSet.Builder()
+                .issuer(vendor.getIssuer())
+                .audience(CLIENT_ID)
+                .issueTime(new Date())
+                .jwtID(UUID.randomUUID().toString());
+    }
+
+    private String sign(JWTClaimsSet claims) throws Exception {
+        return sign(claims, signingKey);
+    }
+
+    private static String sign(JWTClaimsSet claims, RSAKey key) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256)
+                .keyID(key.getKeyID())
+                .type(new JOSEObjectType("logout+jwt"))
+                .build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
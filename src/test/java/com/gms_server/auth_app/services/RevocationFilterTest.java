@@ -0,0 +1,176 @@
+package com.gms_server.auth_app.services;
+
+import com.gms_server.auth_app.utils.RedisService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevocationFilterTest {
+
+    private final FakeRedis redis = new FakeRedis();
+    private final long future = Instant.now().getEpochSecond() + 3600;
+
+    @Test
+    void revokedSessionIsFoundOthersAreNot() {
+        RevocationFilter filter = filter("cookie", 1 << 16);
+
+        filter.revoke("session-1", future);
+
+        assertTrue(filter.isRevoked("session-1"));
+        assertFalse(filter.isRevoked("session-2"));
+        assertEquals(future, redis.revoked.get("session-1").longValue());
+    }
+
+    @Test
+    void expiredRevocationIsIgnored() {
+        RevocationFilter filter = filter("cookie", 1 << 16);
+
+        filter.revoke("session-1", Instant.now().getEpochSecond() - 1);
+
+        assertFalse(filter.isRevoked("session-1"));
+    }
+
+    @Test
+    void redisSessionModeNeverRevokesLocally() {
+        RevocationFilter filter = filter("redis", 1 << 16);
+
+        filter.revoke("session-1", future);
+
+        assertFalse(filter.isRevoked("session-1"));
+        assertTrue(redis.revoked.isEmpty());
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegatives() {
+        RevocationFilter.Replica replica = new RevocationFilter.Replica(1 << 16);
+        for (int i = 0; i < 5_000; i++) {
+            replica.add("revoked-" + i, future);
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(replica.contains("revoked-" + i));
+        }
+    }
+
+    @Test
+    void bloomHitsAreConfirmedByExactSet() {
+        // 64 bits for 1000 entries: almost every lookup passes the Bloom filter
+        RevocationFilter.Replica replica = new RevocationFilter.Replica(64);
+        for (int i = 0; i < 1_000; i++) {
+            replica.add("revoked-" + i, future);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(replica.contains("live-" + i));
+        }
+    }
+
+    @Test
+    void resyncLoadsRedisAndDropsExpired() {
+        redis.revoked.put("from-other-instance", (double) future);
+        redis.revoked.put("expired", (double) Instant.now().getEpochSecond() - 10);
+        RevocationFilter filter = filter("cookie", 1 << 16);
+
+        filter.resync();
+
+        assertTrue(filter.isRevoked("from-other-instance"));
+        assertFalse(filter.isRevoked("expired"));
+        assertFalse(redis.revoked.containsKey("expired"));
+    }
+
+    @Test
+    void revocationArrivingDuringResyncIsKept() {
+        RevocationFilter filter = filter("cookie", 1 << 16);
+        // Lands after the snapshot was read from Redis, before the fresh replica is swapped in
+        redis.duringRead = () -> filter.revoke("arrived-mid-sync", future);
+        redis.snapshotExcludes = "arrived-mid-sync";
+
+        filter.resync();
+
+        assertTrue(filter.isRevoked("arrived-mid-sync"));
+    }
+
+    @Test
+    void notSyncedUntilFirstResyncSucceeds() {
+        RevocationFilter filter = filter("cookie", 1 << 16);
+        redis.down = true;
+
+        assertThrows(RuntimeException.class, filter::resync);
+        assertFalse(filter.isSynced());
+
+        redis.down = false;
+        filter.resync();
+        assertTrue(filter.isSynced());
+    }
+
+    @Test
+    void redisSessionModeIsAlwaysSynced() {
+        assertTrue(filter("redis", 1 << 16).isSynced());
+    }
+
+    private RevocationFilter filter(String sessionMode, int bloomBits) {
+        return new RevocationFilter(redis, null, sessionMode, bloomBits);
+    }
+
+    /**
+     * The sorted set "session:revoked" in memory
+     */
+    private static final class FakeRedis extends RedisService {
+
+        final Map<String, Double> revoked = new ConcurrentHashMap<>();
+        Runnable duringRead;
+        String snapshotExcludes;
+        volatile boolean down;
+
+        FakeRedis() {
+            super(null, null);
+        }
+
+        @Override
+        public Boolean zadd(String key, String member, double score) {
+            return revoked.put(member, score) == null;
+        }
+
+        @Override
+        public Long publish(String channel, String message) {
+            return 0L;
+        }
+
+        @Override
+        public Long zremrangeByScore(String key, double min, double max) {
+            if (down) {
+                throw new RuntimeException("Redis operation failed");
+            }
+            long before = revoked.size();
+            revoked.values().removeIf(score -> score >= min && score <= max);
+            return before - revoked.size();
+        }
+
+        @Override
+        public Set<ZSetOperations.TypedTuple<Object>> zrangeByScoreWithScores(String key, double min, double max) {
+            Set<ZSetOperations.TypedTuple<Object>> snapshot = new HashSet<>();
+            revoked.forEach((member, score) -> {
+                if (score >= min && score <= max && !member.equals(snapshotExcludes)) {
+                    snapshot.add(new DefaultTypedTuple<>(member, score));
+                }
+            });
+            if (duringRead != null) {
+                Runnable hook = duringRead;
+                duringRead = null;
+                hook.run();
+            }
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.gms_server.auth_app.services;
+
+import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.configs.PersonaProperties;
+import com.gms_server.auth_app.utils.RedisService;
+import com.gms_server.auth_app.utils.SecretKeyProvider;
+import com.gms_server.auth_app.utils.SessionIdSigner;
+import com.gms_server.auth_app.utils.TestSecrets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionServiceCookieModeTest {
+
+    private static final Map<String, Object> TOKENS = Map.of(
+            "access_token", "access-token-value",
+            "refresh_token", "refresh-token-value");
+
+    private final PersonaConfig vendor = persona("vendor", 0);
+    private final PersonaConfig consumer = persona("consumer", 1);
+    private final RedisService redis = new RedisService(null, null) {
+        @Override
+        public List<Object> executeInTransaction(Consumer<RedisOperations<String, Object>> commands) {
+            // User / IdP session indexes are not under test
+            return List.of();
+        }
+
+        @Override
+        public Boolean zadd(String key, String member, double score) {
+            return true;
+        }
+
+        @Override
+        public Long publish(String channel, String message) {
+            return 0L;
+        }
+    };
+
+    private RevocationFilter revocationFilter;
+    private SessionService sessions;
+
+    @BeforeEach
+    void setUp() {
+        revocationFilter = new RevocationFilter(redis, null, SessionService.MODE_COOKIE, 1 << 16);
+        sessions = sessionService(TestSecrets.secret((byte) 1));
+    }
+
+    @Test
+    void sealedCookieRoundTrips() {
+        long before = Instant.now().getEpochSecond();
+        String cookie = sessions.create(vendor, "user-1", "idp-session", TOKENS);
+
+        SessionService.SessionRef session = sessions.resolve(vendor, cookie);
+
+        assertNotNull(session);
+        assertEquals("access-token-value", session.tokens().get("access_token"));
+        assertEquals("refresh-token-value", session.tokens().get("refresh_token"));
+        assertEquals("user-1", session.tokens().get(SessionService.USER_ID_FIELD));
+        assertTrue(session.expiresAt() >= before + sessions.getTtlSeconds());
+        // The cookie carries the tokens, so it must not be readable as plain text
+        assertFalse(cookie.contains("access-token-value"));
+        assertEquals(5, cookie.split("\\.").length);
+    }
+
+    @Test
+    void refreshedCookieKeepsSessionIdAndExpiry() {
+        SessionService.SessionRef session = sessions.resolve(vendor, sessions.create(vendor, "user-1", null, TOKENS));
+
+        String refreshed = sessions.updateTokens(vendor, session, "user-1",
+                Map.of("access_token", "new-access", "refresh_token", "new-refresh"));
+        SessionService.SessionRef reopened = sessions.resolve(vendor, refreshed);
+
+        assertEquals(session.id(), reopened.id());
+        assertEquals(session.expiresAt(), reopened.expiresAt());
+        assertEquals("new-access", reopened.tokens().get("access_token"));
+    }
+
+    @Test
+    void cookieOfAnotherPersonaIsRejected() {
+        String cookie = sessions.create(vendor, "user-1", null, TOKENS);
+
+        assertNull(sessions.resolve(consumer, cookie));
+    }
+
+    @Test
+    void tamperedOrForeignCookieIsRejected() {
+        String cookie = sessions.create(vendor, "user-1", null, TOKENS);
+        // First ciphertext character: all of its bits are significant (unlike the tag's last one)
+        int ciphertext = cookie.indexOf('.', cookie.indexOf('.', cookie.indexOf('.') + 1) + 1) + 1;
+        char original = cookie.charAt(ciphertext);
+        String tampered = cookie.substring(0, ciphertext) + (original == 'A' ? 'B' : 'A')
+                + cookie.substring(ciphertext + 1);
+
+        assertNull(sessions.resolve(vendor, tampered));
+        assertNull(sessions.resolve(vendor, "not-a-jwe"));
+        assertNull(sessionService(TestSecrets.secret((byte) 2)).resolve(vendor, cookie));
+    }
+
+    @Test
+    void expiredCookieIsRejected() {
+        SessionService.SessionRef session = sessions.resolve(vendor, sessions.create(vendor, "user-1", null, TOKENS));
+        SessionService.SessionRef expired = new SessionService.SessionRef(session.id(), null,
+                Instant.now().getEpochSecond() - 1);
+
+        assertNull(sessions.resolve(vendor, sessions.updateTokens(vendor, expired, "user-1", TOKENS)));
+    }
+
+    @Test
+    void revokedCookieIsRejected() {
+        String cookie = sessions.create(vendor, "user-1", null, TOKENS);
+        String other = sessions.create(vendor, "user-1", null, TOKENS);
+
+        assertNotNull(sessions.revoke(vendor, cookie));
+
+        assertNull(sessions.resolve(vendor, cookie));
+        assertNotNull(sessions.resolve(vendor, other));
+        assertNotEquals(cookie, other);
+    }
+
+    @Test
+    void refreshOfSessionRevokedMeanwhileIsDropped() {
+        String cookie = sessions.create(vendor, "user-1", null, TOKENS);
+        SessionService.SessionRef session = sessions.resolve(vendor, cookie);
+        sessions.revoke(vendor, cookie);
+
+        assertThrows(SessionService.SessionEndedException.class, () -> sessions.updateTokens(vendor, session,
+                "user-1", Map.of("access_token", "new-access", "refresh_token", "new-refresh")));
+    }
+
+    private SessionService sessionService(String secret) {
+        SecretKeyProvider keys = new SecretKeyProvider(secret);
+        // Upstream revocation queue left disabled; touch buffer and tiering are redis-mode only
+        SessionService service = new SessionService(redis, keys, revocationFilter, new SessionIdSigner(keys),
+                new TokenRevocationQueue(redis, null, null), null, null, 30, 1000, 1000);
+        ReflectionTestUtils.setField(service, "sessionMode", SessionService.MODE_COOKIE);
+        ReflectionTestUtils.setField(service, "sessionTtlDays", 7);
+        service.init();
+        return service;
+    }
+
+    private static PersonaConfig persona(String name, int index) {
+        PersonaProperties.Definition definition = new PersonaProperties.Definition();
+        definition.setIssuer("https://auth.example.com");
+        definition.setClientId(name + "-client");
+        definition.setProjectId("1000" + index);
+        definition.setSessionIdName(name.toUpperCase() + "_SESSION_ID");
+        return new PersonaConfig(name, index, definition);
+    }
+}
@@ -0,0 +1,169 @@
+package com.gms_server.auth_app.services;
+
+import com.gms_server.auth_app.configs.PersonaConfig;
+import com.gms_server.auth_app.configs.PersonaProperties;
+import com.gms_server.auth_app.utils.RedisService;
+import com.gms_server.auth_app.utils.SecretKeyProvider;
+import com.gms_server.auth_app.utils.SessionIdSigner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Redis session mode. Sliding expiry: touches never extend a session past its absolute
+ * expiry, whatever the session ID format (no auth.secret here, so IDs are unsigned).
+ */
+class SessionServiceRedisModeTest {
+
+    private static final String SESSION_ID = "QUJDREVGR0hJSktMTU5PUFFSU1RVVldYWVphYmNkZWZ";
+    private static final long IDLE_TIMEOUT_SECONDS = 30 * 60;
+
+    private final Map<String, Object> records = new HashMap<>();
+    private final Map<String, Long> touches = new LinkedHashMap<>();
+    private final Map<String, Map<String, Object>> coldRecords = new HashMap<>();
+    private final List<String> promoted = new ArrayList<>();
+    private final List<String> deleted = new ArrayList<>();
+    private SessionService sessions;
+
+    @BeforeEach
+    void setUp() {
+        RedisService redis = new RedisService(null, null) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getValue(String key, Class<T> clazz) {
+                return (T) records.get(key);
+            }
+
+            @Override
+            public List<Object> executeInTransaction(Consumer<RedisOperations<String, Object>> commands) {
+                // Only the session key deletion is recorded; index updates are not under test
+                return List.of(deleted.add(SESSION_ID));
+            }
+        };
+        SessionTouchBuffer touchBuffer = new SessionTouchBuffer(redis, false, 60, 1000) {
+            @Override
+            public void touch(String sessionId, long ttlSeconds) {
+                touches.put(sessionId, ttlSeconds);
+            }
+        };
+        SessionTiering tiering = new SessionTiering(redis, null) {
+            @Override
+            public Map<String, Object> peek(String sessionId) {
+                return coldRecords.get(sessionId);
+            }
+
+            @Override
+            public Map<String, Object> promote(String sessionId) {
+                promoted.add(sessionId);
+                return coldRecords.get(sessionId);
+            }
+
+            @Override
+            public void forget(Collection<String> sessionIds) {
+                sessionIds.forEach(coldRecords::remove);
+            }
+        };
+        SecretKeyProvider keys = new SecretKeyProvider("");
+        sessions = new SessionService(redis, keys, null, new SessionIdSigner(keys),
+                new TokenRevocationQueue(redis, null, null), touchBuffer, tiering, 30, 1000, 1000);
+        ReflectionTestUtils.setField(sessions, "sessionMode", SessionService.MODE_REDIS);
+        ReflectionTestUtils.setField(sessions, "sessionTtlDays", 7);
+        ReflectionTestUtils.setField(sessions, "idleTimeoutMinutes", IDLE_TIMEOUT_SECONDS / 60);
+        sessions.init();
+    }
+
+    @Test
+    void touchIsCappedByRecordExpiryForUnsignedIds() {
+        store(Instant.now().getEpochSecond() + 100);
+
+        sessions.loadTokens(new SessionService.SessionRef(SESSION_ID, null, 0));
+
+        long ttl = touches.get(SESSION_ID);
+        assertTrue(ttl > 0 && ttl <= 100, "TTL " + ttl);
+    }
+
+    @Test
+    void sessionFarFromExpirySlidesByIdleTimeout() {
+        store(Instant.now().getEpochSecond() + sessions.getTtlSeconds());
+
+        sessions.loadTokens(new SessionService.SessionRef(SESSION_ID, null, 0));
+
+        assertEquals(IDLE_TIMEOUT_SECONDS, (long) touches.get(SESSION_ID));
+    }
+
+    @Test
+    void decisionCacheHitReusesLoadedExpiry() {
+        store(Instant.now().getEpochSecond() + 100);
+        SessionService.SessionRef session = new SessionService.SessionRef(SESSION_ID, null, 0);
+        sessions.loadTokens(session);
+        touches.clear();
+
+        sessions.touch(session);
+
+        long ttl = touches.get(SESSION_ID);
+        assertTrue(ttl > 0 && ttl <= 100, "TTL " + ttl);
+    }
+
+    @Test
+    void decisionCacheHitWithUnknownExpiryOnlyRecordsActivity() {
+        sessions.touch(new SessionService.SessionRef(SESSION_ID, null, 0));
+
+        assertEquals(0L, (long) touches.get(SESSION_ID));
+    }
+
+    @Test
+    void expiredRecordGetsMinimalTtl() {
+        store(Instant.now().getEpochSecond() - 10);
+
+        sessions.loadTokens(new SessionService.SessionRef(SESSION_ID, null, 0));
+
+        assertEquals(1L, (long) touches.get(SESSION_ID));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void revokingDemotedSessionReadsColdCopyWithoutPromoting() {
+        store(Instant.now().getEpochSecond() + 100);
+        coldRecords.put(SESSION_ID, (Map<String, Object>) records.get(SessionService.SESSION_KEY_PREFIX + SESSION_ID));
+        records.put(SessionService.SESSION_KEY_PREFIX + SESSION_ID, SessionTiering.STUB);
+
+        assertEquals(SESSION_ID, sessions.revoke(vendor(), SESSION_ID));
+
+        assertTrue(promoted.isEmpty());
+        assertTrue(touches.isEmpty());
+        assertTrue(coldRecords.isEmpty());
+        assertEquals(List.of(SESSION_ID), deleted);
+    }
+
+    private void store(long expiresAt) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("access_token", "access-token-value");
+        record.put("refresh_token", "refresh-token-value");
+        record.put(SessionService.USER_ID_FIELD, "user-1");
+        // Epoch seconds come back from Redis as Integer
+        record.put(SessionService.EXPIRES_AT_FIELD, (int) expiresAt);
+        records.put(SessionService.SESSION_KEY_PREFIX + SESSION_ID, record);
+    }
+
+    private static PersonaConfig vendor() {
+        PersonaProperties.Definition definition = new PersonaProperties.Definition();
+        definition.setIssuer("https://auth.example.com");
+        definition.setClientId("vendor-client");
+        definition.setProjectId("10000");
+        definition.setSessionIdName("VENDOR_SESSION_ID");
+        return new PersonaConfig("vendor", 0, definition);
+    }
+}
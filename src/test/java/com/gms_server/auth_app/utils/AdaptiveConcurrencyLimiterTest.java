@@ -0,0 +1,134 @@
+package com.gms_server.auth_app.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final String ISSUER = "https://auth.example.com";
+    private static final long MS = 1_000_000;
+
+    private SimpleMeterRegistry registry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter(registry);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "initialLimit", 3);
+        ReflectionTestUtils.setField(limiter, "minLimit", 2);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 10);
+        ReflectionTestUtils.setField(limiter, "alpha", 3);
+        ReflectionTestUtils.setField(limiter, "beta", 6);
+        ReflectionTestUtils.setField(limiter, "backoffRatio", 0.5);
+        ReflectionTestUtils.setField(limiter, "minRttResetSamples", 1000);
+    }
+
+    @Test
+    void rejectsBeyondLimitUntilAPermitCompletes() {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            permits.add(limiter.acquire(ISSUER));
+        }
+
+        ZitadelUnavailableException rejected = assertThrows(ZitadelUnavailableException.class,
+                () -> limiter.acquire(ISSUER));
+        assertEquals(ISSUER, rejected.getIssuer());
+        assertEquals(1.0, registry.get("zitadel.concurrency.rejected").tag("issuer", "auth.example.com")
+                .counter().count(), 0.0);
+
+        permits.get(0).onIgnore();
+        limiter.acquire(ISSUER);
+    }
+
+    @Test
+    void permitCompletesOnlyOnce() {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(ISSUER);
+        permit.onIgnore();
+        permit.onIgnore();
+        permit.onDropped();
+
+        assertEquals(0.0, inFlight(), 0.0);
+        assertEquals(3.0, limit(), 0.0);
+    }
+
+    @Test
+    void droppedRequestShrinksLimitDownToMinimum() {
+        limiter.acquire(ISSUER).onDropped();
+        assertEquals(2.0, limit(), 0.0);
+
+        limiter.acquire(ISSUER).onDropped();
+        assertEquals(2.0, limit(), 0.0);
+    }
+
+    @Test
+    void disabledLimiterNeverRejects() {
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(AdaptiveConcurrencyLimiter.Permit.NOOP, limiter.acquire(ISSUER));
+        }
+    }
+
+    @Test
+    void limitGrowsWhileLatencyStaysAtBaselineAndLimitIsUsed() {
+        AdaptiveConcurrencyLimiter.IssuerLimit limit = issuerLimit();
+        for (int i = 0; i < 5; i++) {
+            // Two requests in flight, RTT at the no-load baseline
+            limit.tryAcquire();
+            limit.tryAcquire();
+            limit.onSample(10 * MS);
+            limit.inFlight.decrementAndGet();
+        }
+
+        // 3 → 4 → 5, then two in flight no longer use half of the limit
+        assertEquals(5, limit.limit);
+    }
+
+    @Test
+    void limitDoesNotGrowWhenAppLimited() {
+        AdaptiveConcurrencyLimiter.IssuerLimit limit = issuerLimit();
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+            limit.onSample(10 * MS);
+        }
+
+        assertEquals(3, limit.limit);
+    }
+
+    @Test
+    void limitShrinksWhenQueueingShowsInLatency() {
+        AdaptiveConcurrencyLimiter.IssuerLimit limit = new AdaptiveConcurrencyLimiter.IssuerLimit(
+                10, 2, 10, 3, 6, 0.5, 1000);
+        limit.tryAcquire();
+        limit.onSample(10 * MS);
+
+        // queue = 10 * (1 - 10 / 100) = 9 > beta
+        limit.tryAcquire();
+        limit.onSample(100 * MS);
+
+        assertEquals(9, limit.limit);
+    }
+
+    private AdaptiveConcurrencyLimiter.IssuerLimit issuerLimit() {
+        return new AdaptiveConcurrencyLimiter.IssuerLimit(3, 2, 10, 3, 6, 0.5, 1000);
+    }
+
+    private double limit() {
+        return registry.get("zitadel.concurrency.limit").gauge().value();
+    }
+
+    private double inFlight() {
+        return registry.get("zitadel.concurrency.inflight").gauge().value();
+    }
+}
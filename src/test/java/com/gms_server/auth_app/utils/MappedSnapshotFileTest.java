@@ -0,0 +1,118 @@
+package com.gms_server.auth_app.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedSnapshotFileTest {
+
+    private static final int VERSION = 2;
+
+    private Path dir;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("snapshot-test");
+        file = dir.resolve("cache.snapshot");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void recordsRoundTrip() throws IOException {
+        long before = System.currentTimeMillis();
+        MappedSnapshotFile.write(file, VERSION, List.of(bytes("first"), new byte[0], bytes("third")));
+
+        MappedSnapshotFile snapshot = MappedSnapshotFile.open(file, VERSION);
+
+        assertNotNull(snapshot);
+        assertTrue(snapshot.getCreatedAtMillis() >= before);
+        assertEquals(3, snapshot.getRecords().size());
+        assertEquals("first", text(snapshot.getRecords().get(0)));
+        assertEquals(0, snapshot.getRecords().get(1).remaining());
+        assertEquals("third", text(snapshot.getRecords().get(2)));
+        assertTrue(snapshot.getRecords().get(0).isReadOnly());
+        assertFalse(Files.exists(dir.resolve("cache.snapshot.tmp")));
+    }
+
+    @Test
+    void stringsRoundTrip() {
+        List<String> values = Arrays.asList("session-id", null, "", "Zoë ✓");
+        int size = values.stream().mapToInt(MappedSnapshotFile::sizeOf).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        values.forEach(value -> MappedSnapshotFile.putString(buffer, value));
+
+        assertEquals(0, buffer.remaining());
+        buffer.flip();
+        for (String value : values) {
+            assertEquals(value, MappedSnapshotFile.getString(buffer));
+        }
+    }
+
+    @Test
+    void writeReplacesPreviousSnapshot() throws IOException {
+        MappedSnapshotFile.write(file, VERSION, List.of(bytes("old"), bytes("older")));
+        MappedSnapshotFile.write(file, VERSION, List.of(bytes("new")));
+
+        MappedSnapshotFile snapshot = MappedSnapshotFile.open(file, VERSION);
+
+        assertEquals(1, snapshot.getRecords().size());
+        assertEquals("new", text(snapshot.getRecords().get(0)));
+    }
+
+    @Test
+    void otherVersionIsIgnored() throws IOException {
+        MappedSnapshotFile.write(file, VERSION, List.of(bytes("record")));
+
+        assertNull(MappedSnapshotFile.open(file, VERSION + 1));
+    }
+
+    @Test
+    void missingOrForeignFileIsIgnored() throws IOException {
+        assertNull(MappedSnapshotFile.open(file, VERSION));
+
+        Files.write(file, bytes("definitely not a snapshot file"));
+        assertNull(MappedSnapshotFile.open(file, VERSION));
+    }
+
+    @Test
+    void truncatedRecordIsRejected() throws IOException {
+        MappedSnapshotFile.write(file, VERSION, List.of(bytes("a record that gets cut off")));
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 5));
+
+        assertNull(MappedSnapshotFile.open(file, VERSION));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer record) {
+        byte[] bytes = new byte[record.remaining()];
+        record.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+package com.gms_server.auth_app.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionIdSignerTest {
+
+    private static final long TTL_SECONDS = 3600;
+
+    private static final SecretKeyProvider KEYS = new SecretKeyProvider(TestSecrets.secret((byte) 1));
+
+    private final SessionIdSigner signer = new SessionIdSigner(KEYS);
+
+    @Test
+    void issuedIdVerifies() {
+        String sessionId = signer.issue();
+
+        assertEquals(SessionIdSigner.Result.VALID, signer.verify(sessionId, TTL_SECONDS));
+        assertTrue(Math.abs(signer.issuedAt(sessionId) - Instant.now().getEpochSecond()) <= 1);
+    }
+
+    @Test
+    void idFromAnotherKeyIsInvalid() {
+        String foreign = new SessionIdSigner(new SecretKeyProvider(TestSecrets.secret((byte) 2))).issue();
+
+        assertEquals(SessionIdSigner.Result.INVALID, signer.verify(foreign, TTL_SECONDS));
+    }
+
+    @Test
+    void tamperedIdIsInvalid() {
+        String sessionId = signer.issue();
+        char first = sessionId.charAt(0);
+        String tampered = (first == 'A' ? 'B' : 'A') + sessionId.substring(1);
+
+        assertEquals(SessionIdSigner.Result.INVALID, signer.verify(tampered, TTL_SECONDS));
+    }
+
+    @Test
+    void idOlderThanTtlIsInvalid() throws Exception {
+        long now = Instant.now().getEpochSecond();
+
+        assertEquals(SessionIdSigner.Result.VALID, signer.verify(signedAt(now - TTL_SECONDS + 60), TTL_SECONDS));
+        assertEquals(SessionIdSigner.Result.INVALID, signer.verify(signedAt(now - TTL_SECONDS - 60), TTL_SECONDS));
+    }
+
+    @Test
+    void idIssuedInTheFutureIsInvalid() throws Exception {
+        long now = Instant.now().getEpochSecond();
+
+        assertEquals(SessionIdSigner.Result.INVALID, signer.verify(signedAt(now + 3600), TTL_SECONDS));
+    }
+
+    @Test
+    void plainRandomIdIsUnsignedOnlyWithoutKey() {
+        SessionIdSigner unsignedOnly = new SessionIdSigner(new SecretKeyProvider(""));
+        String unsigned = unsignedOnly.issue();
+
+        assertEquals(SessionIdSigner.Result.UNSIGNED, unsignedOnly.verify(unsigned, TTL_SECONDS));
+        // With a key, well-formed junk is rejected in memory
+        assertEquals(SessionIdSigner.Result.INVALID, signer.verify(unsigned, TTL_SECONDS));
+    }
+
+    @Test
+    void legacyUuidIdIsUnsigned() {
+        String legacy = UUID.randomUUID().toString();
+
+        assertEquals(SessionIdSigner.Result.UNSIGNED, signer.verify(legacy, TTL_SECONDS));
+        assertEquals(SessionIdSigner.Result.UNSIGNED, signer.verify(legacy.toUpperCase(), TTL_SECONDS));
+    }
+
+    @Test
+    void malformedIdsAreInvalid() {
+        assertEquals(SessionIdSigner.Result.INVALID, signer.verify(null, TTL_SECONDS));
+        assertEquals(SessionIdSigner.Result.INVALID, signer.verify("", TTL_SECONDS));
+        assertEquals(SessionIdSigner.Result.INVALID, signer.verify("not-a-session-id", TTL_SECONDS));
+        assertEquals(SessionIdSigner.Result.INVALID, signer.verify("a".repeat(42) + "!", TTL_SECONDS));
+        assertEquals(SessionIdSigner.Result.INVALID, signer.verify(signer.issue() + "x", TTL_SECONDS));
+    }
+
+    @Test
+    void signedIdIsInvalidWithoutKey() {
+        SessionIdSigner unsignedOnly = new SessionIdSigner(new SecretKeyProvider(""));
+
+        assertFalse(unsignedOnly.isEnabled());
+        assertEquals(SessionIdSigner.Result.INVALID, unsignedOnly.verify(signer.issue(), TTL_SECONDS));
+    }
+
+    /**
+     * Correctly signed ID with the given issue time (same format and key as issue())
+     */
+    private static String signedAt(long issuedAt) throws Exception {
+        String body = "A".repeat(43) + "." + Long.toString(issuedAt, 36);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEYS.deriveKey("session-id"), "HmacSHA256"));
+        byte[] tag = Arrays.copyOf(mac.doFinal(body.getBytes(StandardCharsets.US_ASCII)), 16);
+        return body + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(tag);
+    }
+}
@@ -0,0 +1,80 @@
+package com.gms_server.auth_app.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateEnvelopeServiceTest {
+
+    private static final String VERIFIER = "dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk";
+
+    private final SecretKeyProvider keys = new SecretKeyProvider(TestSecrets.secret((byte) 1));
+    private final StateEnvelopeService envelopes = new StateEnvelopeService(keys, 600);
+
+    @Test
+    void sealedStateOpens() {
+        StateEnvelopeService.Payload payload = envelopes.open(envelopes.seal(VERIFIER, "vendor"));
+
+        assertNotNull(payload);
+        assertEquals(VERIFIER, payload.codeVerifier());
+        assertEquals("vendor", payload.persona());
+        assertTrue(payload.remainingSeconds() > 590 && payload.remainingSeconds() <= 600);
+    }
+
+    @Test
+    void tamperedStateIsRejected() {
+        byte[] raw = Base64.getUrlDecoder().decode(envelopes.seal(VERIFIER, "vendor"));
+        for (int position : new int[]{1, 20, raw.length - 1}) {
+            byte[] tampered = raw.clone();
+            tampered[position] ^= 0x01;
+
+            assertNull(envelopes.open(Base64.getUrlEncoder().withoutPadding().encodeToString(tampered)));
+        }
+    }
+
+    @Test
+    void stateSealedWithAnotherKeyIsRejected() {
+        String foreign = new StateEnvelopeService(new SecretKeyProvider(TestSecrets.secret((byte) 2)), 600)
+                .seal(VERIFIER, "vendor");
+
+        assertNull(envelopes.open(foreign));
+    }
+
+    @Test
+    void expiredStateIsRejected() throws Exception {
+        StateEnvelopeService shortLived = new StateEnvelopeService(keys, 0);
+        String state = shortLived.seal(VERIFIER, "vendor");
+        Thread.sleep(1100);
+
+        assertNull(shortLived.open(state));
+    }
+
+    @Test
+    void replayedStateCarriesTheSameNonce() {
+        // The caller rejects replays with SET NX on the nonce, so it must be stable per state and unique per seal
+        String state = envelopes.seal(VERIFIER, "vendor");
+
+        assertEquals(envelopes.open(state).nonce(), envelopes.open(state).nonce());
+        assertNotEquals(envelopes.open(state).nonce(), envelopes.open(envelopes.seal(VERIFIER, "vendor")).nonce());
+    }
+
+    @Test
+    void malformedStateIsRejected() {
+        assertNull(envelopes.open("not base64!"));
+        assertNull(envelopes.open("AQID"));
+        assertNull(envelopes.open(envelopes.seal(VERIFIER, "vendor").substring(1)));
+    }
+
+    @Test
+    void nothingOpensWithoutSecret() {
+        StateEnvelopeService unconfigured = new StateEnvelopeService(new SecretKeyProvider(""), 600);
+
+        assertNull(unconfigured.open(envelopes.seal(VERIFIER, "vendor")));
+    }
+}
@@ -0,0 +1,22 @@
+package com.gms_server.auth_app.utils;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Fixed auth.secret values for tests; different fills give unrelated keys
+ */
+public final class TestSecrets {
+
+    private TestSecrets() {
+    }
+
+    /**
+     * Base64 auth.secret of 32 bytes, all set to fill
+     */
+    public static String secret(byte fill) {
+        byte[] bytes = new byte[32];
+        Arrays.fill(bytes, fill);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,221 @@
+package com.gms_server.auth_app.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZitadelResilienceTest {
+
+    private static final String ISSUER = "https://auth.example.com";
+
+    private ZitadelResilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Limiter left disabled: these tests are about retries and the breaker
+        resilience = new ZitadelResilience(new AdaptiveConcurrencyLimiter(registry),
+                new AuthMetrics(registry, new ServerTiming(false, 0), 50));
+        ReflectionTestUtils.setField(resilience, "attemptTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(resilience, "hedgeEnabled", false);
+        ReflectionTestUtils.setField(resilience, "maxRetries", 2);
+        ReflectionTestUtils.setField(resilience, "baseBackoffMs", 1L);
+        ReflectionTestUtils.setField(resilience, "maxBackoffMs", 2L);
+        ReflectionTestUtils.setField(resilience, "retryBudgetRatio", 0.1);
+        ReflectionTestUtils.setField(resilience, "minRetriesPerSecond", 5);
+        ReflectionTestUtils.setField(resilience, "breakerWindowSize", 10);
+        ReflectionTestUtils.setField(resilience, "breakerMinimumCalls", 4);
+        ReflectionTestUtils.setField(resilience, "breakerFailureRateThreshold", 50);
+        ReflectionTestUtils.setField(resilience, "breakerOpenSeconds", 60L);
+        ReflectionTestUtils.setField(resilience, "breakerHalfOpenProbes", 2);
+    }
+
+    // -------- execute() --------
+
+    @Test
+    void retriesTransientFailureOfIdempotentCall() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = resilience.execute(ISSUER, "userinfo", true, () -> calls.incrementAndGet() < 3
+                ? Mono.error(status(503))
+                : Mono.just("ok")).block();
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void doesNotRetryNonIdempotentCallThatReachedTheServer() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(WebClientResponseException.class, () -> resilience.execute(ISSUER, "token", false, () -> {
+            calls.incrementAndGet();
+            return Mono.<String>error(status(503));
+        }).block());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(WebClientResponseException.class, () -> resilience.execute(ISSUER, "userinfo", true, () -> {
+            calls.incrementAndGet();
+            return Mono.<String>error(status(401));
+        }).block());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void exhaustedRetryBudgetStopsRetries() {
+        ReflectionTestUtils.setField(resilience, "minRetriesPerSecond", 1);
+        ReflectionTestUtils.setField(resilience, "retryBudgetRatio", 0.0);
+        // Keep the breaker out of the way
+        ReflectionTestUtils.setField(resilience, "breakerMinimumCalls", 100);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(WebClientResponseException.class, () -> resilience.execute(ISSUER, "userinfo", true, () -> {
+                calls.incrementAndGet();
+                return Mono.<String>error(status(503));
+            }).block());
+        }
+        // One retry in the budget for this second, then each call is attempted once
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void openCircuitFailsFastWithoutCallingZitadel() {
+        ReflectionTestUtils.setField(resilience, "maxRetries", 0);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(WebClientResponseException.class, () -> resilience.execute(ISSUER, "userinfo", true,
+                    () -> Mono.<String>error(status(500))).block());
+        }
+        AtomicInteger calls = new AtomicInteger();
+
+        ZitadelUnavailableException error = assertThrows(ZitadelUnavailableException.class, () ->
+                resilience.execute(ISSUER, "userinfo", true, () -> {
+                    calls.incrementAndGet();
+                    return Mono.just("ok");
+                }).block());
+        assertEquals(ISSUER, error.getIssuer());
+        assertEquals(0, calls.get());
+    }
+
+    // -------- CircuitBreaker --------
+
+    @Test
+    void breakerOpensAtFailureRateAfterMinimumCalls() {
+        ZitadelResilience.CircuitBreaker breaker = breaker(TimeUnit.SECONDS.toNanos(60));
+        breaker.onFailure(false);
+        breaker.onFailure(false);
+        breaker.onSuccess(false);
+        assertEquals(ZitadelResilience.CircuitBreaker.PERMITTED, breaker.tryAcquirePermission());
+
+        // 3 of 4 failed >= 50 %
+        breaker.onFailure(false);
+
+        assertEquals(ZitadelResilience.CircuitBreaker.DENIED, breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void halfOpenBreakerClosesAfterSuccessfulProbes() {
+        ZitadelResilience.CircuitBreaker breaker = openBreaker();
+
+        assertEquals(ZitadelResilience.CircuitBreaker.PROBE, breaker.tryAcquirePermission());
+        assertEquals(ZitadelResilience.CircuitBreaker.PROBE, breaker.tryAcquirePermission());
+        assertEquals(ZitadelResilience.CircuitBreaker.DENIED, breaker.tryAcquirePermission());
+        breaker.onSuccess(true);
+        breaker.onSuccess(true);
+
+        assertEquals(ZitadelResilience.CircuitBreaker.PERMITTED, breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void failedProbeReopensBreaker() {
+        ZitadelResilience.CircuitBreaker breaker = breaker(TimeUnit.SECONDS.toNanos(60));
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(false);
+        }
+        ReflectionTestUtils.setField(breaker, "openedAt", System.nanoTime() - TimeUnit.SECONDS.toNanos(61));
+
+        assertEquals(ZitadelResilience.CircuitBreaker.PROBE, breaker.tryAcquirePermission());
+        breaker.onFailure(true);
+
+        assertEquals(ZitadelResilience.CircuitBreaker.DENIED, breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void cancelledProbeFreesItsSlot() {
+        ZitadelResilience.CircuitBreaker breaker = openBreaker();
+        breaker.tryAcquirePermission();
+        breaker.tryAcquirePermission();
+
+        breaker.onCancel(true);
+
+        assertEquals(ZitadelResilience.CircuitBreaker.PROBE, breaker.tryAcquirePermission());
+    }
+
+    // -------- RetryBudget / LatencyTracker --------
+
+    @Test
+    void retryBudgetAllowsMinimumThenRatioOfRequests() {
+        ZitadelResilience.RetryBudget budget = new ZitadelResilience.RetryBudget(0.1, 2);
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+
+        for (int i = 0; i < 30; i++) {
+            budget.recordRequest();
+        }
+
+        // 10 % of 30 requests = 3 per second, 2 already spent
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    void hedgeDelayFollowsP95OnceEnoughSamples() {
+        ZitadelResilience.LatencyTracker tracker = new ZitadelResilience.LatencyTracker();
+        for (int i = 1; i < 20; i++) {
+            tracker.record(i * 1_000_000L);
+        }
+        assertEquals(250_000_000L, tracker.hedgeDelayNanos(250_000_000L, 20_000_000L));
+
+        tracker.record(20 * 1_000_000L);
+
+        // p95 of 1..20 ms = 19 ms
+        assertEquals(19_000_000L, tracker.hedgeDelayNanos(250_000_000L, 1_000_000L));
+        assertEquals(20_000_000L, tracker.hedgeDelayNanos(250_000_000L, 20_000_000L));
+    }
+
+    private ZitadelResilience.CircuitBreaker breaker(long openNanos) {
+        return new ZitadelResilience.CircuitBreaker(ISSUER, 10, 4, 50, openNanos, 2);
+    }
+
+    /**
+     * Breaker that just opened with a zero open period: the next permission request goes half-open
+     */
+    private ZitadelResilience.CircuitBreaker openBreaker() {
+        ZitadelResilience.CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(false);
+        }
+        return breaker;
+    }
+
+    private static WebClientResponseException status(int code) {
+        return WebClientResponseException.create(code, "status " + code, null, null, null);
+    }
+}